@@ -0,0 +1,104 @@
+package uk.gov.nhs.sts.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import uk.gov.nhs.sts.Application;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+/**
+ * Measures listing people end to end through {@link PeopleManagementService}, including the
+ * queries and the entity to DTO mapping, against an in-memory H2 database loaded with the
+ * synthetic dataset through the bulk import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FetchPeopleBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  private int people;
+
+  private ConfigurableApplicationContext context;
+  private PeopleManagementService service;
+
+  @Setup
+  public void setUp() {
+    this.context = new SpringApplicationBuilder(Application.class).web(WebApplicationType.NONE)
+        .initializers(context -> context.getBeanFactory().registerSingleton(
+            TestComponentExcludeFilter.class.getName(), new TestComponentExcludeFilter()))
+        .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.properties.hibernate.generate_statistics=false",
+            "--sts.people.import-chunk-size=100", "--logging.level.root=WARN");
+    this.service = this.context.getBean(PeopleManagementService.class);
+    this.service.importPeople(SyntheticPeople.dtos(this.people));
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.context.close();
+  }
+
+  @Benchmark
+  public List<PersonDTO> fetchPeople() {
+    return this.service.fetchPeople();
+  }
+
+  @Benchmark
+  public int streamPeople() {
+    final AtomicInteger count = new AtomicInteger();
+    this.service.streamPeople(personDto -> count.incrementAndGet());
+    return count.get();
+  }
+
+  /**
+   * Keeps the tests' own configurations out of the component scan, as the test runner does, since
+   * the benchmarks run on the test classpath.
+   */
+  private static class TestComponentExcludeFilter extends TypeExcludeFilter {
+
+    @Override
+    public boolean match(final MetadataReader metadataReader,
+        final MetadataReaderFactory metadataReaderFactory) throws IOException {
+      return metadataReader.getAnnotationMetadata().hasAnnotation(TestComponent.class.getName())
+          || metadataReader.getAnnotationMetadata()
+              .hasMetaAnnotation(TestComponent.class.getName());
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      return obj != null && getClass() == obj.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+      return getClass().hashCode();
+    }
+
+  }
+
+}
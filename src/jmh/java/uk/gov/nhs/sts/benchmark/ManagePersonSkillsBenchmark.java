@@ -0,0 +1,86 @@
+package uk.gov.nhs.sts.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.model.data.Person;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+import uk.gov.nhs.sts.service.CacheInvalidator;
+import uk.gov.nhs.sts.service.ChangeLog;
+import uk.gov.nhs.sts.service.ChangeNotifier;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+import uk.gov.nhs.sts.service.SkillBitmapIndex;
+import uk.gov.nhs.sts.service.SkillCatalogueVersion;
+import uk.gov.nhs.sts.service.SkillMatrix;
+
+/**
+ * Measures the in-memory work of updating a person's skills in
+ * {@link PeopleManagementService#updatePerson(PersonDTO, String)}, which diffs the requested
+ * skills against the held ones, with the repositories stubbed out so that no database time is
+ * included. Each invocation shifts every skill level, so every skill changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ManagePersonSkillsBenchmark {
+
+  private static final int SHIFTS = 4;
+
+  private PeopleManagementService service;
+  private PersonDTO[] personDtos;
+  private int invocation;
+
+  @Setup
+  public void setUp() {
+    final Person person = SyntheticPeople.entities(1).get(0);
+    final PersonRepository personRepository =
+        mock(PersonRepository.class, withSettings().stubOnly());
+    given(personRepository.findByStaffNumber("0")).willReturn(person);
+    final SkillRepository skillRepository = mock(SkillRepository.class, withSettings().stubOnly());
+    given(skillRepository.findByNameIn(any())).willReturn(SyntheticPeople.skills());
+
+    this.service = new PeopleManagementService(personRepository, skillRepository,
+        mock(EntityManager.class, withSettings().stubOnly()), new ServiceProperties(),
+        mock(TransactionTemplate.class, withSettings().stubOnly()),
+        mock(ApplicationEventPublisher.class, withSettings().stubOnly()),
+        mock(SkillBitmapIndex.class, withSettings().stubOnly()),
+        mock(SkillMatrix.class, withSettings().stubOnly()), new ConcurrentMapCacheManager(),
+        new ObjectMapper(), mock(ChangeLog.class, withSettings().stubOnly()),
+        mock(ChangeNotifier.class, withSettings().stubOnly()),
+        mock(SkillCatalogueVersion.class, withSettings().stubOnly()),
+        mock(CacheInvalidator.class, withSettings().stubOnly()));
+    this.personDtos = new PersonDTO[SHIFTS];
+    for (int shift = 0; shift < SHIFTS; shift++) {
+      this.personDtos[shift] = SyntheticPeople.dto(0, shift + 1);
+    }
+  }
+
+  @Benchmark
+  public void updatePersonSkills() {
+    this.service.updatePerson(this.personDtos[this.invocation++ % SHIFTS], "0");
+  }
+
+}
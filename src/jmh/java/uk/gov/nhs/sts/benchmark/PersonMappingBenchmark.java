@@ -0,0 +1,96 @@
+package uk.gov.nhs.sts.benchmark;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+import uk.gov.nhs.sts.service.CacheInvalidator;
+import uk.gov.nhs.sts.service.ChangeLog;
+import uk.gov.nhs.sts.service.ChangeNotifier;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+import uk.gov.nhs.sts.service.SkillBitmapIndex;
+import uk.gov.nhs.sts.service.SkillCatalogueVersion;
+import uk.gov.nhs.sts.service.SkillMatrix;
+
+/**
+ * Measures the in-memory work of listing people: mapping the loaded entities to DTOs in
+ * {@link PeopleManagementService#fetchPeople()}, with the repository stubbed out so that no
+ * database time is included, and serialising the DTOs to JSON with Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersonMappingBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  private int people;
+
+  private PeopleManagementService service;
+  private ObjectMapper objectMapper;
+  private List<PersonDTO> personDtos;
+  private PersonDTO personDto;
+
+  @Setup
+  public void setUp() {
+    final PersonRepository personRepository =
+        mock(PersonRepository.class, withSettings().stubOnly());
+    given(personRepository.findAllWithSkills()).willReturn(SyntheticPeople.entities(this.people));
+
+    this.objectMapper = new ObjectMapper();
+    this.service = new PeopleManagementService(personRepository,
+        mock(SkillRepository.class, withSettings().stubOnly()),
+        mock(EntityManager.class, withSettings().stubOnly()), new ServiceProperties(),
+        mock(TransactionTemplate.class, withSettings().stubOnly()),
+        mock(ApplicationEventPublisher.class, withSettings().stubOnly()),
+        mock(SkillBitmapIndex.class, withSettings().stubOnly()),
+        mock(SkillMatrix.class, withSettings().stubOnly()), new ConcurrentMapCacheManager(),
+        this.objectMapper, mock(ChangeLog.class, withSettings().stubOnly()),
+        mock(ChangeNotifier.class, withSettings().stubOnly()),
+        mock(SkillCatalogueVersion.class, withSettings().stubOnly()),
+        mock(CacheInvalidator.class, withSettings().stubOnly()));
+    this.personDtos = SyntheticPeople.dtos(this.people);
+    this.personDto = this.personDtos.get(0);
+  }
+
+  @Benchmark
+  public List<PersonDTO> mapPeopleToDtos() {
+    return this.service.fetchPeople();
+  }
+
+  @Benchmark
+  public byte[] serialisePeople() throws JsonProcessingException {
+    return this.objectMapper.writeValueAsBytes(this.personDtos);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] serialisePerson() throws JsonProcessingException {
+    return this.objectMapper.writeValueAsBytes(this.personDto);
+  }
+
+}
@@ -0,0 +1,82 @@
+package uk.gov.nhs.sts.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+
+/**
+ * Measures the time to encode a full people listing in each of the formats it can be asked for,
+ * with and without the gzip compression applied by the server, and prints the size of each
+ * encoding when the benchmark is set up, so that bytes on the wire and CPU can be traded off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ResponseEncodingBenchmark {
+
+  public enum Format {
+
+    JSON(new JsonFactory()), SMILE(new SmileFactory()), CBOR(new CBORFactory());
+
+    private final JsonFactory factory;
+
+    Format(final JsonFactory factory) {
+      this.factory = factory;
+    }
+
+  }
+
+  @Param({"100000"})
+  private int people;
+
+  @Param({"JSON", "SMILE", "CBOR"})
+  private Format format;
+
+  @Param({"false", "true"})
+  private boolean gzip;
+
+  private ObjectMapper objectMapper;
+  private List<PersonDTO> personDtos;
+  private int size;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.objectMapper = new ObjectMapper(this.format.factory);
+    this.personDtos = SyntheticPeople.dtos(this.people);
+    this.size = encodePeople().size();
+    System.out.printf("%n%s%s encoding of %d people: %,d bytes%n", this.format,
+        this.gzip ? " gzip" : "", this.people, this.size);
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream encodePeople() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(this.size);
+    try (OutputStream out = this.gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+      this.objectMapper.writeValue(out, this.personDtos);
+    }
+    return bytes;
+  }
+
+}
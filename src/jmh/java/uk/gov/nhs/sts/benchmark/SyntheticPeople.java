@@ -0,0 +1,78 @@
+package uk.gov.nhs.sts.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import uk.gov.nhs.sts.model.data.Person;
+import uk.gov.nhs.sts.model.data.PersonSkill;
+import uk.gov.nhs.sts.model.data.Skill;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+
+/**
+ * Deterministic datasets of people for the benchmarks, each person holding a handful of skills
+ * drawn from a small catalogue so that the same skills are shared by many people.
+ */
+final class SyntheticPeople {
+
+  static final int SKILLS = 50;
+  static final int SKILLS_PER_PERSON = 5;
+
+  private static final SkillLevel[] LEVELS = SkillLevel.values();
+
+  private SyntheticPeople() {}
+
+  static List<Skill> skills() {
+    final List<Skill> skills = new ArrayList<>(SKILLS);
+    for (int i = 0; i < SKILLS; i++) {
+      skills.add(Skill.builder().id((long) i).name(skillName(i)).version(0L).build());
+    }
+    return skills;
+  }
+
+  static List<Person> entities(final int count) {
+    final List<Skill> skills = skills();
+    final List<Person> people = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Person person = Person.builder().id((long) i).staffNumber(String.valueOf(i))
+          .name("Person " + i).version(0L).build();
+      final Set<PersonSkill> personSkills = new HashSet<>();
+      for (int j = 0; j < SKILLS_PER_PERSON; j++) {
+        personSkills.add(PersonSkill.builder().person(person).skill(skills.get((i + j) % SKILLS))
+            .level(LEVELS[(i + j) % LEVELS.length]).build());
+      }
+      person.setPersonSkills(personSkills);
+      people.add(person);
+    }
+    return people;
+  }
+
+  static List<PersonDTO> dtos(final int count) {
+    final List<PersonDTO> people = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      people.add(dto(i, 0));
+    }
+    return people;
+  }
+
+  /**
+   * Gets person {@code i}, with their skill levels shifted by {@code shift} so that successive
+   * shifts change every skill.
+   */
+  static PersonDTO dto(final int i, final int shift) {
+    final List<PersonSkillDTO> personSkills = new ArrayList<>(SKILLS_PER_PERSON);
+    for (int j = 0; j < SKILLS_PER_PERSON; j++) {
+      personSkills.add(PersonSkillDTO.builder().skillName(skillName((i + j) % SKILLS))
+          .skillLevel(LEVELS[(i + j + shift) % LEVELS.length]).build());
+    }
+    return PersonDTO.builder().staffNumber(String.valueOf(i)).name("Person " + i)
+        .personSkills(personSkills).build();
+  }
+
+  private static String skillName(final int i) {
+    return "Skill " + i;
+  }
+
+}
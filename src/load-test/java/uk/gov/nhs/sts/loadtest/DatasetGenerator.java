@@ -0,0 +1,95 @@
+package uk.gov.nhs.sts.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+
+/**
+ * Bulk-loads a {@link SyntheticDataset} into empty person, skill and person_skill tables with JDBC
+ * batch inserts, one transaction per chunk of people, without going through JPA. The id sequences
+ * are then moved past the loaded rows so that the service can go on creating people and skills.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class DatasetGenerator {
+
+  private static final int CHUNK_SIZE = 1000;
+
+  /**
+   * Allocation size of the entities' sequence generators, which hand out the ids below each value
+   * they fetch.
+   */
+  private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  void generate(final SyntheticDataset dataset) {
+    final long start = System.currentTimeMillis();
+
+    this.transactionTemplate.executeWithoutResult(status -> {
+      final List<Object[]> skillRows = new ArrayList<>(dataset.getSkills());
+      for (int skill = 0; skill < dataset.getSkills(); skill++) {
+        skillRows.add(new Object[] {skillId(skill), dataset.skillName(skill)});
+      }
+      this.jdbcTemplate.batchUpdate("insert into skill (id, name, version) values (?, ?, 0)",
+          skillRows);
+    });
+
+    for (int first = 0; first < dataset.getPeople(); first += CHUNK_SIZE) {
+      final int last = Math.min(first + CHUNK_SIZE, dataset.getPeople());
+      insertPeople(dataset, first, last);
+      if (last % (CHUNK_SIZE * 100) == 0) {
+        log.info("Loaded {} of {} people", last, dataset.getPeople());
+      }
+    }
+
+    restartSequence("skill_sequence", dataset.getSkills());
+    restartSequence("person_sequence", dataset.getPeople());
+    log.info("Loaded {} people holding {} skills each from {} skills in {} ms",
+        dataset.getPeople(), dataset.getSkillsPerPerson(), dataset.getSkills(),
+        System.currentTimeMillis() - start);
+  }
+
+  private void insertPeople(final SyntheticDataset dataset, final int first, final int last) {
+    final List<Object[]> personRows = new ArrayList<>(last - first);
+    final List<Object[]> personSkillRows =
+        new ArrayList<>((last - first) * dataset.getSkillsPerPerson());
+    for (int person = first; person < last; person++) {
+      personRows.add(
+          new Object[] {personId(person), "Person " + person, dataset.staffNumber(person)});
+      final Random random = new Random(person);
+      for (int skill : dataset.skillsOf(person)) {
+        final SkillLevel level = dataset.randomLevel(random);
+        personSkillRows.add(new Object[] {personId(person), skillId(skill), level.name()});
+      }
+    }
+
+    this.transactionTemplate.executeWithoutResult(status -> {
+      this.jdbcTemplate.batchUpdate(
+          "insert into person (id, name, staff_number, version) values (?, ?, ?, 0)", personRows);
+      this.jdbcTemplate.batchUpdate(
+          "insert into person_skill (person_id, skill_id, level) values (?, ?, ?)",
+          personSkillRows);
+    });
+  }
+
+  private void restartSequence(final String sequenceName, final long lastId) {
+    this.jdbcTemplate.execute("alter sequence " + sequenceName + " restart with "
+        + (lastId + SEQUENCE_ALLOCATION_SIZE + 1));
+  }
+
+  private static long personId(final int person) {
+    return person + 1L;
+  }
+
+  private static long skillId(final int skill) {
+    return skill + 1L;
+  }
+
+}
@@ -0,0 +1,241 @@
+package uk.gov.nhs.sts.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.sql.DataSource;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.Application;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.SkillQueryDTO;
+import uk.gov.nhs.sts.service.SkillBitmapIndex;
+import uk.gov.nhs.sts.service.SkillMatrix;
+
+/**
+ * Starts the service on a random port against its configured datasource, loads a
+ * {@link SyntheticDataset} into it and then drives the people and skills endpoints over HTTP with a
+ * mix of reads and writes, reporting the throughput and latency percentiles of each operation.
+ * Arguments are passed on to the service, so {@code --spring.profiles.active=local} runs against a
+ * local Postgres and {@code --loadtest.*} arguments change the {@link LoadTestProperties}.
+ */
+@Slf4j
+public final class LoadTest {
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final LoadTestProperties properties;
+  private final SyntheticDataset dataset;
+  private final RestTemplate restTemplate;
+  private final Operation[] operations;
+  private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+  private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+  private final AtomicInteger nextPerson;
+
+  private volatile boolean running = true;
+
+  private LoadTest(final LoadTestProperties properties, final SyntheticDataset dataset,
+      final String rootUri) {
+    this.properties = properties;
+    this.dataset = dataset;
+    this.restTemplate = new RestTemplateBuilder().rootUri(rootUri).build();
+    final List<Operation> weightedOperations = new ArrayList<>();
+    properties.getMix().forEach((operation, weight) -> {
+      for (int i = 0; i < weight; i++) {
+        weightedOperations.add(operation);
+      }
+    });
+    this.operations = weightedOperations.toArray(new Operation[0]);
+    for (Operation operation : Operation.values()) {
+      this.latencies.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+      this.errors.put(operation, new LongAdder());
+    }
+    this.nextPerson = new AtomicInteger(dataset.getPeople());
+  }
+
+  public static void main(final String[] args) throws InterruptedException {
+    System.setProperty("server.port", "0");
+    System.setProperty("spring.devtools.restart.enabled", "false");
+    System.setProperty("spring.jpa.show-sql", "false");
+    System.setProperty("spring.jpa.properties.hibernate.generate_statistics", "false");
+    System.setProperty("logging.level.uk.gov", "WARN");
+    System.setProperty("logging.level.uk.gov.nhs.sts.loadtest", "INFO");
+
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(Application.class).run(args)) {
+      final LoadTestProperties properties = new LoadTestProperties();
+      Binder.get(context.getEnvironment()).bind("loadtest", Bindable.ofInstance(properties));
+      System.setProperty("http.maxConnections", String.valueOf(properties.getThreads()));
+
+      final SyntheticDataset dataset = new SyntheticDataset(properties.getPeople(),
+          properties.getSkills(), properties.getSkillsPerPerson());
+      new DatasetGenerator(new JdbcTemplate(context.getBean(DataSource.class)),
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class)))
+              .generate(dataset);
+      context.getBean(SkillBitmapIndex.class).rebuild();
+      context.getBean(SkillMatrix.class).reconcile();
+
+      new LoadTest(properties, dataset,
+          "http://localhost:" + context.getEnvironment().getProperty("local.server.port")).run();
+    }
+  }
+
+  private void run() throws InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(this.properties.getThreads());
+    for (int thread = 0; thread < this.properties.getThreads(); thread++) {
+      final int offset = thread;
+      executor.execute(() -> send(offset));
+    }
+
+    log.info("Warming up for {} with {} threads", this.properties.getWarmup(),
+        this.properties.getThreads());
+    Thread.sleep(this.properties.getWarmup().toMillis());
+    this.latencies.values().forEach(Recorder::reset);
+    this.errors.values().forEach(LongAdder::reset);
+
+    log.info("Recording for {}", this.properties.getDuration());
+    Thread.sleep(this.properties.getDuration().toMillis());
+    final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    final Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+    for (Operation operation : Operation.values()) {
+      histograms.put(operation, this.latencies.get(operation).getIntervalHistogram());
+      errorCounts.put(operation, this.errors.get(operation).sum());
+    }
+
+    this.running = false;
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+    report(histograms, errorCounts, this.properties.getDuration());
+  }
+
+  /**
+   * Sends requests until the test ends. When a rate is set, each thread sends its share of it
+   * spaced evenly, offset so that the threads take turns.
+   */
+  private void send(final int offset) {
+    final Random random = ThreadLocalRandom.current();
+    final long interval = this.properties.getRate() == 0 ? 0
+        : TimeUnit.SECONDS.toNanos(this.properties.getThreads()) / this.properties.getRate();
+    long due = System.nanoTime() + interval * offset / this.properties.getThreads();
+
+    while (this.running) {
+      final long start;
+      if (interval > 0) {
+        while (System.nanoTime() < due) {
+          LockSupport.parkNanos(due - System.nanoTime());
+        }
+        start = due;
+        due += interval;
+      } else {
+        start = System.nanoTime();
+      }
+
+      final Operation operation = this.operations[random.nextInt(this.operations.length)];
+      try {
+        request(operation, random);
+      } catch (RestClientException e) {
+        this.errors.get(operation).increment();
+      }
+      this.latencies.get(operation).recordValue(System.nanoTime() - start);
+    }
+  }
+
+  private void request(final Operation operation, final Random random) {
+    switch (operation) {
+      case GET_PERSON:
+        this.restTemplate.getForObject("/api/people/{staffNumber}", byte[].class,
+            this.dataset.staffNumber(random.nextInt(this.dataset.getPeople())));
+        break;
+      case GET_SKILL:
+        this.restTemplate.getForObject("/api/skills/{name}", byte[].class, skillName(random));
+        break;
+      case GET_SKILLS:
+        this.restTemplate.getForObject("/api/skills", byte[].class);
+        break;
+      case SEARCH_PEOPLE:
+        this.restTemplate.getForObject(
+            "/api/people/search?skill={skill}&skill={otherSkill}&minLevel={minLevel}",
+            byte[].class, skillName(random), skillName(random), SkillLevel.PRACTITIONER);
+        break;
+      case TEAM_SEARCH:
+        this.restTemplate.postForObject("/api/people/team-search",
+            SkillQueryDTO.builder().and(Arrays.asList(
+                SkillQueryDTO.builder().skill(skillName(random))
+                    .minLevel(SkillLevel.PRACTITIONER).build(),
+                SkillQueryDTO.builder().skill(skillName(random)).build(),
+                SkillQueryDTO.builder()
+                    .not(SkillQueryDTO.builder().skill(skillName(random)).build()).build()))
+                .build(),
+            byte[].class);
+        break;
+      case UPDATE_PERSON:
+        final int person = random.nextInt(this.dataset.getPeople());
+        this.restTemplate.put("/api/people/{staffNumber}", this.dataset.person(person, random),
+            this.dataset.staffNumber(person));
+        break;
+      case CREATE_PERSON:
+        this.restTemplate.postForObject("/api/people",
+            this.dataset.person(this.nextPerson.getAndIncrement(), random), byte[].class);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation " + operation);
+    }
+  }
+
+  private String skillName(final Random random) {
+    return this.dataset.skillName(this.dataset.randomSkill(random));
+  }
+
+  private static void report(final Map<Operation, Histogram> histograms,
+      final Map<Operation, Long> errorCounts, final Duration duration) {
+    final String format = "%-14s %10s %8s %12s %10s %10s %10s %10s%n";
+    System.out.printf(format, "Operation", "Requests", "Errors", "Requests/s", "p50 ms", "p99 ms",
+        "p99.9 ms", "Max ms");
+    final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    long totalErrors = 0;
+    for (Operation operation : Operation.values()) {
+      final Histogram histogram = histograms.get(operation);
+      if (histogram.getTotalCount() > 0) {
+        printRow(format, operation.name(), histogram, errorCounts.get(operation), duration);
+        total.add(histogram);
+        totalErrors += errorCounts.get(operation);
+      }
+    }
+    printRow(format, "TOTAL", total, totalErrors, duration);
+  }
+
+  private static void printRow(final String format, final String name, final Histogram histogram,
+      final long errors, final Duration duration) {
+    System.out.printf(format, name, histogram.getTotalCount(), errors,
+        String.format("%.1f", histogram.getTotalCount() * 1000.0 / duration.toMillis()),
+        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+  }
+
+  private static String millis(final long nanos) {
+    return String.format("%.2f", nanos / 1_000_000.0);
+  }
+
+}
@@ -0,0 +1,68 @@
+package uk.gov.nhs.sts.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Settings of a load test, bound from the {@code loadtest} properties.
+ */
+@Data
+class LoadTestProperties {
+
+  /**
+   * Number of people generated before the test starts.
+   */
+  private int people = 500_000;
+
+  /**
+   * Number of skills generated before the test starts.
+   */
+  private int skills = 2_000;
+
+  /**
+   * Number of distinct skills held by each generated person.
+   */
+  private int skillsPerPerson = 20;
+
+  /**
+   * Number of threads sending requests.
+   */
+  private int threads = 32;
+
+  /**
+   * Requests per second sent across all the threads. When zero, each thread sends its next request
+   * as soon as the previous one completes. When set, latencies are measured from when each request
+   * was due to be sent, so that a slow response also counts against the requests queued behind it.
+   */
+  private int rate;
+
+  /**
+   * How long requests are sent for before latencies are recorded.
+   */
+  private Duration warmup = Duration.ofSeconds(30);
+
+  /**
+   * How long latencies are recorded for.
+   */
+  private Duration duration = Duration.ofMinutes(2);
+
+  /**
+   * Relative number of each operation in the request mix.
+   */
+  private Map<Operation, Integer> mix = defaultMix();
+
+  private static Map<Operation, Integer> defaultMix() {
+    final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    mix.put(Operation.GET_PERSON, 50);
+    mix.put(Operation.GET_SKILL, 15);
+    mix.put(Operation.GET_SKILLS, 5);
+    mix.put(Operation.SEARCH_PEOPLE, 10);
+    mix.put(Operation.TEAM_SEARCH, 5);
+    mix.put(Operation.UPDATE_PERSON, 12);
+    mix.put(Operation.CREATE_PERSON, 3);
+    return mix;
+  }
+
+}
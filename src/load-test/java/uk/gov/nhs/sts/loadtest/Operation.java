@@ -0,0 +1,18 @@
+package uk.gov.nhs.sts.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The requests making up the load, each sent to the service's people and skills endpoints.
+ */
+@Getter
+@RequiredArgsConstructor
+enum Operation {
+
+  GET_PERSON(false), GET_SKILL(false), GET_SKILLS(false), SEARCH_PEOPLE(false),
+  TEAM_SEARCH(false), UPDATE_PERSON(true), CREATE_PERSON(true);
+
+  private final boolean write;
+
+}
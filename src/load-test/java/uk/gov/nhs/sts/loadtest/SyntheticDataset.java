@@ -0,0 +1,87 @@
+package uk.gov.nhs.sts.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+
+/**
+ * A reproducible dataset shaped like production: a catalogue of skills, a few of which are held by
+ * most people and most of which are held by a few, and people each holding the same number of
+ * distinct skills at random levels.
+ */
+@Getter
+@RequiredArgsConstructor
+final class SyntheticDataset {
+
+  private static final SkillLevel[] LEVELS = SkillLevel.values();
+
+  private final int people;
+  private final int skills;
+  private final int skillsPerPerson;
+
+  String skillName(final int skill) {
+    return "Skill " + skill;
+  }
+
+  String staffNumber(final int person) {
+    return "S" + person;
+  }
+
+  /**
+   * Picks a skill, skewed quadratically towards the start of the catalogue.
+   */
+  int randomSkill(final Random random) {
+    final double uniform = random.nextDouble();
+    return (int) (uniform * uniform * this.skills);
+  }
+
+  SkillLevel randomLevel(final Random random) {
+    return LEVELS[random.nextInt(LEVELS.length)];
+  }
+
+  /**
+   * Gets the distinct skills held by a person, which are the same every time for the same person.
+   */
+  int[] skillsOf(final int person) {
+    final Random random = new Random(person);
+    final int count = Math.min(this.skillsPerPerson, this.skills);
+    final int[] personSkills = new int[count];
+    int held = 0;
+    while (held < count) {
+      final int skill = randomSkill(random);
+      if (!contains(personSkills, held, skill)) {
+        personSkills[held++] = skill;
+      }
+    }
+    return personSkills;
+  }
+
+  /**
+   * Gets a person holding their usual skills at levels drawn from {@code random}.
+   */
+  PersonDTO person(final int person, final Random random) {
+    final int[] personSkills = skillsOf(person);
+    final List<PersonSkillDTO> personSkillDtos = new ArrayList<>(personSkills.length);
+    for (int skill : personSkills) {
+      personSkillDtos.add(PersonSkillDTO.builder().skillName(skillName(skill))
+          .skillLevel(randomLevel(random)).build());
+    }
+    return PersonDTO.builder().name("Person " + person).staffNumber(staffNumber(person))
+        .personSkills(personSkillDtos).build();
+  }
+
+  private static boolean contains(final int[] values, final int length, final int value) {
+    for (int i = 0; i < length; i++) {
+      if (values[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+}
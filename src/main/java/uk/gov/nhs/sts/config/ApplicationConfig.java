@@ -1,10 +1,14 @@
 package uk.gov.nhs.sts.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableJpaAuditing
+@EnableScheduling
+@EnableConfigurationProperties(ServiceProperties.class)
 public class ApplicationConfig {
 
 }
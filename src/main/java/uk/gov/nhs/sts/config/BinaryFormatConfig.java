@@ -0,0 +1,36 @@
+package uk.gov.nhs.sts.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Lets clients ask for the bulk listings in Smile ({@code application/x-jackson-smile}) or CBOR
+ * ({@code application/cbor}) rather than JSON. The converters replace the ones Spring MVC would
+ * otherwise register, so that they share the {@code spring.jackson.*} settings of the JSON one.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class BinaryFormatConfig {
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    return new MappingJackson2SmileHttpMessageConverter(
+        objectMapperBuilder.factory(new SmileFactory()).build());
+  }
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    return new MappingJackson2CborHttpMessageConverter(
+        objectMapperBuilder.factory(new CBORFactory()).build());
+  }
+
+}
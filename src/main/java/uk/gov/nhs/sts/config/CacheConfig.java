@@ -0,0 +1,15 @@
+package uk.gov.nhs.sts.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  public static final String PEOPLE_CACHE = "people";
+  public static final String SKILL_CACHE = "skill";
+  public static final String SKILLS_CACHE = "skills";
+  public static final String PERSON_JSON_CACHE = "person-json";
+
+}
@@ -0,0 +1,44 @@
+package uk.gov.nhs.sts.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import uk.gov.nhs.sts.controller.PeopleGrpcService;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+/**
+ * Serves the people reads over gRPC, alongside the REST API, on the port configured under
+ * {@code sts.grpc}. Internal services calling in volume get protobuf framing and many calls
+ * multiplexed over one HTTP/2 connection.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sts.grpc", name = "enabled", havingValue = "true")
+public class GrpcConfig {
+
+  @Bean(destroyMethod = "shutdownNow")
+  public ExecutorService grpcStreamExecutor(final ServiceProperties properties) {
+    return Executors.newFixedThreadPool(properties.getGrpc().getStreamThreads(),
+        new CustomizableThreadFactory("grpc-stream-"));
+  }
+
+  @Bean
+  public PeopleGrpcService peopleGrpcService(final ServiceProperties properties,
+      final PeopleManagementService service, final ExecutorService grpcStreamExecutor) {
+    return new PeopleGrpcService(service, grpcStreamExecutor,
+        properties.getGrpc().getStreamIdleTimeout());
+  }
+
+  @Bean
+  public GrpcServer grpcServer(final ServiceProperties properties,
+      final PeopleGrpcService peopleGrpcService) {
+    final ServiceProperties.Grpc grpc = properties.getGrpc();
+    return new GrpcServer(
+        NettyServerBuilder.forPort(grpc.getPort()).addService(peopleGrpcService).build(),
+        grpc.getShutdownGracePeriod());
+  }
+
+}
@@ -0,0 +1,65 @@
+package uk.gov.nhs.sts.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.SmartLifecycle;
+import io.grpc.Server;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts the gRPC server with the application context and stops it, letting the calls in progress
+ * finish within the grace period, when the context closes.
+ */
+@Slf4j
+public class GrpcServer implements SmartLifecycle {
+
+  private final Server server;
+  private final Duration shutdownGracePeriod;
+  private volatile boolean running;
+
+  public GrpcServer(final Server server, final Duration shutdownGracePeriod) {
+    this.server = server;
+    this.shutdownGracePeriod = shutdownGracePeriod;
+  }
+
+  @Override
+  public void start() {
+    try {
+      this.server.start();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.running = true;
+    log.info("gRPC server started on port {}", this.server.getPort());
+  }
+
+  @Override
+  public void stop() {
+    this.server.shutdown();
+    try {
+      if (!this.server.awaitTermination(this.shutdownGracePeriod.toMillis(),
+          TimeUnit.MILLISECONDS)) {
+        this.server.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.server.shutdownNow();
+    }
+    this.running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * The port the server is listening on, once started.
+   */
+  public int getPort() {
+    return this.server.getPort();
+  }
+
+}
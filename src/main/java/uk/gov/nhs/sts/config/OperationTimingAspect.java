@@ -0,0 +1,59 @@
+package uk.gov.nhs.sts.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Times every public method of {@link uk.gov.nhs.sts.service.PeopleManagementService} as
+ * {@code sts.service} and every repository method as {@code sts.repository}, tagged with the class,
+ * the method and the exception thrown, if any. Service timings wrap the transaction, so they
+ * include the flush and commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class OperationTimingAspect {
+
+  public static final String SERVICE_TIMER = "sts.service";
+  public static final String REPOSITORY_TIMER = "sts.repository";
+
+  private final MeterRegistry meterRegistry;
+
+  @Around("execution(public * uk.gov.nhs.sts.service.PeopleManagementService.*(..))")
+  public Object timeServiceOperation(final ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(SERVICE_TIMER, joinPoint.getSignature().getDeclaringType().getSimpleName(),
+        joinPoint);
+  }
+
+  @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+  public Object timeRepositoryOperation(final ProceedingJoinPoint joinPoint) throws Throwable {
+    final Class<?>[] repositoryInterfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+    return time(REPOSITORY_TIMER, repositoryInterfaces[0].getSimpleName(), joinPoint);
+  }
+
+  private Object time(final String timerName, final String className,
+      final ProceedingJoinPoint joinPoint) throws Throwable {
+    final Timer.Sample sample = Timer.start(this.meterRegistry);
+    String exception = "none";
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      sample.stop(Timer.builder(timerName).tag("class", className)
+          .tag("method", joinPoint.getSignature().getName()).tag("exception", exception)
+          .register(this.meterRegistry));
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+package uk.gov.nhs.sts.config;
+
+import java.util.Arrays;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import uk.gov.nhs.sts.controller.ReactivePeopleHandler;
+
+/**
+ * Serves the read-only people and skills API from WebFlux handlers over a non-blocking R2DBC
+ * connection pool, configured under {@code sts.reactive}. Only active when the application runs
+ * as a reactive web application, as it does with the {@code reactive} profile.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveConfig {
+
+  @Bean
+  public ConnectionFactory connectionFactory(final ServiceProperties properties) {
+    final ServiceProperties.Reactive reactive = properties.getReactive();
+    final ConnectionFactoryOptions.Builder options =
+        ConnectionFactoryOptions.parse(reactive.getUrl()).mutate();
+    if (reactive.getUsername() != null) {
+      options.option(ConnectionFactoryOptions.USER, reactive.getUsername());
+    }
+    if (reactive.getPassword() != null) {
+      options.option(ConnectionFactoryOptions.PASSWORD, reactive.getPassword());
+    }
+    return ConnectionFactories.get(options.build());
+  }
+
+  @Bean
+  public DatabaseClient databaseClient(final ConnectionFactory connectionFactory) {
+    return DatabaseClient.create(connectionFactory);
+  }
+
+  @Bean
+  public RouterFunction<ServerResponse> readRoutes(final ReactivePeopleHandler handler) {
+    return RouterFunctions.route().GET("/api/people", handler::getPeople)
+        .GET("/api/people/{staffNumber}", handler::getPerson)
+        .GET("/api/skills", handler::getSkills).build();
+  }
+
+  /**
+   * Encodes each element of a {@code Flux} as soon as it is emitted when newline delimited JSON is
+   * asked for, rather than collecting the whole {@code Flux} first.
+   */
+  @Bean
+  public CodecCustomizer ndjsonCodecCustomizer(final ObjectMapper objectMapper) {
+    return configurer -> {
+      final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper,
+          MediaType.APPLICATION_JSON, ReactivePeopleHandler.APPLICATION_NDJSON);
+      encoder.setStreamingMediaTypes(Arrays.asList(ReactivePeopleHandler.APPLICATION_NDJSON,
+          MediaType.APPLICATION_STREAM_JSON));
+      configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+    };
+  }
+
+}
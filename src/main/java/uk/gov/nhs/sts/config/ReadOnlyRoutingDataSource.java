@@ -0,0 +1,65 @@
+package uk.gov.nhs.sts.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+/**
+ * Routes connections for read-only transactions to the replica pool and everything else to the
+ * primary pool, unless a write has committed recently enough that the replica may not have caught
+ * up with it yet. Connections are only fetched from a pool once the first statement runs, by which
+ * time the transaction's read-only flag has been set.
+ */
+public class ReadOnlyRoutingDataSource extends LazyConnectionDataSourceProxy
+    implements AutoCloseable {
+
+  public enum Target {
+    PRIMARY, REPLICA
+  }
+
+  @Getter
+  private final HikariDataSource primary;
+
+  @Getter
+  private final HikariDataSource replica;
+
+  private final ReadYourWritesTracker readYourWritesTracker;
+
+  public ReadOnlyRoutingDataSource(final HikariDataSource primary, final HikariDataSource replica,
+      final ReadYourWritesTracker readYourWritesTracker) {
+    this.primary = primary;
+    this.replica = replica;
+    this.readYourWritesTracker = readYourWritesTracker;
+
+    final Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(Target.PRIMARY, primary);
+    targetDataSources.put(Target.REPLICA, replica);
+    final AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+
+      @Override
+      protected Object determineCurrentLookupKey() {
+        return currentTarget();
+      }
+    };
+    router.setTargetDataSources(targetDataSources);
+    router.setDefaultTargetDataSource(primary);
+    router.afterPropertiesSet();
+    setTargetDataSource(router);
+  }
+
+  Target currentTarget() {
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && !this.readYourWritesTracker.isWithinWindow() ? Target.REPLICA : Target.PRIMARY;
+  }
+
+  @Override
+  public void close() {
+    this.replica.close();
+    this.primary.close();
+  }
+
+}
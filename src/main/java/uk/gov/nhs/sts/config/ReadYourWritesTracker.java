@@ -0,0 +1,44 @@
+package uk.gov.nhs.sts.config;
+
+import java.time.Duration;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+
+/**
+ * Remembers when a change to a person or skill last committed, so that reads made within the
+ * configured window afterwards can be kept on the primary instead of a replica which may still be
+ * lagging behind it.
+ */
+public class ReadYourWritesTracker {
+
+  private final long windowNanos;
+
+  private volatile long lastWriteNanos;
+  private volatile boolean written;
+
+  public ReadYourWritesTracker(final Duration window) {
+    this.windowNanos = window.toNanos();
+  }
+
+  public boolean isWithinWindow() {
+    return this.written && System.nanoTime() - this.lastWriteNanos < this.windowNanos;
+  }
+
+  public void recordWrite() {
+    this.lastWriteNanos = System.nanoTime();
+    this.written = true;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onPersonChanged(final PersonChangedEvent event) {
+    recordWrite();
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onSkillChanged(final SkillChangedEvent event) {
+    recordWrite();
+  }
+
+}
@@ -0,0 +1,57 @@
+package uk.gov.nhs.sts.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Splits the connections between a pool to the primary database, configured as usual under
+ * {@code spring.datasource}, and a pool to a read replica, configured under
+ * {@code sts.datasource.replica}. Read-only transactions are served by the replica and everything
+ * else by the primary. The pools are not beans of their own, so they are bound and instrumented
+ * here rather than by Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "sts.datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  public ReadYourWritesTracker readYourWritesTracker(final ServiceProperties properties) {
+    return new ReadYourWritesTracker(
+        properties.getDatasource().getReplica().getReadYourWritesWindow());
+  }
+
+  @Bean
+  public ReadOnlyRoutingDataSource dataSource(final DataSourceProperties dataSourceProperties,
+      final ServiceProperties properties, final ReadYourWritesTracker readYourWritesTracker,
+      final Environment environment, final ObjectProvider<MeterRegistry> meterRegistry) {
+    final HikariDataSource primary =
+        dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    primary.setPoolName("primary");
+
+    final ServiceProperties.Replica replicaProperties = properties.getDatasource().getReplica();
+    final HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+        .url(replicaProperties.getUrl()).username(replicaProperties.getUsername())
+        .password(replicaProperties.getPassword()).build();
+    replica.setPoolName("replica");
+    replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+    replica.setReadOnly(true);
+
+    meterRegistry.ifAvailable(registry -> {
+      primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+      replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+    });
+    return new ReadOnlyRoutingDataSource(primary, replica, readYourWritesTracker);
+  }
+
+}
@@ -0,0 +1,182 @@
+package uk.gov.nhs.sts.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sts")
+public class ServiceProperties {
+
+  private final People people = new People();
+
+  private final Datasource datasource = new Datasource();
+
+  private final Reactive reactive = new Reactive();
+
+  private final StatementBudget statementBudget = new StatementBudget();
+
+  private final Changes changes = new Changes();
+
+  private final Grpc grpc = new Grpc();
+
+  @Getter
+  @Setter
+  public static class People {
+
+    /**
+     * Number of rows fetched per round trip when streaming people from the database.
+     */
+    private int streamFetchSize = 500;
+
+    /**
+     * Number of people written in each transaction when importing people in bulk.
+     */
+    private int importChunkSize = 500;
+
+  }
+
+  @Getter
+  @Setter
+  public static class Datasource {
+
+    private final Replica replica = new Replica();
+
+  }
+
+  @Getter
+  @Setter
+  public static class Replica {
+
+    /**
+     * Whether read-only transactions are sent to a read replica rather than the primary.
+     */
+    private boolean enabled;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 20;
+
+    /**
+     * How long after a change commits reads keep going to the primary, so that they see the change
+     * even if the replica lags behind. Zero sends reads to the replica straight away.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+  }
+
+  @Getter
+  @Setter
+  public static class Reactive {
+
+    /**
+     * R2DBC URL of the database read by the reactive read API, for example
+     * {@code r2dbc:pool:postgresql://postgres:5432/postgres?maxSize=20}.
+     */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+  }
+
+  @Getter
+  @Setter
+  public static class StatementBudget {
+
+    /**
+     * Number of SQL statements an HTTP request may run before it is logged and counted as over
+     * budget.
+     */
+    private int limit = 20;
+
+  }
+
+  @Getter
+  @Setter
+  public static class Changes {
+
+    /**
+     * How old changes must be before they are returned from the change log. Gives transactions
+     * which took their position in the log before others but committed after them time to commit,
+     * so that a cursor never moves past a change which isn't visible yet. Changes are timed by the
+     * database as they are logged, and the transactions changing people or skills time out after
+     * {@code PeopleManagementService.WRITE_TIMEOUT_SECONDS}, so this must be longer than that,
+     * which is checked at startup.
+     */
+    private Duration settleTime = Duration.ofSeconds(5);
+
+    /**
+     * How long changes are kept in the change log. Consumers further behind than this have to
+     * download everything again.
+     */
+    private Duration retention = Duration.ofDays(30);
+
+    /**
+     * Number of changes buffered for each subscriber to the change stream. A subscriber falling
+     * further behind than this is disconnected, so that a slow client can't hold up the others or
+     * use up the heap.
+     */
+    private int subscriberBufferSize = 256;
+
+    /**
+     * How long a subscription to the change stream lasts before the client has to reconnect.
+     */
+    private Duration subscriptionTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Number of threads sending changes to the subscribers of the change stream.
+     */
+    private int senderThreads = 4;
+
+    /**
+     * How long sending a change to a subscriber of the change stream may take. A subscriber stuck
+     * sending for longer is disconnected, and its sender thread replaced until the send gives up,
+     * so that clients which stopped reading can't hold up the others.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+  }
+
+  @Getter
+  @Setter
+  public static class Grpc {
+
+    /**
+     * Whether the people API is also served over gRPC.
+     */
+    private boolean enabled;
+
+    /**
+     * Port the gRPC server listens on. Zero picks a free port.
+     */
+    private int port = 9090;
+
+    /**
+     * Number of threads streaming people to gRPC clients, and so the number of streams which can
+     * hold a database connection at once. Further streams wait for a thread.
+     */
+    private int streamThreads = 4;
+
+    /**
+     * How long a stream of people waits for a client which has stopped taking them before giving
+     * up, so that clients which stop reading without cancelling can't hold the stream threads and
+     * their database connections.
+     */
+    private Duration streamIdleTimeout = Duration.ofSeconds(30);
+
+    /**
+     * How long calls in progress are given to finish when the server shuts down.
+     */
+    private Duration shutdownGracePeriod = Duration.ofSeconds(30);
+
+  }
+
+}
@@ -0,0 +1,55 @@
+package uk.gov.nhs.sts.config;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts the SQL statements run by each HTTP request, recording them in the
+ * {@code sts.http.statements} distribution and logging and counting, in
+ * {@code sts.http.statements.over.budget}, the requests which run more than the statement budget.
+ * Statements run after the request has been handed to another thread, such as when streaming
+ * people, are not counted.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+  public static final String STATEMENTS_SUMMARY = "sts.http.statements";
+  public static final String OVER_BUDGET_COUNTER = "sts.http.statements.over.budget";
+
+  private final ServiceProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request,
+      final HttpServletResponse response, final FilterChain filterChain)
+      throws ServletException, IOException {
+    StatementCounter.reset();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      final long statements = StatementCounter.current().getTotal();
+      final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      final String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+      this.meterRegistry.summary(STATEMENTS_SUMMARY, "method", request.getMethod(), "uri", uri)
+          .record(statements);
+
+      final int limit = this.properties.getStatementBudget().getLimit();
+      if (statements > limit) {
+        log.warn("{} {} ran {} SQL statements, over the budget of {}", request.getMethod(),
+            request.getRequestURI(), statements, limit);
+        this.meterRegistry.counter(OVER_BUDGET_COUNTER, "method", request.getMethod(), "uri", uri)
+            .increment();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,29 @@
+package uk.gov.nhs.sts.config;
+
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+
+/**
+ * Counts of the SQL statements run on the current thread through the application's datasources,
+ * by type. A JDBC batch counts as one statement. Used by {@link StatementBudgetFilter} to check each
+ * request against its budget, and by tests to pin the number of statements an operation runs.
+ */
+public final class StatementCounter {
+
+  private StatementCounter() {}
+
+  /**
+   * Starts counting again from zero on the current thread.
+   */
+  public static void reset() {
+    QueryCountHolder.clear();
+  }
+
+  /**
+   * Gets the statements run on the current thread since the last {@link #reset()}.
+   */
+  public static QueryCount current() {
+    return QueryCountHolder.getGrandTotal();
+  }
+
+}
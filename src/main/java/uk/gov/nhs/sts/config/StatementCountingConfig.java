@@ -0,0 +1,24 @@
+package uk.gov.nhs.sts.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class StatementCountingConfig {
+
+  @Bean
+  public static StatementCountingDataSourcePostProcessor statementCountingDataSourcePostProcessor() {
+    return new StatementCountingDataSourcePostProcessor();
+  }
+
+  @Bean
+  @ConditionalOnWebApplication(type = Type.SERVLET)
+  public StatementBudgetFilter statementBudgetFilter(final ServiceProperties properties,
+      final MeterRegistry meterRegistry) {
+    return new StatementBudgetFilter(properties, meterRegistry);
+  }
+
+}
@@ -0,0 +1,39 @@
+package uk.gov.nhs.sts.config;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the application's datasources so that the statements they run are counted by
+ * {@link StatementCounter}. A datasource which already delegates, like the
+ * {@link ReadOnlyRoutingDataSource}, has its target wrapped instead so that it keeps its type.
+ */
+public class StatementCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+  @Override
+  public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+    if (bean instanceof DelegatingDataSource) {
+      final DelegatingDataSource delegatingDataSource = (DelegatingDataSource) bean;
+      delegatingDataSource.setTargetDataSource(
+          countStatements(delegatingDataSource.getTargetDataSource(), beanName));
+    }
+    return bean;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+    if (bean instanceof DataSource && !(bean instanceof DelegatingDataSource)
+        && !(bean instanceof ProxyDataSource)) {
+      return countStatements((DataSource) bean, beanName);
+    }
+    return bean;
+  }
+
+  private static DataSource countStatements(final DataSource dataSource, final String name) {
+    return ProxyDataSourceBuilder.create(name, dataSource).countQuery().build();
+  }
+
+}
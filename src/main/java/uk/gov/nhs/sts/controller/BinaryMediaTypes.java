@@ -0,0 +1,17 @@
+package uk.gov.nhs.sts.controller;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The binary formats the bulk listings can be asked for in with the Accept header, alongside
+ * JSON. Both are Jackson encodings of the same models, so they carry the same fields as the JSON.
+ */
+public final class BinaryMediaTypes {
+
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  public static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+
+  private BinaryMediaTypes() {}
+
+}
@@ -0,0 +1,105 @@
+package uk.gov.nhs.sts.controller;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import uk.gov.nhs.sts.model.dto.ChangeEventDTO;
+import uk.gov.nhs.sts.model.dto.ChangesDTO;
+import uk.gov.nhs.sts.service.ChangeSink;
+import uk.gov.nhs.sts.service.ChangeSubscription;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+@RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@Validated
+@RequiredArgsConstructor
+@RequestMapping(value = "/api/changes")
+@Api(value = "/api/changes", tags = {"Changes API"}, protocols = "HTTP")
+public class ChangeController {
+
+  /**
+   * The servlet container never times the stream out, as the subscription expires by itself.
+   */
+  private static final long NO_TIMEOUT = 0L;
+
+  private final PeopleManagementService service;
+
+  @GetMapping(produces = APPLICATION_JSON_VALUE)
+  @ApiOperation(value = "Gets the changes to people and skills since a cursor",
+      notes = "This endpoint fetches the people and skills created, updated or deleted after the cursor, oldest first, along with the cursor to ask for the next changes with. Start from cursor 0 and keep asking until no changes come back. Renaming or deleting a skill is a single change to the skill, which also applies to everyone holding it. If changes after the cursor have already been purged, everything has to be downloaded again.",
+      response = ChangesDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "Changes retrieved"),
+      @ApiResponse(code = 400, message = "Bad request"),
+      @ApiResponse(code = 410, message = "Changes after the cursor have been purged"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public ResponseEntity<ChangesDTO> getChanges(
+      @ApiParam(value = "Cursor of the last change already seen, 0 for all the changes") @RequestParam(
+          value = "since", defaultValue = "0") @Min(0) final long since,
+      @ApiParam(value = "Maximum number of changes to return") @RequestParam(value = "limit",
+          defaultValue = "1000") @Min(1) @Max(10000) final int limit) {
+    return new ResponseEntity<>(this.service.fetchChanges(since, limit), HttpStatus.OK);
+  }
+
+  @GetMapping(value = "/stream", produces = TEXT_EVENT_STREAM_VALUE)
+  @ApiOperation(value = "Streams the changes to people and skills as they happen",
+      notes = "This endpoint pushes the people and skills created, updated or deleted from now on as server-sent events named person or skill, instead of polling for them. Changes can be limited to people holding the given skills, before or after the change, to the given people and to the given skills. Clients too slow to keep up are disconnected and should catch up from GET /api/changes before subscribing again.",
+      response = ChangeEventDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "Subscribed to the changes"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public SseEmitter streamChanges(
+      @ApiParam(value = "Names of the skills to be told about, with the people holding them") @RequestParam(
+          value = "skill", required = false) final Set<String> skillNames,
+      @ApiParam(value = "Staff numbers of the people to be told about") @RequestParam(
+          value = "staffNumber", required = false) final Set<String> staffNumbers) {
+    final SseEmitter emitter = new SseEmitter(NO_TIMEOUT);
+    final ChangeSubscription subscription = this.service.subscribeToChanges(
+        skillNames == null ? Collections.emptySet() : skillNames,
+        staffNumbers == null ? Collections.emptySet() : staffNumbers, new EmitterSink(emitter));
+    emitter.onCompletion(subscription::cancel);
+    emitter.onTimeout(subscription::cancel);
+    emitter.onError(e -> subscription.cancel());
+    return emitter;
+  }
+
+  private static final class EmitterSink implements ChangeSink {
+
+    private final SseEmitter emitter;
+
+    private EmitterSink(final SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    @Override
+    public void send(final String name, final String json) throws IOException {
+      this.emitter.send(SseEmitter.event().name(name).data(json, APPLICATION_JSON));
+    }
+
+    @Override
+    public void close() {
+      this.emitter.complete();
+    }
+
+  }
+
+}
@@ -0,0 +1,16 @@
+package uk.gov.nhs.sts.controller;
+
+/**
+ * Builds entity tags from the version tags handed out by the service. They are weak, as a version
+ * is served in several encodings (JSON, Smile or CBOR, compressed or not) which are equivalent
+ * rather than byte for byte the same, and the server doesn't compress responses with strong tags.
+ */
+final class ETags {
+
+  private ETags() {}
+
+  static String fromVersion(final String version) {
+    return "W/\"" + version + "\"";
+  }
+
+}
@@ -0,0 +1,229 @@
+package uk.gov.nhs.sts.controller;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.grpc.BatchGetPeopleRequest;
+import uk.gov.nhs.sts.grpc.BatchGetPeopleResponse;
+import uk.gov.nhs.sts.grpc.FindPeopleBySkillsRequest;
+import uk.gov.nhs.sts.grpc.GetPersonRequest;
+import uk.gov.nhs.sts.grpc.ListPeopleRequest;
+import uk.gov.nhs.sts.grpc.PeopleServiceGrpc;
+import uk.gov.nhs.sts.grpc.Person;
+import uk.gov.nhs.sts.grpc.PersonPage;
+import uk.gov.nhs.sts.grpc.PersonSkill;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonPageDTO;
+import uk.gov.nhs.sts.model.dto.SkillMatch;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+/**
+ * Serves the people reads over gRPC, for internal services which query people in volume, through
+ * the same service methods and transactions as the REST API. The people are streamed from a pool
+ * of threads of their own, as a stream only sends the next person once the client is ready for it,
+ * and the call's own thread has to be free to hear that it is.
+ */
+@Slf4j
+public class PeopleGrpcService extends PeopleServiceGrpc.PeopleServiceImplBase {
+
+  static final int DEFAULT_PAGE_SIZE = 20;
+  static final int MAX_PAGE_SIZE = 1000;
+  static final int MAX_BATCH_SIZE = 1000;
+
+  private final PeopleManagementService service;
+  private final Executor streamExecutor;
+  private final Duration streamIdleTimeout;
+
+  public PeopleGrpcService(final PeopleManagementService service, final Executor streamExecutor,
+      final Duration streamIdleTimeout) {
+    this.service = service;
+    this.streamExecutor = streamExecutor;
+    this.streamIdleTimeout = streamIdleTimeout;
+  }
+
+  @Override
+  public void getPerson(final GetPersonRequest request,
+      final StreamObserver<Person> responseObserver) {
+    respond(responseObserver, () -> {
+      final PersonDTO personDto = this.service.fetchPersonByStaffNumber(request.getStaffNumber());
+      if (personDto == null) {
+        throw Status.NOT_FOUND.withDescription("Person not found").asRuntimeException();
+      }
+      return toPerson(personDto);
+    });
+  }
+
+  @Override
+  public void listPeople(final ListPeopleRequest request,
+      final StreamObserver<Person> responseObserver) {
+    final ServerCallStreamObserver<Person> call =
+        (ServerCallStreamObserver<Person>) responseObserver;
+    final Object readiness = new Object();
+    final Runnable signal = () -> {
+      synchronized (readiness) {
+        readiness.notifyAll();
+      }
+    };
+    call.setOnReadyHandler(signal);
+    call.setOnCancelHandler(signal);
+
+    this.streamExecutor.execute(() -> {
+      try {
+        this.service.streamPeople(personDto -> {
+          awaitReady(call, readiness, this.streamIdleTimeout);
+          call.onNext(toPerson(personDto));
+        });
+        call.onCompleted();
+      } catch (StreamCancelledException e) {
+        log.debug("gRPC client cancelled the people stream");
+      } catch (StreamIdleException e) {
+        log.warn("Ending a people stream whose gRPC client took nothing for {}",
+            this.streamIdleTimeout);
+        call.onError(Status.DEADLINE_EXCEEDED.withDescription("Client stopped reading")
+            .asRuntimeException());
+      } catch (RuntimeException e) {
+        log.error("Error while streaming people over gRPC", e);
+        call.onError(Status.INTERNAL.withDescription("Error while processing the request")
+            .asRuntimeException());
+      }
+    });
+  }
+
+  @Override
+  public void findPeopleBySkills(final FindPeopleBySkillsRequest request,
+      final StreamObserver<PersonPage> responseObserver) {
+    respond(responseObserver, () -> {
+      final int size = request.getSize() == 0 ? DEFAULT_PAGE_SIZE : request.getSize();
+      if (request.getSkillNamesCount() == 0 || request.getPage() < 0 || size < 0
+          || size > MAX_PAGE_SIZE
+          || request.getMinLevel() == uk.gov.nhs.sts.grpc.SkillLevel.UNRECOGNIZED
+          || request.getMatch() == uk.gov.nhs.sts.grpc.SkillMatch.UNRECOGNIZED) {
+        throw Status.INVALID_ARGUMENT.withDescription("Bad request").asRuntimeException();
+      }
+      final SkillLevel minLevel = request.getMinLevelValue() == 0 ? SkillLevel.AWARENESS
+          : SkillLevel.valueOf(request.getMinLevel().name());
+      final SkillMatch match = request.getMatchValue() == 0 ? SkillMatch.ALL
+          : SkillMatch.valueOf(request.getMatch().name());
+
+      final PersonPageDTO page =
+          this.service.findPeopleBySkills(new LinkedHashSet<>(request.getSkillNamesList()),
+              minLevel, match, request.getPage(), size);
+      final PersonPage.Builder personPage = PersonPage.newBuilder().setPage(page.getPage())
+          .setSize(page.getSize()).setTotalElements(page.getTotalElements())
+          .setTotalPages(page.getTotalPages());
+      page.getPeople().forEach(personDto -> personPage.addPeople(toPerson(personDto)));
+      return personPage.build();
+    });
+  }
+
+  @Override
+  public void batchGetPeople(final BatchGetPeopleRequest request,
+      final StreamObserver<BatchGetPeopleResponse> responseObserver) {
+    respond(responseObserver, () -> {
+      if (request.getStaffNumbersCount() > MAX_BATCH_SIZE) {
+        throw Status.INVALID_ARGUMENT.withDescription("Bad request").asRuntimeException();
+      }
+      final List<PersonDTO> personDtos =
+          this.service.fetchPeopleByStaffNumbers(request.getStaffNumbersList());
+      final BatchGetPeopleResponse.Builder response = BatchGetPeopleResponse.newBuilder();
+      final Set<String> found = new HashSet<>();
+      personDtos.forEach(personDto -> {
+        response.addPeople(toPerson(personDto));
+        found.add(personDto.getStaffNumber());
+      });
+      new LinkedHashSet<>(request.getStaffNumbersList()).stream()
+          .filter(staffNumber -> !found.contains(staffNumber))
+          .forEach(response::addMissingStaffNumbers);
+      return response.build();
+    });
+  }
+
+  private static <T> void respond(final StreamObserver<T> responseObserver,
+      final Supplier<T> response) {
+    final T value;
+    try {
+      value = response.get();
+    } catch (StatusRuntimeException e) {
+      responseObserver.onError(e);
+      return;
+    } catch (RuntimeException e) {
+      log.error("Error while processing the gRPC request", e);
+      responseObserver.onError(Status.INTERNAL
+          .withDescription("Error while processing the request").asRuntimeException());
+      return;
+    }
+    responseObserver.onNext(value);
+    responseObserver.onCompleted();
+  }
+
+  /**
+   * Waits until the client can take another person without it being buffered, so that a slow
+   * client holds back the database cursor rather than filling the heap, but no longer than the idle
+   * timeout.
+   */
+  private static void awaitReady(final ServerCallStreamObserver<?> call, final Object readiness,
+      final Duration idleTimeout) {
+    final long deadline = System.nanoTime() + idleTimeout.toNanos();
+    synchronized (readiness) {
+      while (call.isCancelled() || !call.isReady()) {
+        if (call.isCancelled()) {
+          throw new StreamCancelledException();
+        }
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          throw new StreamIdleException();
+        }
+        try {
+          TimeUnit.NANOSECONDS.timedWait(readiness, remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new StreamCancelledException();
+        }
+      }
+    }
+  }
+
+  static Person toPerson(final PersonDTO personDto) {
+    final Person.Builder person = Person.newBuilder().setName(personDto.getName())
+        .setStaffNumber(personDto.getStaffNumber());
+    if (personDto.getPersonSkills() != null) {
+      personDto.getPersonSkills()
+          .forEach(personSkill -> person.addPersonSkills(PersonSkill.newBuilder()
+              .setSkillName(personSkill.getSkillName())
+              .setSkillLevel(
+                  uk.gov.nhs.sts.grpc.SkillLevel.valueOf(personSkill.getSkillLevel().name()))));
+    }
+    return person.build();
+  }
+
+  /**
+   * Unwinds the stream of people, closing the database cursor, once the client has gone.
+   */
+  private static final class StreamCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+  }
+
+  /**
+   * Unwinds the stream of people, closing the database cursor, once the client has stopped taking
+   * them for longer than the idle timeout.
+   */
+  private static final class StreamIdleException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+  }
+
+}
@@ -1,11 +1,23 @@
 package uk.gov.nhs.sts.controller;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static uk.gov.nhs.sts.controller.BinaryMediaTypes.APPLICATION_CBOR_VALUE;
+import static uk.gov.nhs.sts.controller.BinaryMediaTypes.APPLICATION_SMILE_VALUE;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
 import java.util.List;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,45 +25,81 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonBatchDTO;
+import uk.gov.nhs.sts.model.dto.PersonBatchResultDTO;
+import uk.gov.nhs.sts.model.dto.PersonCursorPageDTO;
 import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonPageDTO;
+import uk.gov.nhs.sts.model.dto.PersonSort;
+import uk.gov.nhs.sts.model.dto.SkillMatch;
+import uk.gov.nhs.sts.model.dto.SkillQueryDTO;
+import uk.gov.nhs.sts.model.dto.TeamSearchResultDTO;
 import uk.gov.nhs.sts.service.PeopleManagementService;
+import uk.gov.nhs.sts.service.PersonJson;
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@Validated
 @RequiredArgsConstructor
 @RequestMapping(value = "/api/people")
 @Api(value = "/api/people", tags = {"People API"}, protocols = "HTTP")
 public class PersonController {
 
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
   private final PeopleManagementService service;
+  private final ObjectMapper objectMapper;
 
   @GetMapping(value = "/{staffNumber}", produces = APPLICATION_JSON_VALUE)
   @ApiOperation(value = "Gets a person's details",
-      notes = "This endpoint fetches a person's details based on the staff number.",
+      notes = "This endpoint fetches a person's details based on the staff number. The response carries an ETag which changes whenever the person or their skills change; sending it back in If-None-Match gets a 304 if nothing has changed.",
       response = PersonDTO.class)
   @ApiResponses(value = {@ApiResponse(code = 200, message = "Person details retrieved"),
+      @ApiResponse(code = 304, message = "Person not modified"),
       @ApiResponse(code = 404, message = "Person not found"),
       @ApiResponse(code = 500, message = "Error while processing the request")})
-  public ResponseEntity<PersonDTO> getPerson(
+  public ResponseEntity<byte[]> getPerson(
       @ApiParam(value = "Staff number of the person to be created",
-          required = true) @PathVariable("staffNumber") final String staffNumber) {
-    final PersonDTO person = this.service.fetchPersonByStaffNumber(staffNumber);
+          required = true) @PathVariable("staffNumber") final String staffNumber,
+      final ServletWebRequest webRequest) {
+    final String version = this.service.fetchPersonVersion(staffNumber);
+    if (version == null) {
+      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+    if (webRequest.checkNotModified(ETags.fromVersion(version))) {
+      return null;
+    }
+
+    final PersonJson person = this.service.fetchPersonJson(staffNumber, version);
     if (person != null) {
-      return new ResponseEntity<>(person, HttpStatus.OK);
+      // the person may have changed since the check, which has already tagged the response, so
+      // the tag is replaced with the version actually serialised
+      final String eTag = ETags.fromVersion(person.getVersion());
+      webRequest.getResponse().setHeader(HttpHeaders.ETAG, eTag);
+      return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON)
+          .body(person.getJson());
     }
     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
   }
 
-  @GetMapping(produces = APPLICATION_JSON_VALUE)
+  @GetMapping(
+      produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
   @ApiOperation(value = "Gets all the people details",
-      notes = "This endpoint fetches all the people details.", response = List.class)
+      notes = "This endpoint fetches all the people details. Ask for application/x-jackson-smile or application/cbor for a smaller binary encoding of the same people.",
+      response = List.class)
   @ApiResponses(value = {@ApiResponse(code = 200, message = "People retrieved"),
       @ApiResponse(code = 500, message = "Error while processing the request")})
   public ResponseEntity<List<PersonDTO>> getPeople() {
@@ -59,6 +107,85 @@ public class PersonController {
     return new ResponseEntity<>(personDtos, HttpStatus.OK);
   }
 
+  @GetMapping(params = "limit",
+      produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+  @ApiOperation(value = "Gets a page of the people details",
+      notes = "This endpoint fetches up to limit people in order of id, staff number or name. To get the next page, send the next token from the response back as after, keeping the same sort; the last page has no next token. Every page costs the same however far into the people it is.",
+      response = PersonCursorPageDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "People retrieved"),
+      @ApiResponse(code = 400, message = "Bad request"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public ResponseEntity<PersonCursorPageDTO> getPeoplePage(
+      @ApiParam(value = "Order of the people") @RequestParam(value = "sort",
+          defaultValue = "ID") final PersonSort sort,
+      @ApiParam(value = "Next token of the previous page, absent for the first page") @RequestParam(
+          value = "after", required = false) final String after,
+      @ApiParam(value = "Maximum number of people on the page", required = true) @RequestParam(
+          "limit") @Min(1) @Max(1000) final int limit) {
+    return new ResponseEntity<>(this.service.fetchPeoplePage(sort, after, limit), HttpStatus.OK);
+  }
+
+  @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+  @ApiOperation(value = "Streams all the people details",
+      notes = "This endpoint streams all the people details as newline delimited JSON, one person per line.",
+      response = PersonDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "People streamed"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public ResponseEntity<StreamingResponseBody> streamPeople() {
+    final StreamingResponseBody body = outputStream -> this.service.streamPeople(personDto -> {
+      try {
+        outputStream.write(this.objectMapper.writeValueAsBytes(personDto));
+        outputStream.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+        .body(body);
+  }
+
+  @GetMapping(value = "/search",
+      produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+  @ApiOperation(value = "Finds people by skill",
+      notes = "This endpoint finds a page of the people holding the given skills at the minimum level or above. When more than one skill is given, match decides whether people must hold all of them or any of them.",
+      response = PersonPageDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "People found"),
+      @ApiResponse(code = 400, message = "Bad request"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public ResponseEntity<PersonPageDTO> findPeopleBySkills(
+      @ApiParam(value = "Names of the skills to search for",
+          required = true) @RequestParam("skill") final List<String> skillNames,
+      @ApiParam(value = "Minimum level of the skills") @RequestParam(value = "minLevel",
+          defaultValue = "AWARENESS") final SkillLevel minLevel,
+      @ApiParam(value = "Whether people must hold all or any of the skills") @RequestParam(
+          value = "match", defaultValue = "ALL") final SkillMatch match,
+      @ApiParam(value = "Zero-based page number") @RequestParam(value = "page",
+          defaultValue = "0") @Min(0) final int page,
+      @ApiParam(value = "Number of people on a page") @RequestParam(value = "size",
+          defaultValue = "20") @Min(1) @Max(1000) final int size) {
+    final PersonPageDTO result = this.service.findPeopleBySkills(new LinkedHashSet<>(skillNames),
+        minLevel, match, page, size);
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
+  @PostMapping(value = "/team-search",
+      produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+  @ApiOperation(value = "Finds people by a boolean skill query",
+      notes = "This endpoint finds the people matching any combination of skills joined with and, or and not, each skill optionally bounded by a minimum and maximum level. The query is answered from an in-memory index without touching the database.",
+      response = TeamSearchResultDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "People found"),
+      @ApiResponse(code = 400, message = "Bad request"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public ResponseEntity<TeamSearchResultDTO> searchTeam(
+      @Valid @RequestBody final SkillQueryDTO query, final BindingResult bindingResult) {
+
+    if (bindingResult.hasErrors()) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    return new ResponseEntity<>(this.service.searchTeam(query), HttpStatus.OK);
+  }
+
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
   @ApiOperation(value = "Creates a new person",
@@ -75,7 +202,7 @@ public class PersonController {
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
-    if (this.service.fetchPersonByStaffNumber(personDto.getStaffNumber()) != null) {
+    if (this.service.personExists(personDto.getStaffNumber())) {
       return new ResponseEntity<>(HttpStatus.CONFLICT);
     }
 
@@ -84,6 +211,26 @@ public class PersonController {
     return new ResponseEntity<>(personDto, HttpStatus.CREATED);
   }
 
+  @PostMapping("/batch")
+  @ApiOperation(value = "Creates or updates people in bulk",
+      notes = "This endpoint creates the people who don't exist and updates the ones who do (matched on staff number), optionally creating the skills if they don't exist. The people are written in chunks, each chunk in its own transaction, so a failure leaves the chunks before it committed. The error response then holds the people created and updated so far and the index of the first person not imported; resubmitting the people from that index on completes the import. At most 10000 people can be imported at once.",
+      response = PersonBatchResultDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "People imported"),
+      @ApiResponse(code = 400, message = "Bad request"),
+      @ApiResponse(code = 500, message = "People partly imported",
+          response = PersonBatchResultDTO.class)})
+  public ResponseEntity<PersonBatchResultDTO> importPeople(
+      @Valid @RequestBody final PersonBatchDTO personBatchDto, final BindingResult bindingResult) {
+
+    if (bindingResult.hasErrors()) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    final PersonBatchResultDTO result = this.service.importPeople(personBatchDto.getPeople());
+
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
   @PutMapping("/{staffNumber}")
   @ApiOperation(value = "Updates a person's details",
       notes = "This endpoint updates the details of a person. Skills of a person can be managed (created/updated/deleted) using this endpoint.",
@@ -101,7 +248,7 @@ public class PersonController {
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
-    if (this.service.fetchPersonByStaffNumber(staffNumber) == null) {
+    if (!this.service.personExists(staffNumber)) {
       return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
@@ -121,9 +268,8 @@ public class PersonController {
       @ApiParam(value = "Staff number of the person to be deleted",
           required = true) @PathVariable("staffNumber") final String staffNumber) {
 
-    final PersonDTO person = this.service.fetchPersonByStaffNumber(staffNumber);
-    if (person != null) {
-      this.service.deletePerson(person);
+    if (this.service.personExists(staffNumber)) {
+      this.service.deletePerson(staffNumber);
       return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
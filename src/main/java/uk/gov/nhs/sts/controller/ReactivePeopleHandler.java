@@ -0,0 +1,73 @@
+package uk.gov.nhs.sts.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.ReactivePeopleRepository;
+
+/**
+ * Handlers for the read-only API served on the reactive stack, mirroring the read endpoints of
+ * {@link PersonController} and {@link SkillController}.
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactivePeopleHandler {
+
+  public static final MediaType APPLICATION_NDJSON =
+      MediaType.parseMediaType(PersonController.APPLICATION_NDJSON_VALUE);
+
+  private final ReactivePeopleRepository repository;
+
+  /**
+   * Gets all the people, streamed one person per line as they are read from the database when
+   * newline delimited JSON is preferred, or as a JSON array otherwise.
+   */
+  public Mono<ServerResponse> getPeople(final ServerRequest request) {
+    return ServerResponse.ok().contentType(peopleContentType(request.headers().accept()))
+        .body(this.repository.findAllWithSkills(), PersonDTO.class);
+  }
+
+  public Mono<ServerResponse> getPerson(final ServerRequest request) {
+    return this.repository.findByStaffNumber(request.pathVariable("staffNumber"))
+        .flatMap(person -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(person))
+        .switchIfEmpty(ServerResponse.notFound().build());
+  }
+
+  public Mono<ServerResponse> getSkills(final ServerRequest request) {
+    return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+        .body(this.repository.findAllSkills(), SkillDTO.class);
+  }
+
+  /**
+   * Picks newline delimited JSON if the most preferred acceptable type asks for it, whatever its
+   * parameters, and a JSON array for wildcards or anything else.
+   */
+  static MediaType peopleContentType(final List<MediaType> accept) {
+    final List<MediaType> preferred = new ArrayList<>(accept);
+    MediaType.sortBySpecificityAndQuality(preferred);
+    for (MediaType mediaType : preferred) {
+      if (mediaType.getQualityValue() == 0) {
+        continue;
+      }
+      if (!mediaType.isWildcardSubtype() && mediaType.isCompatibleWith(APPLICATION_NDJSON)) {
+        return APPLICATION_NDJSON;
+      }
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+        return MediaType.APPLICATION_JSON;
+      }
+    }
+    return MediaType.APPLICATION_JSON;
+  }
+
+}
@@ -2,10 +2,16 @@ package uk.gov.nhs.sts.controller;
 
 import java.util.List;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,18 +19,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import uk.gov.nhs.sts.model.dto.SkillCountsDTO;
+import uk.gov.nhs.sts.model.dto.SkillCursorPageDTO;
 import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillSort;
 import uk.gov.nhs.sts.service.PeopleManagementService;
+import uk.gov.nhs.sts.service.Versioned;
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@Validated
 @RequiredArgsConstructor
 @RequestMapping(value = "/api/skills")
 @Api(value = "/api/v1/skills", tags = {"Skills API"}, protocols = "HTTP")
@@ -34,28 +48,80 @@ public class SkillController {
 
   @GetMapping(value = "/{name}", produces = {MediaType.APPLICATION_JSON_VALUE})
   @ApiOperation(value = "Gets a skill's details",
-      notes = "This endpoint fetches a skill's details based on the name.",
+      notes = "This endpoint fetches a skill's details based on the name. The response carries an ETag which changes whenever the skill changes; sending it back in If-None-Match gets a 304 if nothing has changed.",
       response = SkillDTO.class)
   @ApiResponses(value = {@ApiResponse(code = 200, message = "Skill details retrieved"),
+      @ApiResponse(code = 304, message = "Skill not modified"),
       @ApiResponse(code = 404, message = "Skill not found"),
       @ApiResponse(code = 500, message = "Error while processing the request")})
   public ResponseEntity<SkillDTO> getSkill(@ApiParam(value = "Name of the skill to be created",
-      required = true) @PathVariable("name") final String name) {
-    final SkillDTO skill = this.service.fetchSkillByName(name);
+      required = true) @PathVariable("name") final String name,
+      final ServletWebRequest webRequest) {
+    final String version = this.service.fetchSkillVersion(name);
+    if (version == null) {
+      return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
+    if (webRequest.checkNotModified(ETags.fromVersion(version))) {
+      return null;
+    }
+
+    final Versioned<SkillDTO> skill = this.service.fetchSkillByName(name, version);
     if (skill != null) {
-      return new ResponseEntity<>(skill, HttpStatus.OK);
+      final String eTag = retag(webRequest, skill);
+      return ResponseEntity.ok().eTag(eTag).body(skill.getValue());
     }
     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
   }
 
-  @GetMapping
+  @GetMapping(
+      produces = {MediaType.APPLICATION_JSON_VALUE, BinaryMediaTypes.APPLICATION_SMILE_VALUE,
+          BinaryMediaTypes.APPLICATION_CBOR_VALUE})
   @ApiOperation(value = "Gets all the skill details",
-      notes = "This endpoint fetches all the skill details.", response = List.class)
+      notes = "This endpoint fetches all the skill details. The response carries an ETag which changes whenever any skill is created, updated or deleted; sending it back in If-None-Match gets a 304 if nothing has changed. Ask for application/x-jackson-smile or application/cbor for a binary encoding.",
+      response = List.class)
   @ApiResponses(value = {@ApiResponse(code = 200, message = "Skills retrieved"),
+      @ApiResponse(code = 304, message = "Skills not modified"),
       @ApiResponse(code = 500, message = "Error while processing the request")})
-  public ResponseEntity<List<SkillDTO>> getSkills() {
-    final List<SkillDTO> skills = this.service.fetchSkills();
-    return new ResponseEntity<>(skills, HttpStatus.OK);
+  public ResponseEntity<List<SkillDTO>> getSkills(final ServletWebRequest webRequest) {
+    final String version = this.service.fetchSkillsVersion();
+    if (webRequest.checkNotModified(ETags.fromVersion(version))) {
+      return null;
+    }
+
+    final Versioned<List<SkillDTO>> skills = this.service.fetchSkills(version);
+    final String eTag = retag(webRequest, skills);
+    return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(skills.getValue());
+  }
+
+  @GetMapping(params = "limit",
+      produces = {MediaType.APPLICATION_JSON_VALUE, BinaryMediaTypes.APPLICATION_SMILE_VALUE,
+          BinaryMediaTypes.APPLICATION_CBOR_VALUE})
+  @ApiOperation(value = "Gets a page of the skill details",
+      notes = "This endpoint fetches up to limit skills in order of id or name. To get the next page, send the next token from the response back as after, keeping the same sort; the last page has no next token.",
+      response = SkillCursorPageDTO.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "Skills retrieved"),
+      @ApiResponse(code = 400, message = "Bad request"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public ResponseEntity<SkillCursorPageDTO> getSkillsPage(
+      @ApiParam(value = "Order of the skills") @RequestParam(value = "sort",
+          defaultValue = "ID") final SkillSort sort,
+      @ApiParam(value = "Next token of the previous page, absent for the first page") @RequestParam(
+          value = "after", required = false) final String after,
+      @ApiParam(value = "Maximum number of skills on the page", required = true) @RequestParam(
+          "limit") @Min(1) @Max(1000) final int limit) {
+    return new ResponseEntity<>(this.service.fetchSkillsPage(sort, after, limit), HttpStatus.OK);
+  }
+
+  @GetMapping(value = "/matrix",
+      produces = {MediaType.APPLICATION_JSON_VALUE, BinaryMediaTypes.APPLICATION_SMILE_VALUE,
+          BinaryMediaTypes.APPLICATION_CBOR_VALUE})
+  @ApiOperation(value = "Gets the skill matrix",
+      notes = "This endpoint fetches the number of people holding each skill at each level. The numbers are kept up to date as people change and periodically reconciled against the database, so the database is not queried.",
+      response = List.class)
+  @ApiResponses(value = {@ApiResponse(code = 200, message = "Skill matrix retrieved"),
+      @ApiResponse(code = 500, message = "Error while processing the request")})
+  public ResponseEntity<List<SkillCountsDTO>> getSkillMatrix() {
+    return new ResponseEntity<>(this.service.fetchSkillMatrix(), HttpStatus.OK);
   }
 
   @ApiOperation(value = "Creates a new skill", notes = "This endpoint creates a new skill",
@@ -73,7 +139,7 @@ public class SkillController {
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
-    if (this.service.fetchSkillByName(skillDto.getName()) != null) {
+    if (this.service.skillExists(skillDto.getName())) {
       return new ResponseEntity<>(HttpStatus.CONFLICT);
     }
 
@@ -98,7 +164,7 @@ public class SkillController {
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
-    if (this.service.fetchSkillByName(name) == null) {
+    if (!this.service.skillExists(name)) {
       return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
@@ -118,11 +184,21 @@ public class SkillController {
   public ResponseEntity<Void> deletePerson(@ApiParam(value = "Name of the skill to be deleted",
       required = true) @PathVariable("name") final String name) {
 
-    final SkillDTO skill = this.service.fetchSkillByName(name);
-    if (skill != null) {
-      this.service.deleteSkill(skill);
+    if (this.service.skillExists(name)) {
+      this.service.deleteSkill(name);
       return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
   }
+
+  /**
+   * Replaces the tag the not modified check put on the response with the version actually read,
+   * as the skills may have changed since the check.
+   */
+  private static String retag(final ServletWebRequest webRequest, final Versioned<?> versioned) {
+    final String eTag = ETags.fromVersion(versioned.getVersion());
+    webRequest.getResponse().setHeader(HttpHeaders.ETAG, eTag);
+    return eTag;
+  }
+
 }
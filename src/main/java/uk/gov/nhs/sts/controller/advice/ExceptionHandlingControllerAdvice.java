@@ -1,16 +1,26 @@
 package uk.gov.nhs.sts.controller.advice;
 
+import javax.validation.ConstraintViolationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.model.dto.PersonBatchResultDTO;
+import uk.gov.nhs.sts.service.ChangesPurgedException;
+import uk.gov.nhs.sts.service.InvalidContinuationTokenException;
+import uk.gov.nhs.sts.service.PeopleImportException;
 
 @ControllerAdvice(annotations = {RestController.class})
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @Slf4j
 public class ExceptionHandlingControllerAdvice {
 
@@ -30,12 +40,39 @@ public class ExceptionHandlingControllerAdvice {
     return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler({MissingServletRequestParameterException.class,
+      MethodArgumentTypeMismatchException.class, ConstraintViolationException.class,
+      InvalidContinuationTokenException.class})
+  @ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Bad request")
+  public static ResponseEntity<Void> handleRequestParameterException(final Exception ex) {
+    log.error("Bad request", ex);
+    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+  }
+
   @ExceptionHandler(DataIntegrityViolationException.class)
   @ResponseStatus(code = HttpStatus.CONFLICT, reason = "Resource already exists")
   public static ResponseEntity<Void> handleDataIntegrityViolationException(
-      final HttpMessageNotReadableException ex) {
-    log.error("Resource already existst", ex);
-    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+      final DataIntegrityViolationException ex) {
+    log.error("Resource already exists", ex);
+    return new ResponseEntity<>(HttpStatus.CONFLICT);
+  }
+
+  @ExceptionHandler(ChangesPurgedException.class)
+  @ResponseStatus(code = HttpStatus.GONE, reason = "Changes purged")
+  public static ResponseEntity<Void> handleChangesPurgedException(
+      final ChangesPurgedException ex) {
+    log.error("Changes purged", ex);
+    return new ResponseEntity<>(HttpStatus.GONE);
+  }
+
+  @ExceptionHandler(PeopleImportException.class)
+  public static ResponseEntity<PersonBatchResultDTO> handlePeopleImportException(
+      final PeopleImportException ex) {
+    log.error("Error while importing people", ex);
+    return new ResponseEntity<>(
+        PersonBatchResultDTO.builder().created(ex.getCreated()).updated(ex.getUpdated())
+            .firstUnprocessed(ex.getFirstUnprocessed()).build(),
+        HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
 }
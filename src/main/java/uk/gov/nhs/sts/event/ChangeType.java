@@ -0,0 +1,7 @@
+package uk.gov.nhs.sts.event;
+
+public enum ChangeType {
+
+  CREATED, UPDATED, DELETED;
+
+}
@@ -0,0 +1,28 @@
+package uk.gov.nhs.sts.event;
+
+import lombok.Builder;
+import lombok.Value;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+
+/**
+ * Published by {@link uk.gov.nhs.sts.service.PeopleManagementService} within the transaction that
+ * creates, updates or deletes a person. The previous state is null for a created person and the
+ * current state is null for a deleted one.
+ */
+@Value
+@Builder
+public class PersonChangedEvent {
+
+  private ChangeType type;
+
+  private Long personId;
+
+  private PersonDTO previous;
+
+  private PersonDTO current;
+
+  public String getStaffNumber() {
+    return this.current != null ? this.current.getStaffNumber() : this.previous.getStaffNumber();
+  }
+
+}
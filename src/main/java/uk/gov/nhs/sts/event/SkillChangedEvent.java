@@ -0,0 +1,23 @@
+package uk.gov.nhs.sts.event;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Published by {@link uk.gov.nhs.sts.service.PeopleManagementService} within the transaction that
+ * creates, renames or deletes a skill. The previous name is null for a created skill and the
+ * current name is null for a deleted one.
+ */
+@Value
+@Builder
+public class SkillChangedEvent {
+
+  private ChangeType type;
+
+  private Long skillId;
+
+  private String previousName;
+
+  private String currentName;
+
+}
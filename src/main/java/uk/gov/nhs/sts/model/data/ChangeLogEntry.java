@@ -0,0 +1,68 @@
+package uk.gov.nhs.sts.model.data;
+
+import java.time.Instant;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import org.hibernate.annotations.Type;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import uk.gov.nhs.sts.event.ChangeType;
+
+/**
+ * A change to a person or skill, appended to the change log by the transaction which made it. Ids
+ * are taken from the sequence one at a time, rather than in blocks, so that they increase in the
+ * order the entries are written across every instance of the service and can be used as cursors.
+ * The time of the change is set by the database as the entry is written, rather than as its
+ * transaction started, so that it can be compared with the database's time whichever instance
+ * wrote it, and so that only the time left before the transaction commits has to settle.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "change_log",
+    indexes = @Index(name = "idx_change_log_changed_at", columnList = "changed_at"))
+public class ChangeLogEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_sequence")
+  @SequenceGenerator(name = "change_log_sequence", sequenceName = "change_log_sequence",
+      allocationSize = 1)
+  private Long id;
+
+  @Column(name = "entity_type")
+  @Enumerated(EnumType.STRING)
+  private EntityType entityType;
+
+  @Column(name = "change_type")
+  @Enumerated(EnumType.STRING)
+  private ChangeType changeType;
+
+  @Column(name = "entity_key")
+  private String key;
+
+  @Column(name = "previous_key")
+  private String previousKey;
+
+  @Column(name = "payload")
+  @Type(type = "text")
+  private String payload;
+
+  @Column(name = "changed_at", insertable = false, updatable = false,
+      columnDefinition = "timestamp default clock_timestamp()")
+  private Instant changedAt;
+
+}
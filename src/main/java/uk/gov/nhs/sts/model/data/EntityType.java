@@ -0,0 +1,7 @@
+package uk.gov.nhs.sts.model.data;
+
+public enum EntityType {
+
+  PERSON, SKILL;
+
+}
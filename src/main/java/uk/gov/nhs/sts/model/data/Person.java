@@ -7,8 +7,13 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+import org.hibernate.annotations.BatchSize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -21,19 +26,28 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "person")
+@Table(name = "person",
+    uniqueConstraints = @UniqueConstraint(name = "uk_person_staff_number",
+        columnNames = "staff_number"),
+    indexes = @Index(name = "idx_person_name_id", columnList = "name, id"))
 public class Person {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_sequence")
+  @SequenceGenerator(name = "person_sequence", sequenceName = "person_sequence", allocationSize = 50)
   private Long id;
 
   @Column
   private String name;
 
-  @Column
+  @Column(name = "staff_number")
   private String staffNumber;
 
+  @Version
+  @Column
+  private Long version;
+
   @OneToMany(mappedBy = "person", cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchSize(size = 100)
   private Set<PersonSkill> personSkills;
 }
@@ -1,13 +1,15 @@
 package uk.gov.nhs.sts.model.data;
 
 import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
-import javax.persistence.Id;
-import javax.persistence.IdClass;
+import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.MapsId;
 import javax.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,17 +23,22 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "person_skill")
-@IdClass(PersonSkillKey.class)
+@Table(name = "person_skill",
+    indexes = {@Index(name = "idx_person_skill_skill_person", columnList = "skill_id, person_id"),
+        @Index(name = "idx_person_skill_skill_level", columnList = "skill_id, level")})
 public class PersonSkill {
 
-  @Id
-  @ManyToOne
+  @EmbeddedId
+  @Builder.Default
+  private PersonSkillKey id = new PersonSkillKey();
+
+  @MapsId("personId")
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "person_id")
   private Person person;
 
-  @Id
-  @ManyToOne
+  @MapsId("skillId")
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "skill_id")
   private Skill skill;
 
@@ -1,8 +1,11 @@
 package uk.gov.nhs.sts.model.data;
 
 import java.io.Serializable;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -12,40 +15,16 @@ import lombok.Setter;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-// @Embeddable
+@EqualsAndHashCode
+@Embeddable
 public class PersonSkillKey implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
-  // @Column(name = "person_id")
-  private Person person;
-
-  // @Column(name = "skill_id")
-  private Skill skill;
-
-  @Override
-  public boolean equals(Object obj) {
-    if (this == obj) {
-      return true;
-    }
-    if (obj == null || getClass() != obj.getClass()) {
-      return false;
-    }
-
-    PersonSkillKey key = (PersonSkillKey) obj;
-
-    if (person != null ? !person.equals(key.getPerson()) : key.getPerson() != null) {
-      return false;
-    }
-    return skill != null ? skill.equals(key.getSkill()) : key.getSkill() == null;
-  }
-
-  @Override
-  public int hashCode() {
-    int result = person != null ? person.hashCode() : 0;
-    result = 31 * result + (skill != null ? skill.hashCode() : 0);
-    return result;
-  }
+  @Column(name = "person_id")
+  private Long personId;
 
+  @Column(name = "skill_id")
+  private Long skillId;
 
 }
@@ -8,7 +8,15 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -21,16 +29,26 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "skill")
+@Table(name = "skill",
+    uniqueConstraints = @UniqueConstraint(name = "uk_skill_name", columnNames = "name"))
+@BatchSize(size = 100)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "skill")
+@NaturalIdCache(region = "skill-natural-id")
 public class Skill {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "skill_sequence")
+  @SequenceGenerator(name = "skill_sequence", sequenceName = "skill_sequence", allocationSize = 50)
   private Long id;
 
+  @NaturalId(mutable = true)
   @Column
   private String name;
 
+  @Version
+  @Column
+  private Long version;
+
   @OneToMany(mappedBy = "skill", cascade = CascadeType.ALL)
   private Set<PersonSkill> personSkills;
 }
@@ -0,0 +1,35 @@
+package uk.gov.nhs.sts.model.data;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The single row versioning the skill catalogue as a whole. Its version is bumped by every
+ * transaction which creates, renames or deletes a skill, whichever instance of the service makes
+ * it, so that it can tag the list of skills.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "skill_catalogue")
+public class SkillCatalogue {
+
+  public static final long ID = 1L;
+
+  @Id
+  private Long id;
+
+  @Column
+  private Long version;
+
+}
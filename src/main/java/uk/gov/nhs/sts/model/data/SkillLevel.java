@@ -1,7 +1,17 @@
 package uk.gov.nhs.sts.model.data;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum SkillLevel {
 
   AWARENESS, WORKING, PRACTITIONER, EXPERT;
 
+  /**
+   * The levels from this one upwards, in order.
+   */
+  public Set<SkillLevel> andAbove() {
+    return EnumSet.range(this, EXPERT);
+  }
+
 }
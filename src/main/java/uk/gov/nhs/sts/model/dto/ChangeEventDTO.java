@@ -0,0 +1,36 @@
+package uk.gov.nhs.sts.model.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.model.data.EntityType;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "changeEvent", description = "A change to a person or skill pushed to subscribers")
+public class ChangeEventDTO {
+
+  @ApiModelProperty(value = "Whether a person or skill changed")
+  private EntityType entityType;
+
+  @ApiModelProperty(value = "Whether the person or skill was created, updated or deleted")
+  private ChangeType changeType;
+
+  @ApiModelProperty(value = "The staff number of the person or name of the skill")
+  private String key;
+
+  @ApiModelProperty(
+      value = "The staff number or skill name before the change, if the change altered it")
+  private String previousKey;
+
+  @ApiModelProperty(value = "The person or skill after the change, absent if it was deleted",
+      dataType = "object")
+  private Object record;
+
+}
@@ -0,0 +1,24 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.List;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "changes", description = "The changes made since a cursor, oldest first")
+public class ChangesDTO {
+
+  @ApiModelProperty(value = "The changes, oldest first")
+  private List<ChangeDTO> changes;
+
+  @ApiModelProperty(value = "The cursor to ask for the changes after these ones with")
+  private long cursor;
+
+}
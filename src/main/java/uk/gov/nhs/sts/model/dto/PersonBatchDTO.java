@@ -0,0 +1,29 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "person_batch", description = "This holds a batch of people to be imported")
+public class PersonBatchDTO {
+
+  public static final int MAX_PEOPLE = 10_000;
+
+  @Valid
+  @NotEmpty(message = "People should be present")
+  @Size(max = MAX_PEOPLE, message = "At most {max} people should be imported at once")
+  @ApiModelProperty(value = "The people to be created or updated, at most 10000", required = true)
+  private List<PersonDTO> people;
+
+}
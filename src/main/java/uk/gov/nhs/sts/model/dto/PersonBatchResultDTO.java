@@ -0,0 +1,30 @@
+package uk.gov.nhs.sts.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "person_batch_result", description = "The outcome of importing a batch of people")
+public class PersonBatchResultDTO {
+
+  @ApiModelProperty(value = "The number of people created")
+  private int created;
+
+  @ApiModelProperty(value = "The number of existing people updated")
+  private int updated;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  @ApiModelProperty(
+      value = "When the import failed, the index of the first person not imported. The people "
+          + "before it were committed, and resubmitting the people from it on completes the import")
+  private Integer firstUnprocessed;
+
+}
@@ -0,0 +1,25 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.List;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "person_cursor_page", description = "A page of people and where the next starts")
+public class PersonCursorPageDTO {
+
+  @ApiModelProperty(value = "The people on this page")
+  private List<PersonDTO> people;
+
+  @ApiModelProperty(
+      value = "The token to ask for the next page with, absent if this is the last page")
+  private String next;
+
+}
@@ -0,0 +1,33 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.List;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "person_page", description = "A page of people")
+public class PersonPageDTO {
+
+  @ApiModelProperty(value = "The people on this page")
+  private List<PersonDTO> people;
+
+  @ApiModelProperty(value = "The zero-based page number")
+  private int page;
+
+  @ApiModelProperty(value = "The maximum number of people on a page")
+  private int size;
+
+  @ApiModelProperty(value = "The total number of people matching the search")
+  private long totalElements;
+
+  @ApiModelProperty(value = "The total number of pages")
+  private int totalPages;
+
+}
@@ -0,0 +1,10 @@
+package uk.gov.nhs.sts.model.dto;
+
+/**
+ * The order in which people are listed a page at a time.
+ */
+public enum PersonSort {
+
+  ID, STAFF_NUMBER, NAME;
+
+}
@@ -0,0 +1,28 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.Map;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "skill_counts", description = "The number of people holding a skill at each level")
+public class SkillCountsDTO {
+
+  @ApiModelProperty(value = "The skill name")
+  private String skillName;
+
+  @ApiModelProperty(value = "The number of people holding the skill at each level")
+  private Map<SkillLevel, Long> levels;
+
+  @ApiModelProperty(value = "The number of people holding the skill at any level")
+  private long total;
+
+}
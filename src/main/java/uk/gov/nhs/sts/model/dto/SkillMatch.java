@@ -0,0 +1,10 @@
+package uk.gov.nhs.sts.model.dto;
+
+/**
+ * How multiple skills in a people search are combined.
+ */
+public enum SkillMatch {
+
+  ALL, ANY;
+
+}
@@ -0,0 +1,57 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.List;
+import java.util.stream.Stream;
+import javax.validation.Valid;
+import javax.validation.constraints.AssertTrue;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+
+/**
+ * A node of a boolean skill query. Each node is exactly one of: a skill held between a minimum and
+ * maximum level, all of a list of nodes, any of a list of nodes, or not a node.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "skill_query",
+    description = "A boolean skill query: exactly one of skill, and, or and not should be present")
+public class SkillQueryDTO {
+
+  @ApiModelProperty(value = "The skill name")
+  private String skill;
+
+  @ApiModelProperty(value = "The minimum skill level, AWARENESS if absent")
+  private SkillLevel minLevel;
+
+  @ApiModelProperty(value = "The maximum skill level, EXPERT if absent")
+  private SkillLevel maxLevel;
+
+  @Valid
+  @ApiModelProperty(value = "Queries which must all match")
+  private List<SkillQueryDTO> and;
+
+  @Valid
+  @ApiModelProperty(value = "Queries of which at least one must match")
+  private List<SkillQueryDTO> or;
+
+  @Valid
+  @ApiModelProperty(value = "A query which must not match")
+  private SkillQueryDTO not;
+
+  @JsonIgnore
+  @AssertTrue(message = "Exactly one of skill, and, or and not should be present")
+  public boolean isSingleOperation() {
+    return Stream.of(this.skill, this.and, this.or, this.not).filter(operand -> operand != null)
+        .count() == 1 && (this.and == null || !this.and.isEmpty())
+        && (this.or == null || !this.or.isEmpty());
+  }
+
+}
@@ -0,0 +1,10 @@
+package uk.gov.nhs.sts.model.dto;
+
+/**
+ * The order in which skills are listed a page at a time.
+ */
+public enum SkillSort {
+
+  ID, NAME;
+
+}
@@ -0,0 +1,24 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.List;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "team_search_result", description = "The people matching a skill query")
+public class TeamSearchResultDTO {
+
+  @ApiModelProperty(value = "The number of people matching the query")
+  private int count;
+
+  @ApiModelProperty(value = "The staff numbers of the people matching the query")
+  private List<String> staffNumbers;
+
+}
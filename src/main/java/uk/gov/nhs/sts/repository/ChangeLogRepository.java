@@ -0,0 +1,33 @@
+package uk.gov.nhs.sts.repository;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import uk.gov.nhs.sts.model.data.ChangeLogEntry;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+  List<ChangeLogEntry> findByIdGreaterThanAndChangedAtBeforeOrderById(final Long id,
+      final Instant changedBefore, final Pageable pageable);
+
+  Optional<ChangeLogEntry> findFirstByOrderById();
+
+  @Query(value = "select localtimestamp", nativeQuery = true)
+  Date findDatabaseTime();
+
+  /**
+   * Deletes the changes made before the given time, except for the latest change, which is kept
+   * so that the log never empties and consumers behind a purge can always be told so.
+   */
+  @Modifying
+  @Query("delete from ChangeLogEntry e where e.changedAt < :changedBefore "
+      + "and e.id < (select max(l.id) from ChangeLogEntry l)")
+  int deleteByChangedAtBefore(@Param("changedBefore") final Instant changedBefore);
+
+}
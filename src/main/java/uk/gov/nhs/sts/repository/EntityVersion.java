@@ -0,0 +1,12 @@
+package uk.gov.nhs.sts.repository;
+
+/**
+ * Projection of an entity's id and optimistic lock version.
+ */
+public interface EntityVersion {
+
+  Long getId();
+
+  Long getVersion();
+
+}
@@ -0,0 +1,14 @@
+package uk.gov.nhs.sts.repository;
+
+/**
+ * Projection of the columns people can be listed in order of.
+ */
+public interface PersonKey {
+
+  Long getId();
+
+  String getStaffNumber();
+
+  String getName();
+
+}
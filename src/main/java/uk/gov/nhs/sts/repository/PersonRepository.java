@@ -1,10 +1,95 @@
 package uk.gov.nhs.sts.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import uk.gov.nhs.sts.model.data.Person;
+import uk.gov.nhs.sts.model.data.SkillLevel;
 
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, PersonRepositoryCustom {
 
-  Person findByStaffNumber(final String staffNumber);
+  @Query("select p from Person p left join fetch p.personSkills ps left join fetch ps.skill "
+      + "where p.staffNumber = :staffNumber")
+  Person findByStaffNumber(@Param("staffNumber") final String staffNumber);
+
+  boolean existsByStaffNumber(final String staffNumber);
+
+  @Query("select p.id as id, p.version as version, count(s.id) as skillCount, "
+      + "coalesce(sum(s.version), 0) as skillVersionSum from Person p "
+      + "left join p.personSkills ps left join ps.skill s where p.staffNumber = :staffNumber "
+      + "group by p.id, p.version")
+  PersonVersion findVersionByStaffNumber(@Param("staffNumber") final String staffNumber);
+
+  @Query("select distinct p from Person p left join fetch p.personSkills ps left join fetch ps.skill")
+  @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+  List<Person> findAllWithSkills();
+
+  @Query("select distinct p from Person p left join fetch p.personSkills ps left join fetch ps.skill "
+      + "where p.staffNumber in :staffNumbers")
+  @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+  List<Person> findByStaffNumberIn(@Param("staffNumbers") final Collection<String> staffNumbers);
+
+  @Query("select distinct p from Person p left join fetch p.personSkills ps left join fetch ps.skill "
+      + "where p.id in :ids order by p.id")
+  @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+  List<Person> findWithSkillsByIdIn(@Param("ids") final Collection<Long> ids);
+
+  /**
+   * Finds the ids of the people holding any of the named skills at one of the given levels, read
+   * from the (skill_id, level) index on person_skill.
+   */
+  @Query(value = "select distinct ps.id.personId from PersonSkill ps join ps.skill s "
+      + "where s.name in :skillNames and ps.level in :levels order by ps.id.personId",
+      countQuery = "select count(distinct ps.id.personId) from PersonSkill ps join ps.skill s "
+          + "where s.name in :skillNames and ps.level in :levels")
+  Page<Long> findIdsWithAnySkill(@Param("skillNames") final Collection<String> skillNames,
+      @Param("levels") final Collection<SkillLevel> levels, final Pageable pageable);
+
+  /**
+   * Finds the ids of the people holding all of the named skills at one of the given levels, read
+   * from the (skill_id, level) index on person_skill.
+   */
+  @Query(value = "select ps.id.personId from PersonSkill ps join ps.skill s "
+      + "where s.name in :skillNames and ps.level in :levels group by ps.id.personId "
+      + "having count(ps.id.skillId) = :skillCount order by ps.id.personId",
+      countQuery = "select count(p.id) from Person p where p.id in (select ps.id.personId "
+          + "from PersonSkill ps join ps.skill s where s.name in :skillNames "
+          + "and ps.level in :levels group by ps.id.personId "
+          + "having count(ps.id.skillId) = :skillCount)")
+  Page<Long> findIdsWithAllSkills(@Param("skillNames") final Collection<String> skillNames,
+      @Param("levels") final Collection<SkillLevel> levels,
+      @Param("skillCount") final long skillCount, final Pageable pageable);
+
+  /**
+   * Finds the keys of the people after the given id, in id order. Together with the other
+   * {@code findKeysAfter} queries, these page through people by seeking past the last row of the
+   * previous page through an index, rather than counting past the rows of every previous page.
+   */
+  @Query("select p.id as id, p.staffNumber as staffNumber, p.name as name from Person p "
+      + "where p.id > :afterId order by p.id")
+  List<PersonKey> findKeysAfterId(@Param("afterId") final long afterId, final Pageable pageable);
+
+  @Query("select p.id as id, p.staffNumber as staffNumber, p.name as name from Person p "
+      + "where p.staffNumber > :afterStaffNumber order by p.staffNumber")
+  List<PersonKey> findKeysAfterStaffNumber(@Param("afterStaffNumber") final String afterStaffNumber,
+      final Pageable pageable);
+
+  /**
+   * Finds the keys of the people after the given name and id, in name order. Names aren't unique,
+   * so ties are broken on id, and the leading {@code name >=} condition lets the database range
+   * scan the (name, id) index.
+   */
+  @Query("select p.id as id, p.staffNumber as staffNumber, p.name as name from Person p "
+      + "where p.name >= :afterName and (p.name > :afterName or p.id > :afterId) "
+      + "order by p.name, p.id")
+  List<PersonKey> findKeysAfterName(@Param("afterName") final String afterName,
+      @Param("afterId") final long afterId, final Pageable pageable);
 
 }
@@ -0,0 +1,26 @@
+package uk.gov.nhs.sts.repository;
+
+import java.util.stream.Stream;
+import uk.gov.nhs.sts.model.data.Person;
+
+public interface PersonRepositoryCustom {
+
+  /**
+   * Streams all the people, with their skills, through a forward-only, read-only cursor. Must be
+   * called within a transaction and the returned stream must be closed by the caller.
+   */
+  Stream<Person> streamAll(final int fetchSize);
+
+  /**
+   * Streams the id and staff number of every person through a forward-only cursor, without
+   * loading them. Must be called within a transaction and the returned stream must be closed.
+   */
+  Stream<PersonStaffNumber> streamStaffNumbers(final int fetchSize);
+
+  /**
+   * Streams every skill held by a person through a forward-only cursor, without loading the people
+   * or skills. Must be called within a transaction and the returned stream must be closed.
+   */
+  Stream<PersonSkillLevel> streamSkillLevels(final int fetchSize);
+
+}
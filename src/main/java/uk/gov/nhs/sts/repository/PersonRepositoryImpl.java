@@ -0,0 +1,64 @@
+package uk.gov.nhs.sts.repository;
+
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.jpa.QueryHints;
+import lombok.Value;
+import uk.gov.nhs.sts.model.data.Person;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+
+public class PersonRepositoryImpl implements PersonRepositoryCustom {
+
+  private static final String STREAM_ALL_QUERY =
+      "select p from Person p left join fetch p.personSkills ps left join fetch ps.skill order by p.id";
+
+  private static final String STREAM_STAFF_NUMBERS_QUERY =
+      "select p.id, p.staffNumber from Person p";
+
+  private static final String STREAM_SKILL_LEVELS_QUERY =
+      "select ps.id.personId, s.name, ps.level from PersonSkill ps join ps.skill s";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Stream<Person> streamAll(final int fetchSize) {
+    return this.entityManager.createQuery(STREAM_ALL_QUERY, Person.class)
+        .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize).setHint(QueryHints.HINT_READONLY, true)
+        .getResultStream();
+  }
+
+  @Override
+  public Stream<PersonStaffNumber> streamStaffNumbers(final int fetchSize) {
+    return this.entityManager.createQuery(STREAM_STAFF_NUMBERS_QUERY, Object[].class)
+        .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize).setHint(QueryHints.HINT_READONLY, true)
+        .getResultStream().map(row -> new StaffNumberRow((Long) row[0], (String) row[1]));
+  }
+
+  @Override
+  public Stream<PersonSkillLevel> streamSkillLevels(final int fetchSize) {
+    return this.entityManager.createQuery(STREAM_SKILL_LEVELS_QUERY, Object[].class)
+        .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize).setHint(QueryHints.HINT_READONLY, true)
+        .getResultStream()
+        .map(row -> new SkillLevelRow((Long) row[0], (String) row[1], (SkillLevel) row[2]));
+  }
+
+  @Value
+  private static class StaffNumberRow implements PersonStaffNumber {
+
+    private Long personId;
+    private String staffNumber;
+
+  }
+
+  @Value
+  private static class SkillLevelRow implements PersonSkillLevel {
+
+    private Long personId;
+    private String skillName;
+    private SkillLevel level;
+
+  }
+
+}
@@ -0,0 +1,16 @@
+package uk.gov.nhs.sts.repository;
+
+import uk.gov.nhs.sts.model.data.SkillLevel;
+
+/**
+ * Projection of a skill held by a person, without loading either entity.
+ */
+public interface PersonSkillLevel {
+
+  Long getPersonId();
+
+  String getSkillName();
+
+  SkillLevel getLevel();
+
+}
@@ -0,0 +1,12 @@
+package uk.gov.nhs.sts.repository;
+
+/**
+ * Projection of a person's id and staff number.
+ */
+public interface PersonStaffNumber {
+
+  Long getPersonId();
+
+  String getStaffNumber();
+
+}
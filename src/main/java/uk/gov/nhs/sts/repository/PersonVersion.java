@@ -0,0 +1,18 @@
+package uk.gov.nhs.sts.repository;
+
+/**
+ * Projection summarising the versions of a person and the skills they hold. Changes to the
+ * person's own skills increment the person's version, while renaming one of their skills
+ * increments the sum of the skill versions and deleting one decrements the skill count.
+ */
+public interface PersonVersion {
+
+  Long getId();
+
+  Long getVersion();
+
+  Long getSkillCount();
+
+  Long getSkillVersionSum();
+
+}
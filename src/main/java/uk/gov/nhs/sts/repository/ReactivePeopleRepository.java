@@ -0,0 +1,86 @@
+package uk.gov.nhs.sts.repository;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+
+/**
+ * Non-blocking reads of people and skills over R2DBC, used by the reactive read API. People are
+ * read as one row per skill held, ordered by person, and the consecutive rows of each person are
+ * folded back together as they arrive, so that only one person is held in memory at a time.
+ */
+@Repository
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactivePeopleRepository {
+
+  private static final String SELECT_PEOPLE_WITH_SKILLS =
+      "select p.id, p.name, p.staff_number, s.name as skill_name, ps.level from person p "
+          + "left join person_skill ps on ps.person_id = p.id "
+          + "left join skill s on s.id = ps.skill_id ";
+
+  private final DatabaseClient databaseClient;
+
+  public Flux<PersonDTO> findAllWithSkills() {
+    return this.databaseClient.execute(SELECT_PEOPLE_WITH_SKILLS + "order by p.id, s.id")
+        .map(ReactivePeopleRepository::toPersonSkillRow).all()
+        .bufferUntilChanged(PersonSkillRow::getPersonId)
+        .map(ReactivePeopleRepository::toPersonDto);
+  }
+
+  public Mono<PersonDTO> findByStaffNumber(final String staffNumber) {
+    return this.databaseClient
+        .execute(SELECT_PEOPLE_WITH_SKILLS + "where p.staff_number = :staffNumber order by s.id")
+        .bind("staffNumber", staffNumber).map(ReactivePeopleRepository::toPersonSkillRow).all()
+        .collectList().filter(rows -> !rows.isEmpty())
+        .map(ReactivePeopleRepository::toPersonDto);
+  }
+
+  public Flux<SkillDTO> findAllSkills() {
+    return this.databaseClient.execute("select name from skill order by id")
+        .map(row -> SkillDTO.builder().name(row.get("name", String.class)).build()).all();
+  }
+
+  private static PersonSkillRow toPersonSkillRow(final Row row) {
+    final String level = row.get("level", String.class);
+    return new PersonSkillRow(row.get("id", Long.class), row.get("name", String.class),
+        row.get("staff_number", String.class), row.get("skill_name", String.class),
+        level == null ? null : SkillLevel.valueOf(level));
+  }
+
+  private static PersonDTO toPersonDto(final List<PersonSkillRow> rows) {
+    final PersonSkillRow first = rows.get(0);
+    final List<PersonSkillDTO> personSkillDtos = rows.stream()
+        .filter(row -> Objects.nonNull(row.getSkillName()))
+        .map(row -> PersonSkillDTO.builder().skillName(row.getSkillName())
+            .skillLevel(row.getLevel()).build())
+        .collect(Collectors.toList());
+    return PersonDTO.builder().name(first.getName()).staffNumber(first.getStaffNumber())
+        .personSkills(personSkillDtos).build();
+  }
+
+  @Value
+  private static class PersonSkillRow {
+
+    private Long personId;
+    private String name;
+    private String staffNumber;
+    private String skillName;
+    private SkillLevel level;
+
+  }
+
+}
@@ -0,0 +1,17 @@
+package uk.gov.nhs.sts.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import uk.gov.nhs.sts.model.data.SkillCatalogue;
+
+public interface SkillCatalogueRepository extends JpaRepository<SkillCatalogue, Long> {
+
+  @Query("select c.version from SkillCatalogue c")
+  Long findVersion();
+
+  @Modifying
+  @Query("update SkillCatalogue c set c.version = c.version + 1")
+  int incrementVersion();
+
+}
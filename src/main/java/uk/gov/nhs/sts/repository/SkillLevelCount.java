@@ -0,0 +1,17 @@
+package uk.gov.nhs.sts.repository;
+
+import uk.gov.nhs.sts.model.data.SkillLevel;
+
+/**
+ * Projection of the number of people holding a skill at a level. The level is null for a skill
+ * nobody holds.
+ */
+public interface SkillLevelCount {
+
+  String getSkillName();
+
+  SkillLevel getLevel();
+
+  long getCount();
+
+}
@@ -1,10 +1,37 @@
 package uk.gov.nhs.sts.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import uk.gov.nhs.sts.model.data.Skill;
 
-public interface SkillRepository extends JpaRepository<Skill, Long> {
+public interface SkillRepository extends JpaRepository<Skill, Long>, SkillRepositoryCustom {
 
-  Skill findByName(final String name);
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  List<Skill> findAll();
+
+  boolean existsByName(final String name);
+
+  @Query("select s.id as id, s.version as version from Skill s where s.name = :name")
+  EntityVersion findVersionByName(@Param("name") final String name);
+
+  List<Skill> findByNameIn(final Collection<String> names);
+
+  @Query("select s from Skill s where s.id > :afterId order by s.id")
+  List<Skill> findAfterId(@Param("afterId") final long afterId, final Pageable pageable);
+
+  @Query("select s from Skill s where s.name > :afterName order by s.name")
+  List<Skill> findAfterName(@Param("afterName") final String afterName, final Pageable pageable);
+
+  @Query("select s.name as skillName, ps.level as level, count(ps.id.personId) as count "
+      + "from Skill s left join s.personSkills ps group by s.name, ps.level")
+  List<SkillLevelCount> countPeopleBySkillAndLevel();
 
 }
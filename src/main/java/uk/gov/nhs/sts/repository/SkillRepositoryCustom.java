@@ -0,0 +1,13 @@
+package uk.gov.nhs.sts.repository;
+
+import uk.gov.nhs.sts.model.data.Skill;
+
+public interface SkillRepositoryCustom {
+
+  /**
+   * Finds a skill by its name, which is the skill's natural id, so that the lookup is answered from
+   * the second-level cache when the skill is cached there.
+   */
+  Skill findByName(final String name);
+
+}
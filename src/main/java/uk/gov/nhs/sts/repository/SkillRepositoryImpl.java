@@ -0,0 +1,20 @@
+package uk.gov.nhs.sts.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import uk.gov.nhs.sts.model.data.Skill;
+
+public class SkillRepositoryImpl implements SkillRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional(readOnly = true)
+  public Skill findByName(final String name) {
+    return this.entityManager.unwrap(Session.class).bySimpleNaturalId(Skill.class).load(name);
+  }
+
+}
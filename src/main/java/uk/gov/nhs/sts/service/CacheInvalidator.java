@@ -0,0 +1,93 @@
+package uk.gov.nhs.sts.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import lombok.RequiredArgsConstructor;
+import uk.gov.nhs.sts.config.CacheConfig;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+
+/**
+ * Evicts the entries cached by {@link PeopleManagementService} which a change makes stale. The
+ * eviction happens once the change has committed, so that a read starting after it can't put the
+ * uncommitted state back in the cache. A read which loaded the previous state before the commit
+ * could put it back after the eviction, so the people are cached with
+ * {@link #putUnlessEvicted}, which skips the put if the entry was evicted while it was loading.
+ * The skills are cached along with the version they were read at instead, and reloaded when it is
+ * no longer the current version.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+
+  private static final int STRIPES = 64;
+
+  private final CacheManager cacheManager;
+
+  /** The number of evictions so far, counted per stripe of keys. */
+  private final long[] evictions = new long[STRIPES];
+
+  /**
+   * Starts loading an entry, returning a token to cache it with once loaded.
+   */
+  public synchronized long beginLoad(final Object key) {
+    return this.evictions[stripe(key)];
+  }
+
+  /**
+   * Caches an entry loaded since {@link #beginLoad} returned the token, unless it has been evicted
+   * since, in which case it may have been loaded from the state before the change committed.
+   */
+  public synchronized void putUnlessEvicted(final Cache cache, final Object key,
+      final Object value, final long token) {
+    if (this.evictions[stripe(key)] == token) {
+      cache.put(key, value);
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onPersonChanged(final PersonChangedEvent event) {
+    final Cache people = this.cacheManager.getCache(CacheConfig.PEOPLE_CACHE);
+    if (event.getPrevious() != null) {
+      evict(people, event.getPrevious().getStaffNumber());
+    }
+    if (event.getCurrent() != null) {
+      evict(people, event.getCurrent().getStaffNumber());
+    }
+  }
+
+  /**
+   * A renamed or deleted skill changes every person holding it, and those people aren't known
+   * here, so all the cached people are evicted. Skills change rarely enough for this not to matter.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onSkillChanged(final SkillChangedEvent event) {
+    this.cacheManager.getCache(CacheConfig.SKILLS_CACHE).clear();
+    if (event.getType() != ChangeType.CREATED) {
+      this.cacheManager.getCache(CacheConfig.SKILL_CACHE).evict(event.getPreviousName());
+      clear(this.cacheManager.getCache(CacheConfig.PEOPLE_CACHE));
+      this.cacheManager.getCache(CacheConfig.PERSON_JSON_CACHE).clear();
+    }
+  }
+
+  private synchronized void evict(final Cache cache, final Object key) {
+    cache.evict(key);
+    this.evictions[stripe(key)]++;
+  }
+
+  private synchronized void clear(final Cache cache) {
+    cache.clear();
+    for (int stripe = 0; stripe < STRIPES; stripe++) {
+      this.evictions[stripe]++;
+    }
+  }
+
+  private static int stripe(final Object key) {
+    return Math.floorMod(key.hashCode(), STRIPES);
+  }
+
+}
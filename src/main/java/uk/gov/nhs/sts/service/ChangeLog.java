@@ -0,0 +1,139 @@
+package uk.gov.nhs.sts.service;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.data.ChangeLogEntry;
+import uk.gov.nhs.sts.model.data.EntityType;
+import uk.gov.nhs.sts.model.dto.ChangeDTO;
+import uk.gov.nhs.sts.model.dto.ChangesDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.ChangeLogRepository;
+
+/**
+ * Append-only log of the changes to people and skills, written from the change events published by
+ * {@link PeopleManagementService} just before their transactions commit, so that an entry exists
+ * if and only if its change committed. Consumers read the changes after a cursor, the id of the
+ * last change they have seen, so that keeping a copy in sync costs as much as the changes made
+ * rather than the number of people. Renaming or deleting a skill is logged once for the skill, not
+ * for every person holding it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeLog {
+
+  private final ChangeLogRepository changeLogRepository;
+  private final ServiceProperties properties;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Checks that changes settle for longer than the transactions writing them may take, as
+   * otherwise a cursor could move past a change logged earlier but not committed yet.
+   */
+  @PostConstruct
+  public void checkSettleTime() {
+    final Duration settleTime = this.properties.getChanges().getSettleTime();
+    final Duration writeTimeout =
+        Duration.ofSeconds(PeopleManagementService.WRITE_TIMEOUT_SECONDS);
+    if (settleTime.compareTo(writeTimeout) <= 0) {
+      throw new IllegalStateException("sts.changes.settle-time is " + settleTime
+          + " but must be longer than the write transaction timeout of " + writeTimeout);
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+  public void onPersonChanged(final PersonChangedEvent event) {
+    final String previousStaffNumber =
+        event.getPrevious() == null ? null : event.getPrevious().getStaffNumber();
+    append(ChangeLogEntry.builder().entityType(EntityType.PERSON).changeType(event.getType())
+        .key(event.getStaffNumber())
+        .previousKey(event.getStaffNumber().equals(previousStaffNumber) ? null
+            : previousStaffNumber)
+        .payload(event.getCurrent() == null ? null : toJson(event.getCurrent())));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+  public void onSkillChanged(final SkillChangedEvent event) {
+    final boolean deleted = event.getType() == ChangeType.DELETED;
+    append(ChangeLogEntry.builder().entityType(EntityType.SKILL).changeType(event.getType())
+        .key(deleted ? event.getPreviousName() : event.getCurrentName())
+        .previousKey(event.getType() == ChangeType.UPDATED ? event.getPreviousName() : null)
+        .payload(
+            deleted ? null : toJson(SkillDTO.builder().name(event.getCurrentName()).build())));
+  }
+
+  /**
+   * Gets up to {@code limit} of the changes after the cursor, oldest first, leaving out those made
+   * within the settle time. Cursor 0 starts from the oldest change still kept; any other cursor
+   * fails with {@link ChangesPurgedException} if changes after it have been purged. Times are
+   * compared with the database's, so the clocks of the instances don't matter.
+   */
+  @Transactional(readOnly = true)
+  public ChangesDTO getChanges(final long since, final int limit) {
+    final Instant settled = databaseTime().minus(this.properties.getChanges().getSettleTime());
+    final List<ChangeDTO> changes = this.changeLogRepository
+        .findByIdGreaterThanAndChangedAtBeforeOrderById(since, settled, PageRequest.of(0, limit))
+        .stream().map(ChangeLog::toChangeDto).collect(Collectors.toList());
+    if (since > 0) {
+      this.changeLogRepository.findFirstByOrderById()
+          .filter(oldest -> since < oldest.getId() - 1).ifPresent(oldest -> {
+            throw new ChangesPurgedException("Changes after " + since
+                + " have been purged, the oldest kept is " + oldest.getId());
+          });
+    }
+    return ChangesDTO.builder().changes(changes)
+        .cursor(changes.isEmpty() ? since : changes.get(changes.size() - 1).getCursor()).build();
+  }
+
+  @Scheduled(fixedDelayString = "${sts.changes.purge-interval:PT1H}",
+      initialDelayString = "${sts.changes.purge-interval:PT1H}")
+  @Transactional
+  public void purge() {
+    final int purged = this.changeLogRepository.deleteByChangedAtBefore(
+        databaseTime().minus(this.properties.getChanges().getRetention()));
+    if (purged > 0) {
+      log.info("Purged {} changes from the change log", purged);
+    }
+  }
+
+  private void append(final ChangeLogEntry.ChangeLogEntryBuilder entry) {
+    this.changeLogRepository.save(entry.build());
+  }
+
+  private Instant databaseTime() {
+    return this.changeLogRepository.findDatabaseTime().toInstant();
+  }
+
+  private String toJson(final Object record) {
+    try {
+      return this.objectMapper.writeValueAsString(record);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ChangeDTO toChangeDto(final ChangeLogEntry entry) {
+    return ChangeDTO.builder().cursor(entry.getId()).entityType(entry.getEntityType())
+        .changeType(entry.getChangeType()).key(entry.getKey()).previousKey(entry.getPreviousKey())
+        .changedAt(entry.getChangedAt()).record(entry.getPayload()).build();
+  }
+
+}
@@ -0,0 +1,327 @@
+package uk.gov.nhs.sts.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import javax.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.data.EntityType;
+import uk.gov.nhs.sts.model.dto.ChangeEventDTO;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+
+/**
+ * Pushes the changes to people and skills, once they have committed, to the clients subscribed to
+ * the change stream as server-sent events named {@code person} or {@code skill}. Each change is
+ * serialised once and queued for every subscriber whose filter it matches, and a pool of sender
+ * threads drains the queues, so that a commit never waits on a client. A subscriber whose queue is
+ * full, or which has been stuck sending for longer than the send timeout, has stopped keeping up
+ * and is disconnected, to catch up from the change log when it reconnects.
+ */
+@Component
+@Slf4j
+public class ChangeNotifier {
+
+  private final ServiceProperties properties;
+  private final ObjectMapper objectMapper;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final Set<Subscriber> sendingSubscribers = ConcurrentHashMap.newKeySet();
+  private final ThreadPoolExecutor senders;
+  private final Counter droppedSubscribers;
+
+  public ChangeNotifier(final ServiceProperties properties, final ObjectMapper objectMapper,
+      final MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.objectMapper = objectMapper;
+    final int senderThreads = properties.getChanges().getSenderThreads();
+    this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), new CustomizableThreadFactory("change-sender-"));
+    meterRegistry.gaugeCollectionSize("sts.changes.subscribers", Collections.emptyList(),
+        this.subscribers);
+    this.droppedSubscribers = meterRegistry.counter("sts.changes.subscribers.dropped");
+  }
+
+  /**
+   * Subscribes the sink to the changes to the given skills and to the given people, or to every
+   * change when neither is given. A person matches a skill if they held it before or after the
+   * change. The sink is closed when the subscription times out.
+   */
+  public ChangeSubscription subscribe(final Set<String> skillNames,
+      final Set<String> staffNumbers, final ChangeSink sink) {
+    final Subscriber subscriber = new Subscriber(sink, skillNames, staffNumbers,
+        this.properties.getChanges().getSubscriberBufferSize(), System.nanoTime()
+            + this.properties.getChanges().getSubscriptionTimeout().toNanos());
+    this.subscribers.add(subscriber);
+    return () -> subscriber.close();
+  }
+
+  int getSubscriberCount() {
+    return this.subscribers.size();
+  }
+
+  /**
+   * Closes the subscriptions which have timed out, and disconnects the subscribers stuck sending
+   * for longer than the send timeout. A stuck send holds its sender thread until the write gives
+   * up, so another sender thread is started in its place meanwhile.
+   */
+  @Scheduled(fixedDelayString = "${sts.changes.watchdog-interval:PT1S}")
+  public void checkSubscribers() {
+    final long now = System.nanoTime();
+    final long sendTimeout = this.properties.getChanges().getSendTimeout().toNanos();
+    for (Subscriber subscriber : this.sendingSubscribers) {
+      subscriber.abandonIfStuck(now, sendTimeout);
+    }
+    for (Subscriber subscriber : this.subscribers) {
+      if (now - subscriber.expiresAt > 0) {
+        subscriber.close();
+      }
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onPersonChanged(final PersonChangedEvent event) {
+    if (this.subscribers.isEmpty()) {
+      return;
+    }
+    final String previousStaffNumber =
+        event.getPrevious() == null ? null : event.getPrevious().getStaffNumber();
+    publish(
+        ChangeEventDTO.builder().entityType(EntityType.PERSON).changeType(event.getType())
+            .key(event.getStaffNumber())
+            .previousKey(event.getStaffNumber().equals(previousStaffNumber) ? null
+                : previousStaffNumber)
+            .record(event.getCurrent()).build(),
+        subscriber -> subscriber.matchesPerson(event.getPrevious())
+            || subscriber.matchesPerson(event.getCurrent()));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onSkillChanged(final SkillChangedEvent event) {
+    if (this.subscribers.isEmpty()) {
+      return;
+    }
+    final boolean deleted = event.getType() == ChangeType.DELETED;
+    publish(
+        ChangeEventDTO.builder().entityType(EntityType.SKILL).changeType(event.getType())
+            .key(deleted ? event.getPreviousName() : event.getCurrentName())
+            .previousKey(event.getType() == ChangeType.UPDATED ? event.getPreviousName() : null)
+            .record(deleted ? null : SkillDTO.builder().name(event.getCurrentName()).build())
+            .build(),
+        subscriber -> subscriber.matchesSkill(event.getPreviousName())
+            || subscriber.matchesSkill(event.getCurrentName()));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.senders.shutdownNow();
+    this.subscribers.forEach(subscriber -> subscriber.sink.close());
+  }
+
+  private synchronized void addSender() {
+    this.senders.setMaximumPoolSize(this.senders.getMaximumPoolSize() + 1);
+    this.senders.setCorePoolSize(this.senders.getCorePoolSize() + 1);
+  }
+
+  private synchronized void removeSender() {
+    this.senders.setCorePoolSize(this.senders.getCorePoolSize() - 1);
+    this.senders.setMaximumPoolSize(this.senders.getMaximumPoolSize() - 1);
+  }
+
+  private void publish(final ChangeEventDTO change, final Predicate<Subscriber> filter) {
+    final Notification notification =
+        new Notification(change.getEntityType().name().toLowerCase(), toJson(change));
+    for (Subscriber subscriber : this.subscribers) {
+      if (filter.test(subscriber)) {
+        subscriber.offer(notification);
+      }
+    }
+  }
+
+  private String toJson(final Object change) {
+    try {
+      return this.objectMapper.writeValueAsString(change);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static final class Notification {
+
+    private final String name;
+    private final String json;
+
+    private Notification(final String name, final String json) {
+      this.name = name;
+      this.json = json;
+    }
+
+  }
+
+  private final class Subscriber {
+
+    private final ChangeSink sink;
+    private final Set<String> skillNames;
+    private final Set<String> staffNumbers;
+    private final BlockingQueue<Notification> buffer;
+    private final long expiresAt;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicBoolean sinkClosed = new AtomicBoolean();
+    private long sendStartedAt;
+    private boolean abandoned;
+
+    private Subscriber(final ChangeSink sink, final Set<String> skillNames,
+        final Set<String> staffNumbers, final int bufferSize, final long expiresAt) {
+      this.sink = sink;
+      this.skillNames = skillNames;
+      this.staffNumbers = staffNumbers;
+      this.buffer = new ArrayBlockingQueue<>(bufferSize);
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isUnfiltered() {
+      return this.skillNames.isEmpty() && this.staffNumbers.isEmpty();
+    }
+
+    private boolean matchesSkill(final String skillName) {
+      return isUnfiltered() || skillName != null && this.skillNames.contains(skillName);
+    }
+
+    private boolean matchesPerson(final PersonDTO person) {
+      if (isUnfiltered()) {
+        return true;
+      }
+      if (person == null) {
+        return false;
+      }
+      if (this.staffNumbers.contains(person.getStaffNumber())) {
+        return true;
+      }
+      return person.getPersonSkills() != null && person.getPersonSkills().stream()
+          .map(PersonSkillDTO::getSkillName).anyMatch(this.skillNames::contains);
+    }
+
+    private void offer(final Notification notification) {
+      if (!this.buffer.offer(notification)) {
+        drop();
+        return;
+      }
+      scheduleSend();
+    }
+
+    private void scheduleSend() {
+      if (this.sending.compareAndSet(false, true)) {
+        ChangeNotifier.this.senders.execute(this::send);
+      }
+    }
+
+    /**
+     * Sends the buffered changes, on one sender thread at a time so that they arrive in order, and
+     * sends again if more changes arrived after the buffer was found empty. The sink is closed
+     * from here too, so that closing never waits on a send in progress.
+     */
+    private void send() {
+      try {
+        Notification notification;
+        while (!this.closed.get() && (notification = this.buffer.poll()) != null) {
+          startSend();
+          try {
+            this.sink.send(notification.name, notification.json);
+          } finally {
+            finishSend();
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Change stream subscriber disconnected", e);
+        close();
+      } finally {
+        if (this.closed.get() && this.sinkClosed.compareAndSet(false, true)) {
+          this.sink.close();
+        }
+        this.sending.set(false);
+      }
+      if (this.closed.get() ? !this.sinkClosed.get() : !this.buffer.isEmpty()) {
+        scheduleSend();
+      }
+    }
+
+    private synchronized void startSend() {
+      this.sendStartedAt = System.nanoTime();
+      ChangeNotifier.this.sendingSubscribers.add(this);
+    }
+
+    private void finishSend() {
+      final boolean wasAbandoned;
+      synchronized (this) {
+        ChangeNotifier.this.sendingSubscribers.remove(this);
+        wasAbandoned = this.abandoned;
+      }
+      if (wasAbandoned) {
+        removeSender();
+      }
+    }
+
+    private boolean close() {
+      if (!this.closed.compareAndSet(false, true)) {
+        return false;
+      }
+      ChangeNotifier.this.subscribers.remove(this);
+      this.buffer.clear();
+      scheduleSend();
+      return true;
+    }
+
+    private void drop() {
+      final int behind = this.buffer.size();
+      if (close()) {
+        log.warn("Disconnecting a change stream subscriber which fell {} changes behind", behind);
+        ChangeNotifier.this.droppedSubscribers.increment();
+      }
+    }
+
+    /**
+     * Gives up on the send in progress if it has taken longer than the send timeout, starting
+     * another sender thread until it returns.
+     */
+    private void abandonIfStuck(final long now, final long sendTimeout) {
+      synchronized (this) {
+        if (this.abandoned || !ChangeNotifier.this.sendingSubscribers.contains(this)
+            || now - this.sendStartedAt <= sendTimeout) {
+          return;
+        }
+        this.abandoned = true;
+        addSender();
+      }
+      if (close()) {
+        log.warn("Disconnecting a change stream subscriber stuck sending for more than {}",
+            ChangeNotifier.this.properties.getChanges().getSendTimeout());
+        ChangeNotifier.this.droppedSubscribers.increment();
+      }
+    }
+
+  }
+
+}
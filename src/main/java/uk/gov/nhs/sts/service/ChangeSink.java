@@ -0,0 +1,19 @@
+package uk.gov.nhs.sts.service;
+
+import java.io.IOException;
+
+/**
+ * Where the changes for a subscriber to the change stream are sent, as the name of the event,
+ * {@code person} or {@code skill}, and the change as JSON. Only called from one thread at a time.
+ */
+public interface ChangeSink {
+
+  void send(String name, String json) throws IOException;
+
+  /**
+   * Ends the subscription from the service's side, because it expired or the subscriber stopped
+   * keeping up.
+   */
+  void close();
+
+}
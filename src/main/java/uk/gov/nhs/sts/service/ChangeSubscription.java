@@ -0,0 +1,10 @@
+package uk.gov.nhs.sts.service;
+
+/**
+ * A subscription to the change stream, to be cancelled when the subscriber goes away.
+ */
+public interface ChangeSubscription {
+
+  void cancel();
+
+}
@@ -0,0 +1,77 @@
+package uk.gov.nhs.sts.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+
+/**
+ * Tracks the transactions on this instance which change people or skills, from their first change
+ * event until they complete. The in-memory views kept up to date from the change events use it to
+ * tell whether a snapshot they read from the database may have raced a change: a snapshot read
+ * while such a transaction was in progress may or may not include its change, whose event may or
+ * may not have been applied yet, so it can't be told apart from drift.
+ */
+@Component
+public class ChangeTransactionTracker {
+
+  private long transactionsStarted;
+
+  private int transactionsInProgress;
+
+  @EventListener
+  public void onPersonChanging(final PersonChangedEvent event) {
+    track();
+  }
+
+  @EventListener
+  public void onSkillChanging(final SkillChangedEvent event) {
+    track();
+  }
+
+  /**
+   * Starts reading a snapshot, returning a token to check it with once read, or -1 if a change is
+   * in progress and the snapshot would not be consistent.
+   */
+  public synchronized long beginSnapshot() {
+    return this.transactionsInProgress > 0 ? -1 : this.transactionsStarted;
+  }
+
+  /**
+   * Whether no change was in progress, or began, while the snapshot was read. Must be called while
+   * holding the lock the view's change listeners take, and the snapshot swapped in under it, so
+   * that a change beginning afterwards is applied to the new snapshot rather than the old one.
+   */
+  public synchronized boolean isSnapshotConsistent(final long token) {
+    return token >= 0 && this.transactionsInProgress == 0 && this.transactionsStarted == token;
+  }
+
+  private void track() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    synchronized (this) {
+      this.transactionsStarted++;
+      this.transactionsInProgress++;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TrackedTransaction());
+  }
+
+  /**
+   * Stops tracking the transaction once it has completed. Ordered last, so that a committed
+   * transaction's changes have been applied by the views' listeners by then.
+   */
+  private final class TrackedTransaction extends TransactionSynchronizationAdapter {
+
+    @Override
+    public void afterCompletion(final int status) {
+      synchronized (ChangeTransactionTracker.this) {
+        ChangeTransactionTracker.this.transactionsInProgress--;
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,15 @@
+package uk.gov.nhs.sts.service;
+
+/**
+ * Thrown when changes after a cursor are asked for but some of them have already been purged from
+ * the change log, so the consumer has to download everything again.
+ */
+public class ChangesPurgedException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public ChangesPurgedException(final String message) {
+    super(message);
+  }
+
+}
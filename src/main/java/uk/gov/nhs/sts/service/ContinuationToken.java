@@ -0,0 +1,51 @@
+package uk.gov.nhs.sts.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.Value;
+
+/**
+ * Where a page of a listing ended: the order of the listing, and the id and sort key of the last
+ * row on the page. The next page starts after that row, found through the index on the sort key,
+ * so that it costs the same however deep it is. The token is handed to clients URL-safe base64
+ * encoded, as something to send back rather than to read.
+ */
+@Value
+class ContinuationToken {
+
+  private static final char SEPARATOR = ':';
+
+  private String sort;
+
+  private long id;
+
+  private String key;
+
+  String encode() {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(
+        (this.sort + SEPARATOR + this.id + SEPARATOR + this.key).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a token, checking it was issued for a listing in the given order.
+   */
+  static ContinuationToken decode(final String token, final Enum<?> sort) {
+    final String[] parts;
+    try {
+      parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+          .split(String.valueOf(SEPARATOR), 3);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidContinuationTokenException("Continuation token is not valid", e);
+    }
+    if (parts.length != 3 || !parts[0].equals(sort.name())) {
+      throw new InvalidContinuationTokenException(
+          "Continuation token is not valid for a listing ordered by " + sort);
+    }
+    try {
+      return new ContinuationToken(parts[0], Long.parseLong(parts[1]), parts[2]);
+    } catch (NumberFormatException e) {
+      throw new InvalidContinuationTokenException("Continuation token is not valid", e);
+    }
+  }
+
+}
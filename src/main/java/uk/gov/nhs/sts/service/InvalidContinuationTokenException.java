@@ -0,0 +1,19 @@
+package uk.gov.nhs.sts.service;
+
+/**
+ * Thrown when a continuation token can't be decoded, or was issued for a listing in a different
+ * order.
+ */
+public class InvalidContinuationTokenException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public InvalidContinuationTokenException(final String message) {
+    super(message);
+  }
+
+  public InvalidContinuationTokenException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+
+}
@@ -0,0 +1,29 @@
+package uk.gov.nhs.sts.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a chunk of a bulk import fails. The chunks before it have already been committed, so
+ * this carries how far the import got.
+ */
+@Getter
+public class PeopleImportException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int created;
+
+  private final int updated;
+
+  private final int firstUnprocessed;
+
+  public PeopleImportException(final int created, final int updated, final int firstUnprocessed,
+      final Throwable cause) {
+    super("Import failed at person " + firstUnprocessed + " after creating " + created
+        + " and updating " + updated + " people", cause);
+    this.created = created;
+    this.updated = updated;
+    this.firstUnprocessed = firstUnprocessed;
+  }
+
+}
@@ -1,21 +1,66 @@
 package uk.gov.nhs.sts.service;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import javax.transaction.Transactional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.config.CacheConfig;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
 import uk.gov.nhs.sts.model.data.Person;
 import uk.gov.nhs.sts.model.data.PersonSkill;
 import uk.gov.nhs.sts.model.data.Skill;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.ChangesDTO;
+import uk.gov.nhs.sts.model.dto.PersonBatchResultDTO;
+import uk.gov.nhs.sts.model.dto.PersonCursorPageDTO;
 import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonPageDTO;
 import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.PersonSort;
+import uk.gov.nhs.sts.model.dto.SkillCountsDTO;
+import uk.gov.nhs.sts.model.dto.SkillCursorPageDTO;
 import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillMatch;
+import uk.gov.nhs.sts.model.dto.SkillQueryDTO;
+import uk.gov.nhs.sts.model.dto.SkillSort;
+import uk.gov.nhs.sts.model.dto.TeamSearchResultDTO;
+import uk.gov.nhs.sts.repository.EntityVersion;
+import uk.gov.nhs.sts.repository.PersonKey;
 import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.PersonVersion;
 import uk.gov.nhs.sts.repository.SkillRepository;
 
 @Service
@@ -23,22 +68,49 @@ import uk.gov.nhs.sts.repository.SkillRepository;
 @Slf4j
 public class PeopleManagementService {
 
+  /**
+   * How long a transaction changing people or skills may take. Changes are only returned from the
+   * change log once they are older than the settle time, which must be longer than this so that
+   * every change logged before them has committed by then.
+   */
+  public static final int WRITE_TIMEOUT_SECONDS = 3;
+
+  private static final String ALL_SKILLS = "all";
+
   private final PersonRepository personRepository;
   private final SkillRepository skillRepository;
+  private final EntityManager entityManager;
+  private final ServiceProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final SkillBitmapIndex skillBitmapIndex;
+  private final SkillMatrix skillMatrix;
+  private final CacheManager cacheManager;
+  private final ObjectMapper objectMapper;
+  private final ChangeLog changeLog;
+  private final ChangeNotifier changeNotifier;
+  private final SkillCatalogueVersion skillCatalogueVersion;
+  private final CacheInvalidator cacheInvalidator;
 
+  @Transactional(readOnly = true)
   public PersonDTO fetchPersonByStaffNumber(final String staffNumber) {
+    final Cache peopleCache = this.cacheManager.getCache(CacheConfig.PEOPLE_CACHE);
+    final PersonDTO cached = peopleCache.get(staffNumber, PersonDTO.class);
+    if (cached != null) {
+      return cached;
+    }
+
+    final long token = this.cacheInvalidator.beginLoad(staffNumber);
     final Person person = getPerson(staffNumber);
     if (person != null && person.getPersonSkills() != null) {
-      final List<PersonSkillDTO> personSkills = person.getPersonSkills().stream()
-          .map(personSkill -> PersonSkillDTO.builder().skillName(personSkill.getSkill().getName())
-              .skillLevel(personSkill.getLevel()).build())
-          .collect(Collectors.toList());
-
-      return PersonDTO.builder().name(person.getName()).personSkills(personSkills).build();
+      final PersonDTO personDto = toPersonDto(person);
+      this.cacheInvalidator.putUnlessEvicted(peopleCache, staffNumber, personDto, token);
+      return personDto;
     }
     return null;
   }
 
+  @Transactional(readOnly = true)
   public SkillDTO fetchSkillByName(final String skillName) {
     final Skill skill = getSkill(skillName);
     if (skill != null) {
@@ -47,29 +119,363 @@ public class PeopleManagementService {
     return null;
   }
 
+  /**
+   * Gets the skill along with the version it was read at, from the cache if it was cached at the
+   * given version, or else freshly read and cached. Returns null if the skill doesn't exist.
+   */
+  @Transactional(readOnly = true)
+  public Versioned<SkillDTO> fetchSkillByName(final String skillName, final String version) {
+    final Cache skillCache = this.cacheManager.getCache(CacheConfig.SKILL_CACHE);
+    final Versioned<SkillDTO> cached = getVersioned(skillCache, skillName);
+    if (cached != null && cached.getVersion().equals(version)) {
+      return cached;
+    }
+
+    // the version is read first, so that a change committing in between makes what is cached look
+    // older than it is, and reloaded, rather than newer
+    final String currentVersion = fetchSkillVersion(skillName);
+    final SkillDTO skill = fetchSkillByName(skillName);
+    if (currentVersion == null || skill == null) {
+      return null;
+    }
+    final Versioned<SkillDTO> versioned = new Versioned<>(currentVersion, skill);
+    skillCache.put(skillName, versioned);
+    return versioned;
+  }
+
+  /**
+   * Gets the person as ready-to-write JSON, from the cache if the cached JSON was serialised from
+   * the given version of the person, or else freshly serialised and cached. Returns null if the
+   * person doesn't exist.
+   */
+  @Transactional(readOnly = true)
+  public PersonJson fetchPersonJson(final String staffNumber, final String version) {
+    final Cache personJsonCache = this.cacheManager.getCache(CacheConfig.PERSON_JSON_CACHE);
+    final PersonJson cached = personJsonCache.get(staffNumber, PersonJson.class);
+    if (cached != null && cached.getVersion().equals(version)) {
+      return cached;
+    }
+
+    final PersonJson personJson = toPersonJson(staffNumber);
+    if (personJson != null) {
+      personJsonCache.put(staffNumber, personJson);
+    }
+    return personJson;
+  }
+
+  /**
+   * Rebuilds the cached JSON of a person once a change to them commits, so that the next read of a
+   * frequently read person is still served from the cache. People who aren't cached are left for
+   * the next read to serialise. The JSON is rebuilt in a new transaction, as the one which made the
+   * change has already finished.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onPersonChanged(final PersonChangedEvent event) {
+    final Cache personJsonCache = this.cacheManager.getCache(CacheConfig.PERSON_JSON_CACHE);
+    final boolean cached = isCached(personJsonCache, event.getPrevious())
+        || isCached(personJsonCache, event.getCurrent());
+    if (event.getPrevious() != null) {
+      personJsonCache.evict(event.getPrevious().getStaffNumber());
+    }
+    if (event.getCurrent() == null || !cached) {
+      return;
+    }
+
+    final String staffNumber = event.getCurrent().getStaffNumber();
+    final TransactionTemplate newTransaction =
+        new TransactionTemplate(this.transactionTemplate.getTransactionManager());
+    newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    final PersonJson personJson = newTransaction.execute(status -> toPersonJson(staffNumber));
+    if (personJson != null) {
+      personJsonCache.put(staffNumber, personJson);
+    }
+  }
+
+  private static boolean isCached(final Cache personJsonCache, final PersonDTO personDto) {
+    return personDto != null
+        && personJsonCache.get(personDto.getStaffNumber(), PersonJson.class) != null;
+  }
+
+  @Transactional(readOnly = true)
   public List<PersonDTO> fetchPeople() {
-    final List<Person> people = this.personRepository.findAll();
+    final List<Person> people = this.personRepository.findAllWithSkills();
     final List<PersonDTO> personDtos = new ArrayList<>();
 
     for (Person person : people) {
-      final List<PersonSkillDTO> personSkillDtos = person.getPersonSkills().stream()
-          .map(personSkill -> PersonSkillDTO.builder().skillName(personSkill.getSkill().getName())
-              .skillLevel(personSkill.getLevel()).build())
-          .collect(Collectors.toList());
-
-      final PersonDTO personDto = PersonDTO.builder().staffNumber(person.getStaffNumber())
-          .name(person.getName()).personSkills(personSkillDtos).build();
-      personDtos.add(personDto);
+      personDtos.add(toPersonDto(person));
     }
     return personDtos;
   }
 
+  /**
+   * Gets a page of up to {@code limit} people in the given order, starting after the page which
+   * issued the continuation token, or from the start when there is no token. The keys of the page
+   * are found first, seeking past the previous page through an index, and only those people are
+   * then loaded with their skills, so a deep page costs the same as the first.
+   */
+  @Transactional(readOnly = true)
+  public PersonCursorPageDTO fetchPeoplePage(final PersonSort sort, final String after,
+      final int limit) {
+    final ContinuationToken token = after == null ? null : ContinuationToken.decode(after, sort);
+    final String afterKey = token == null ? "" : token.getKey();
+    final long afterId = token == null ? 0 : token.getId();
+    final PageRequest pageRequest = PageRequest.of(0, limit + 1);
+    final List<PersonKey> keys;
+    switch (sort) {
+      case STAFF_NUMBER:
+        keys = this.personRepository.findKeysAfterStaffNumber(afterKey, pageRequest);
+        break;
+      case NAME:
+        keys = this.personRepository.findKeysAfterName(afterKey, afterId, pageRequest);
+        break;
+      default:
+        keys = this.personRepository.findKeysAfterId(afterId, pageRequest);
+    }
+
+    final List<PersonKey> page = keys.subList(0, Math.min(limit, keys.size()));
+    final Map<Long, Person> people = page.isEmpty() ? Collections.emptyMap()
+        : this.personRepository
+            .findWithSkillsByIdIn(
+                page.stream().map(PersonKey::getId).collect(Collectors.toList()))
+            .stream().collect(Collectors.toMap(Person::getId, Function.identity()));
+    final List<PersonDTO> personDtos = page.stream().map(key -> people.get(key.getId()))
+        .filter(Objects::nonNull).map(PeopleManagementService::toPersonDto)
+        .collect(Collectors.toList());
+
+    String next = null;
+    if (keys.size() > limit) {
+      final PersonKey last = page.get(page.size() - 1);
+      final String lastKey = sort == PersonSort.NAME ? last.getName()
+          : sort == PersonSort.STAFF_NUMBER ? last.getStaffNumber() : "";
+      next = new ContinuationToken(sort.name(), last.getId(), lastKey).encode();
+    }
+    return PersonCursorPageDTO.builder().people(personDtos).next(next).build();
+  }
+
+  /**
+   * Streams all the people to the consumer one at a time, detaching each person once mapped so
+   * that memory stays flat regardless of the number of people.
+   */
+  @Transactional(readOnly = true)
+  public void streamPeople(final Consumer<PersonDTO> consumer) {
+    try (Stream<Person> people =
+        this.personRepository.streamAll(this.properties.getPeople().getStreamFetchSize())) {
+      people.forEach(person -> {
+        consumer.accept(toPersonDto(person));
+        this.entityManager.detach(person);
+      });
+    }
+  }
+
+  /**
+   * Gets the people with the given staff numbers, with their skills, in one query. Staff numbers
+   * of people who don't exist are skipped, and the people come back in the order their staff
+   * numbers were given.
+   */
+  @Transactional(readOnly = true)
+  public List<PersonDTO> fetchPeopleByStaffNumbers(final Collection<String> staffNumbers) {
+    final Set<String> distinctStaffNumbers = new LinkedHashSet<>(staffNumbers);
+    if (distinctStaffNumbers.isEmpty()) {
+      return new ArrayList<>();
+    }
+    final Map<String, Person> people =
+        this.personRepository.findByStaffNumberIn(distinctStaffNumbers).stream()
+            .collect(Collectors.toMap(Person::getStaffNumber, Function.identity()));
+    return distinctStaffNumbers.stream().map(people::get).filter(Objects::nonNull)
+        .map(PeopleManagementService::toPersonDto).collect(Collectors.toList());
+  }
+
+  /**
+   * Finds a page of the people holding all, or any, of the named skills at the minimum level or
+   * above. The matching ids are paged in the database first and only that page of people is then
+   * loaded with their skills.
+   */
+  @Transactional(readOnly = true)
+  public PersonPageDTO findPeopleBySkills(final Set<String> skillNames, final SkillLevel minLevel,
+      final SkillMatch match, final int page, final int size) {
+    final PageRequest pageRequest = PageRequest.of(page, size);
+    final Set<SkillLevel> levels = minLevel.andAbove();
+    final Page<Long> ids = match == SkillMatch.ALL
+        ? this.personRepository.findIdsWithAllSkills(skillNames, levels, skillNames.size(),
+            pageRequest)
+        : this.personRepository.findIdsWithAnySkill(skillNames, levels, pageRequest);
+
+    final List<PersonDTO> personDtos = ids.isEmpty() ? new ArrayList<>()
+        : this.personRepository.findWithSkillsByIdIn(ids.getContent()).stream()
+            .map(PeopleManagementService::toPersonDto).collect(Collectors.toList());
+
+    return PersonPageDTO.builder().people(personDtos).page(ids.getNumber()).size(ids.getSize())
+        .totalElements(ids.getTotalElements()).totalPages(ids.getTotalPages()).build();
+  }
+
+  /**
+   * Finds the people matching a boolean skill query using the in-memory skill index, without
+   * touching the database.
+   */
+  public TeamSearchResultDTO searchTeam(final SkillQueryDTO query) {
+    return this.skillBitmapIndex.search(query);
+  }
+
+  @Transactional(readOnly = true)
   public List<SkillDTO> fetchSkills() {
     final List<Skill> skills = this.skillRepository.findAll();
     return skills.stream().map(skill -> SkillDTO.builder().name(skill.getName()).build())
         .collect(Collectors.toList());
   }
 
+  /**
+   * Gets all the skills along with the catalogue version they were read at, from the cache if they
+   * were cached at the given version, or else freshly read and cached.
+   */
+  @Transactional(readOnly = true)
+  public Versioned<List<SkillDTO>> fetchSkills(final String version) {
+    final Cache skillsCache = this.cacheManager.getCache(CacheConfig.SKILLS_CACHE);
+    final Versioned<List<SkillDTO>> cached = getVersioned(skillsCache, ALL_SKILLS);
+    if (cached != null && cached.getVersion().equals(version)) {
+      return cached;
+    }
+
+    // read in the same order as a single skill, see fetchSkillByName
+    final String currentVersion = fetchSkillsVersion();
+    final Versioned<List<SkillDTO>> versioned = new Versioned<>(currentVersion, fetchSkills());
+    skillsCache.put(ALL_SKILLS, versioned);
+    return versioned;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Versioned<T> getVersioned(final Cache cache, final Object key) {
+    return cache.get(key, Versioned.class);
+  }
+
+  /**
+   * Gets a page of up to {@code limit} skills in the given order, starting after the page which
+   * issued the continuation token, or from the start when there is no token.
+   */
+  @Transactional(readOnly = true)
+  public SkillCursorPageDTO fetchSkillsPage(final SkillSort sort, final String after,
+      final int limit) {
+    final ContinuationToken token = after == null ? null : ContinuationToken.decode(after, sort);
+    final PageRequest pageRequest = PageRequest.of(0, limit + 1);
+    final List<Skill> skills = sort == SkillSort.NAME
+        ? this.skillRepository.findAfterName(token == null ? "" : token.getKey(), pageRequest)
+        : this.skillRepository.findAfterId(token == null ? 0 : token.getId(), pageRequest);
+
+    final List<Skill> page = skills.subList(0, Math.min(limit, skills.size()));
+    String next = null;
+    if (skills.size() > limit) {
+      final Skill last = page.get(page.size() - 1);
+      next = new ContinuationToken(sort.name(), last.getId(),
+          sort == SkillSort.NAME ? last.getName() : "").encode();
+    }
+    return SkillCursorPageDTO.builder()
+        .skills(page.stream().map(skill -> SkillDTO.builder().name(skill.getName()).build())
+            .collect(Collectors.toList()))
+        .next(next).build();
+  }
+
+  /**
+   * Gets the number of people holding each skill at each level from the counters kept by the skill
+   * matrix, without touching the database.
+   */
+  public List<SkillCountsDTO> fetchSkillMatrix() {
+    return this.skillMatrix.getCounts();
+  }
+
+  /**
+   * Gets up to {@code limit} of the changes to people and skills made after the cursor, oldest
+   * first, from the change log.
+   */
+  public ChangesDTO fetchChanges(final long since, final int limit) {
+    return this.changeLog.getChanges(since, limit);
+  }
+
+  /**
+   * Subscribes to the changes to people and skills as they commit, filtered by skill name and
+   * staff number, sending them to the sink.
+   */
+  public ChangeSubscription subscribeToChanges(final Set<String> skillNames,
+      final Set<String> staffNumbers, final ChangeSink sink) {
+    return this.changeNotifier.subscribe(skillNames, staffNumbers, sink);
+  }
+
+  /**
+   * Gets a tag which changes whenever the person or their skills change, including the renaming or
+   * deletion of a skill they hold, without loading the person. Returns null if the person doesn't exist.
+   */
+  @Transactional(readOnly = true)
+  public String fetchPersonVersion(final String staffNumber) {
+    final PersonVersion version = this.personRepository.findVersionByStaffNumber(staffNumber);
+    return version == null ? null
+        : version.getId() + "." + version.getVersion() + "." + version.getSkillCount() + "."
+            + version.getSkillVersionSum();
+  }
+
+  /**
+   * Gets a tag which changes whenever the skill changes, without loading the skill. Returns null if
+   * the skill doesn't exist.
+   */
+  @Transactional(readOnly = true)
+  public String fetchSkillVersion(final String skillName) {
+    return toVersionTag(this.skillRepository.findVersionByName(skillName));
+  }
+
+  /**
+   * Gets a tag which changes whenever any skill is created, updated or deleted, without loading the
+   * skills.
+   */
+  @Transactional(readOnly = true)
+  public String fetchSkillsVersion() {
+    return String.valueOf(this.skillCatalogueVersion.getVersion());
+  }
+
+  private static String toVersionTag(final EntityVersion version) {
+    return version == null ? null : version.getId() + "." + version.getVersion();
+  }
+
+  /**
+   * Checks whether the person exists before a write. This always reads the primary rather than the
+   * replica, which may not have caught up with a write made just before, possibly by another
+   * instance.
+   */
+  @Transactional
+  public boolean personExists(final String staffNumber) {
+    return this.personRepository.existsByStaffNumber(staffNumber);
+  }
+
+  /**
+   * Checks whether the skill exists before a write, reading the primary like
+   * {@link #personExists}.
+   */
+  @Transactional
+  public boolean skillExists(final String skillName) {
+    return this.skillRepository.existsByName(skillName);
+  }
+
+  private static PersonDTO toPersonDto(final Person person) {
+    final List<PersonSkillDTO> personSkillDtos = person.getPersonSkills() == null ? null
+        : person.getPersonSkills().stream()
+            .map(personSkill -> PersonSkillDTO.builder()
+                .skillName(personSkill.getSkill().getName()).skillLevel(personSkill.getLevel())
+                .build())
+            .collect(Collectors.toList());
+
+    return PersonDTO.builder().staffNumber(person.getStaffNumber()).name(person.getName())
+        .personSkills(personSkillDtos).build();
+  }
+
+  private PersonJson toPersonJson(final String staffNumber) {
+    final String version = fetchPersonVersion(staffNumber);
+    final Person person = getPerson(staffNumber);
+    if (version == null || person == null) {
+      return null;
+    }
+    try {
+      return new PersonJson(version, this.objectMapper.writeValueAsBytes(toPersonDto(person)));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   private Person getPerson(final String staffNumber) {
     return this.personRepository.findByStaffNumber(staffNumber);
   }
@@ -78,7 +484,7 @@ public class PeopleManagementService {
     return this.skillRepository.findByName(skillName);
   }
 
-  @Transactional
+  @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
   public void createPerson(final PersonDTO personDto) {
     final Person person =
         Person.builder().name(personDto.getName()).staffNumber(personDto.getStaffNumber()).build();
@@ -86,76 +492,213 @@ public class PeopleManagementService {
 
     managePersonWithSkills(personDto, person);
     this.personRepository.saveAndFlush(person);
+    publishPersonChanged(ChangeType.CREATED, person, null);
   }
 
-  @Transactional
+  @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
   public void updatePerson(final PersonDTO personDto, final String staffNumberOfExistingPerson) {
     final Person person = this.getPerson(staffNumberOfExistingPerson);
+    final PersonDTO previous = toPersonDto(person);
     person.setStaffNumber(personDto.getStaffNumber());
     person.setName(personDto.getName());
 
-    managePersonWithSkills(personDto, person);
+    if (managePersonWithSkills(personDto, person)) {
+      forceVersionIncrement(person);
+    }
     this.personRepository.saveAndFlush(person);
+    publishPersonChanged(ChangeType.UPDATED, person, previous);
+  }
+
+  /**
+   * Creates the people who don't exist and updates the ones who do, matching them on staff number.
+   * The people are written in chunks, each chunk in its own transaction, so that Hibernate can
+   * batch the inserts and updates and the persistence context stays small. Each chunk has to be
+   * written within the same timeout as any other change. If a chunk fails, the chunks before it
+   * stay committed and the {@link PeopleImportException} says where to resume from.
+   */
+  public PersonBatchResultDTO importPeople(final List<PersonDTO> personDtos) {
+    final Map<String, PersonDTO> personDtosByStaffNumber = new LinkedHashMap<>();
+    personDtos.forEach(
+        personDto -> personDtosByStaffNumber.put(personDto.getStaffNumber(), personDto));
+    final List<PersonDTO> uniquePersonDtos = new ArrayList<>(personDtosByStaffNumber.values());
+
+    final TransactionTemplate chunkTransaction =
+        new TransactionTemplate(this.transactionTemplate.getTransactionManager());
+    chunkTransaction.setTimeout(WRITE_TIMEOUT_SECONDS);
+    final int chunkSize = this.properties.getPeople().getImportChunkSize();
+    int created = 0;
+    for (int from = 0; from < uniquePersonDtos.size(); from += chunkSize) {
+      final List<PersonDTO> chunk =
+          uniquePersonDtos.subList(from, Math.min(from + chunkSize, uniquePersonDtos.size()));
+      try {
+        created += chunkTransaction.execute(status -> importChunk(chunk));
+      } catch (RuntimeException e) {
+        // every person before the first occurrence of this chunk's first person has been committed
+        final String staffNumber = chunk.get(0).getStaffNumber();
+        final int firstUnprocessed = IntStream.range(0, personDtos.size())
+            .filter(i -> personDtos.get(i).getStaffNumber().equals(staffNumber)).findFirst()
+            .getAsInt();
+        throw new PeopleImportException(created, from - created, firstUnprocessed, e);
+      }
+    }
+    log.info("Imported {} people, {} created and {} updated", uniquePersonDtos.size(), created,
+        uniquePersonDtos.size() - created);
+    return PersonBatchResultDTO.builder().created(created)
+        .updated(uniquePersonDtos.size() - created).build();
+  }
+
+  private int importChunk(final List<PersonDTO> personDtos) {
+    final Map<String, Person> existingPeople = this.personRepository
+        .findByStaffNumberIn(personDtos.stream().map(PersonDTO::getStaffNumber)
+            .collect(Collectors.toList()))
+        .stream().collect(Collectors.toMap(Person::getStaffNumber, Function.identity()));
+    final Map<String, Skill> skills = resolveSkills(personDtos);
+
+    final List<Person> newPeople = new ArrayList<>();
+    final Map<Person, PersonDTO> updatedPeople = new LinkedHashMap<>();
+    for (PersonDTO personDto : personDtos) {
+      Person person = existingPeople.get(personDto.getStaffNumber());
+      if (person == null) {
+        person = Person.builder().staffNumber(personDto.getStaffNumber()).build();
+        newPeople.add(person);
+      } else {
+        updatedPeople.put(person, toPersonDto(person));
+      }
+      person.setName(personDto.getName());
+      if (managePersonWithSkills(personDto, person, skills) && updatedPeople.containsKey(person)) {
+        forceVersionIncrement(person);
+      }
+    }
+    this.personRepository.saveAll(newPeople);
+
+    newPeople.forEach(person -> publishPersonChanged(ChangeType.CREATED, person, null));
+    updatedPeople
+        .forEach((person, previous) -> publishPersonChanged(ChangeType.UPDATED, person, previous));
+    return newPeople.size();
+  }
+
+  private boolean managePersonWithSkills(final PersonDTO personDto, final Person person) {
+    if (personDto.getPersonSkills() != null && !personDto.getPersonSkills().isEmpty()) {
+      return managePersonWithSkills(personDto, person,
+          resolveSkills(Collections.singletonList(personDto)));
+    }
+    return false;
   }
 
-  private void managePersonWithSkills(final PersonDTO personDto, final Person person) {
+  /**
+   * Skills live in their own table, so changing them doesn't make the person dirty. The person's
+   * version is incremented explicitly so that it reflects any change to their skills too.
+   */
+  private void forceVersionIncrement(final Person person) {
+    this.entityManager.lock(person, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+  }
+
+  /**
+   * Brings the person's skills in line with the request, touching only what has changed: skills no
+   * longer held are removed, levels which differ are updated and new skills are added. Unchanged
+   * skills are left alone so that they cause no writes. Returns whether any skill changed.
+   */
+  private boolean managePersonWithSkills(final PersonDTO personDto, final Person person,
+      final Map<String, Skill> skills) {
+    boolean changed = false;
     if (personDto.getPersonSkills() != null && !personDto.getPersonSkills().isEmpty()) {
-      final Set<PersonSkill> personSkills = new HashSet<>();
+      final Map<String, SkillLevel> requestedLevels = new LinkedHashMap<>();
       for (PersonSkillDTO personSkillDto : personDto.getPersonSkills()) {
-        final PersonSkill personSkill;
-        final Skill skill = this.skillRepository.findByName(personSkillDto.getSkillName());
-        if (skill != null) {
-          log.info("Skill with name {} already exists, so creating the association with person",
-              skill.getName());
-          personSkill = PersonSkill.builder().person(person).skill(skill)
-              .level(personSkillDto.getSkillLevel()).build();
-        } else {
-          log.info("Skill with name {} doesn't exist, so creating it first",
-              personSkillDto.getSkillName());
-          final Skill persistedSkill = Skill.builder().name(personSkillDto.getSkillName()).build();
-          this.skillRepository.saveAndFlush(persistedSkill);
-          log.info("Creating the association with person");
-          personSkill = PersonSkill.builder().person(person).skill(persistedSkill)
-              .level(personSkillDto.getSkillLevel()).build();
-        }
-        if (personSkill != null) {
-          personSkills.add(personSkill);
-        }
+        requestedLevels.put(personSkillDto.getSkillName(), personSkillDto.getSkillLevel());
       }
-      if (person.getPersonSkills() != null) {
-        person.getPersonSkills().clear();
-        person.getPersonSkills().addAll(personSkills);
-      } else {
-        person.setPersonSkills(personSkills);
+      if (person.getPersonSkills() == null) {
+        person.setPersonSkills(new HashSet<>());
       }
 
+      changed = person.getPersonSkills().removeIf(
+          personSkill -> !requestedLevels.containsKey(personSkill.getSkill().getName()));
+      for (PersonSkill personSkill : person.getPersonSkills()) {
+        final SkillLevel level = requestedLevels.remove(personSkill.getSkill().getName());
+        if (personSkill.getLevel() != level) {
+          log.info("Changing the level of skill {} to {}", personSkill.getSkill().getName(), level);
+          personSkill.setLevel(level);
+          changed = true;
+        }
+      }
+      changed |= !requestedLevels.isEmpty();
+      requestedLevels.forEach((skillName, level) -> person.getPersonSkills().add(PersonSkill
+          .builder().person(person).skill(skills.get(skillName)).level(level).build()));
     }
+    return changed;
   }
 
-  @Transactional
+  /**
+   * Looks up all the skills of the people in one query, creating any which don't exist yet in a
+   * single batch.
+   */
+  private Map<String, Skill> resolveSkills(final List<PersonDTO> personDtos) {
+    final Set<String> names = personDtos.stream()
+        .filter(personDto -> personDto.getPersonSkills() != null)
+        .flatMap(personDto -> personDto.getPersonSkills().stream())
+        .map(PersonSkillDTO::getSkillName).collect(Collectors.toCollection(LinkedHashSet::new));
+    if (names.isEmpty()) {
+      return new HashMap<>();
+    }
+
+    final Map<String, Skill> skills = this.skillRepository.findByNameIn(names).stream()
+        .collect(Collectors.toMap(Skill::getName, Function.identity()));
+
+    final List<Skill> missingSkills = names.stream().filter(name -> !skills.containsKey(name))
+        .map(name -> Skill.builder().name(name).build()).collect(Collectors.toList());
+    if (!missingSkills.isEmpty()) {
+      log.info("Skills with names {} don't exist, so creating them first",
+          missingSkills.stream().map(Skill::getName).collect(Collectors.toList()));
+      this.skillRepository.saveAll(missingSkills).forEach(skill -> {
+        skills.put(skill.getName(), skill);
+        publishSkillChanged(ChangeType.CREATED, skill, null);
+      });
+    }
+    return skills;
+  }
+
+  @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
   public void createSkill(final SkillDTO skillDto) {
     final Skill skill = Skill.builder().name(skillDto.getName()).build();
     this.skillRepository.save(skill);
+    publishSkillChanged(ChangeType.CREATED, skill, null);
   }
 
-  @Transactional
+  @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
   public void updateSkill(final SkillDTO skillDto, final String nameOfExistingSkill) {
     final Skill skill = this.getSkill(nameOfExistingSkill);
     skill.setName(skillDto.getName());
     this.skillRepository.save(skill);
+    publishSkillChanged(ChangeType.UPDATED, skill, nameOfExistingSkill);
   }
 
 
-  @Transactional
-  public void deletePerson(final PersonDTO personDto) {
-    final Person person = getPerson(personDto.getStaffNumber());
+  @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
+  public void deletePerson(final String staffNumber) {
+    final Person person = getPerson(staffNumber);
+    final PersonDTO previous = toPersonDto(person);
     this.personRepository.delete(person);
+    publishPersonChanged(ChangeType.DELETED, person, previous);
   }
 
-  @Transactional
-  public void deleteSkill(final SkillDTO skillDto) {
-    final Skill skill = getSkill(skillDto.getName());
+  @Transactional(timeout = WRITE_TIMEOUT_SECONDS)
+  public void deleteSkill(final String skillName) {
+    final Skill skill = getSkill(skillName);
     this.skillRepository.delete(skill);
+    publishSkillChanged(ChangeType.DELETED, skill, skillName);
+  }
+
+  private void publishPersonChanged(final ChangeType type, final Person person,
+      final PersonDTO previous) {
+    this.eventPublisher.publishEvent(PersonChangedEvent.builder().type(type)
+        .personId(person.getId()).previous(previous)
+        .current(type == ChangeType.DELETED ? null : toPersonDto(person)).build());
+  }
+
+  private void publishSkillChanged(final ChangeType type, final Skill skill,
+      final String previousName) {
+    this.eventPublisher.publishEvent(SkillChangedEvent.builder().type(type).skillId(skill.getId())
+        .previousName(previousName).currentName(type == ChangeType.DELETED ? null : skill.getName())
+        .build());
   }
 
 }
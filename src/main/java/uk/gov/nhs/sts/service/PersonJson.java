@@ -0,0 +1,15 @@
+package uk.gov.nhs.sts.service;
+
+import lombok.Value;
+
+/**
+ * A person serialised as UTF-8 JSON, ready to be written to a response, along with the version tag
+ * of the person it was serialised from.
+ */
+@Value
+public class PersonJson {
+
+  private String version;
+  private byte[] json;
+
+}
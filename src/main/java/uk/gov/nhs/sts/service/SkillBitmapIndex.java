@@ -0,0 +1,256 @@
+package uk.gov.nhs.sts.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillQueryDTO;
+import uk.gov.nhs.sts.model.dto.TeamSearchResultDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.PersonSkillLevel;
+import uk.gov.nhs.sts.repository.PersonStaffNumber;
+
+/**
+ * In-memory index of who holds which skill at which level, kept as one compressed bitmap of person
+ * ids per skill and level. It is built from the database when the application starts and then
+ * kept up to date from the change events published by {@link PeopleManagementService} once their
+ * transactions commit, so that boolean skill queries never touch the database. It is periodically
+ * rebuilt in case any change was missed, such as one made by another instance, in the same way as
+ * the {@link SkillMatrix} is reconciled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SkillBitmapIndex {
+
+  private static final int NUMBER_OF_LEVELS = SkillLevel.values().length;
+
+  private static final int REBUILD_ATTEMPTS = 5;
+
+  private static final long REBUILD_RETRY_PAUSE_MILLIS = 100;
+
+  private final PersonRepository personRepository;
+
+  private final ChangeTransactionTracker changeTransactionTracker;
+
+  private final ServiceProperties properties;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private RoaringBitmap people = new RoaringBitmap();
+  private Map<Integer, String> staffNumbers = new HashMap<>();
+  private Map<String, RoaringBitmap[]> bitmapsBySkill = new HashMap<>();
+  private boolean built;
+
+  /**
+   * Replaces the index with one built from the database, retrying while changes are being made.
+   * The first index is used even if changes never stop, as a somewhat stale index is better than
+   * none, and the next rebuild corrects it. Reads the primary, as a lagging replica would undo
+   * changes already applied from their events.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  @Scheduled(fixedDelayString = "${sts.skills.index-rebuild-interval:PT15M}",
+      initialDelayString = "${sts.skills.index-rebuild-interval:PT15M}")
+  @Transactional
+  public void rebuild() {
+    for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+      if (tryRebuild(attempt == REBUILD_ATTEMPTS)) {
+        return;
+      }
+      try {
+        Thread.sleep(REBUILD_RETRY_PAUSE_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    log.debug("Skipped rebuilding the skill index as people or skills kept changing");
+  }
+
+  private boolean tryRebuild(final boolean lastAttempt) {
+    final long snapshot = this.changeTransactionTracker.beginSnapshot();
+    if (snapshot < 0 && (this.built || !lastAttempt)) {
+      return false;
+    }
+    final long start = System.currentTimeMillis();
+    final RoaringBitmap newPeople = new RoaringBitmap();
+    final Map<Integer, String> newStaffNumbers = new HashMap<>();
+    final Map<String, RoaringBitmap[]> newBitmapsBySkill = new HashMap<>();
+
+    final int fetchSize = this.properties.getPeople().getStreamFetchSize();
+    try (Stream<PersonStaffNumber> rows = this.personRepository.streamStaffNumbers(fetchSize)) {
+      rows.forEach(row -> {
+        newPeople.add(toIndexId(row.getPersonId()));
+        newStaffNumbers.put(toIndexId(row.getPersonId()), row.getStaffNumber());
+      });
+    }
+    try (Stream<PersonSkillLevel> rows = this.personRepository.streamSkillLevels(fetchSize)) {
+      rows.filter(row -> row.getLevel() != null)
+          .forEach(row -> bitmaps(newBitmapsBySkill, row.getSkillName())[row.getLevel().ordinal()]
+              .add(toIndexId(row.getPersonId())));
+    }
+    newPeople.runOptimize();
+    newBitmapsBySkill.values().forEach(bitmaps -> {
+      for (RoaringBitmap bitmap : bitmaps) {
+        bitmap.runOptimize();
+      }
+    });
+
+    this.lock.writeLock().lock();
+    try {
+      if (!this.changeTransactionTracker.isSnapshotConsistent(snapshot)
+          && (this.built || !lastAttempt)) {
+        return false;
+      }
+      this.people = newPeople;
+      this.staffNumbers = newStaffNumbers;
+      this.bitmapsBySkill = newBitmapsBySkill;
+      this.built = true;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+    log.info("Built the skill index of {} people and {} skills in {} ms",
+        newPeople.getCardinality(), newBitmapsBySkill.size(), System.currentTimeMillis() - start);
+    return true;
+  }
+
+  /**
+   * Finds the staff numbers, in person id order, of the people matching the query.
+   */
+  public TeamSearchResultDTO search(final SkillQueryDTO query) {
+    this.lock.readLock().lock();
+    try {
+      final RoaringBitmap matches = evaluate(query);
+      final List<String> matchingStaffNumbers = new ArrayList<>(matches.getCardinality());
+      matches.forEach((IntConsumer) id -> matchingStaffNumbers.add(this.staffNumbers.get(id)));
+      return TeamSearchResultDTO.builder().count(matchingStaffNumbers.size())
+          .staffNumbers(matchingStaffNumbers).build();
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onPersonChanged(final PersonChangedEvent event) {
+    final int id = toIndexId(event.getPersonId());
+    this.lock.writeLock().lock();
+    try {
+      if (event.getType() != ChangeType.CREATED) {
+        removePerson(id, event.getPrevious());
+      }
+      if (event.getType() != ChangeType.DELETED) {
+        addPerson(id, event.getCurrent());
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public void onSkillChanged(final SkillChangedEvent event) {
+    if (event.getType() == ChangeType.CREATED) {
+      return;
+    }
+    this.lock.writeLock().lock();
+    try {
+      final RoaringBitmap[] bitmaps = this.bitmapsBySkill.remove(event.getPreviousName());
+      if (event.getType() == ChangeType.UPDATED && bitmaps != null) {
+        this.bitmapsBySkill.put(event.getCurrentName(), bitmaps);
+      }
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+
+  private RoaringBitmap evaluate(final SkillQueryDTO query) {
+    if (query.getSkill() != null) {
+      return evaluateSkill(query);
+    }
+    if (query.getAnd() != null) {
+      return FastAggregation.and(query.getAnd().stream().map(this::evaluate).iterator());
+    }
+    if (query.getOr() != null) {
+      return FastAggregation.or(query.getOr().stream().map(this::evaluate).iterator());
+    }
+    return RoaringBitmap.andNot(this.people, evaluate(query.getNot()));
+  }
+
+  private RoaringBitmap evaluateSkill(final SkillQueryDTO query) {
+    final RoaringBitmap[] bitmaps = this.bitmapsBySkill.get(query.getSkill());
+    final int minLevel = query.getMinLevel() == null ? 0 : query.getMinLevel().ordinal();
+    final int maxLevel =
+        query.getMaxLevel() == null ? NUMBER_OF_LEVELS - 1 : query.getMaxLevel().ordinal();
+    final RoaringBitmap matches = new RoaringBitmap();
+    if (bitmaps != null) {
+      for (int level = minLevel; level <= maxLevel; level++) {
+        matches.or(bitmaps[level]);
+      }
+    }
+    return matches;
+  }
+
+  private void addPerson(final int id, final PersonDTO personDto) {
+    this.people.add(id);
+    this.staffNumbers.put(id, personDto.getStaffNumber());
+    if (personDto.getPersonSkills() != null) {
+      for (PersonSkillDTO personSkillDto : personDto.getPersonSkills()) {
+        if (personSkillDto.getSkillLevel() == null) {
+          continue;
+        }
+        bitmaps(this.bitmapsBySkill, personSkillDto.getSkillName())[personSkillDto.getSkillLevel()
+            .ordinal()].add(id);
+      }
+    }
+  }
+
+  private void removePerson(final int id, final PersonDTO personDto) {
+    this.people.remove(id);
+    this.staffNumbers.remove(id);
+    if (personDto.getPersonSkills() != null) {
+      for (PersonSkillDTO personSkillDto : personDto.getPersonSkills()) {
+        final RoaringBitmap[] bitmaps = this.bitmapsBySkill.get(personSkillDto.getSkillName());
+        if (bitmaps != null && personSkillDto.getSkillLevel() != null) {
+          bitmaps[personSkillDto.getSkillLevel().ordinal()].remove(id);
+        }
+      }
+    }
+  }
+
+  private static RoaringBitmap[] bitmaps(final Map<String, RoaringBitmap[]> bitmapsBySkill,
+      final String skillName) {
+    return bitmapsBySkill.computeIfAbsent(skillName, name -> {
+      final RoaringBitmap[] bitmaps = new RoaringBitmap[NUMBER_OF_LEVELS];
+      for (int level = 0; level < NUMBER_OF_LEVELS; level++) {
+        bitmaps[level] = new RoaringBitmap();
+      }
+      return bitmaps;
+    });
+  }
+
+  private static int toIndexId(final Long personId) {
+    return Math.toIntExact(personId);
+  }
+
+}
@@ -0,0 +1,84 @@
+package uk.gov.nhs.sts.service;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.data.SkillCatalogue;
+import uk.gov.nhs.sts.repository.SkillCatalogueRepository;
+
+/**
+ * Versions the skill catalogue as a whole, bumping the version once in every transaction which
+ * creates, renames or deletes a skill, just before it commits. The version lives in the database,
+ * so it changes on every write to the catalogue whichever instance makes it, unlike anything
+ * derived from the skills themselves, whose ids are handed out in blocks per instance.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SkillCatalogueVersion {
+
+  private final SkillCatalogueRepository skillCatalogueRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Creates the version row the first time the service starts against a database. Another
+   * instance starting at the same time may create it first, which is fine.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public void createCatalogue() {
+    try {
+      this.transactionTemplate.execute(status -> {
+        if (!this.skillCatalogueRepository.existsById(SkillCatalogue.ID)) {
+          this.skillCatalogueRepository
+              .save(SkillCatalogue.builder().id(SkillCatalogue.ID).version(0L).build());
+        }
+        return null;
+      });
+    } catch (DataIntegrityViolationException e) {
+      log.debug("The skill catalogue version was created by another instance", e);
+    }
+  }
+
+  @EventListener
+  public void onSkillChanged(final SkillChangedEvent event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()
+        || TransactionSynchronizationManager.hasResource(this)) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(new CatalogueChange());
+  }
+
+  /**
+   * Gets the current version of the skill catalogue, in the caller's transaction.
+   */
+  public long getVersion() {
+    final Long version = this.skillCatalogueRepository.findVersion();
+    return version == null ? 0 : version;
+  }
+
+  /**
+   * Bumps the version as part of a transaction which changed skills, however many it changed.
+   */
+  private final class CatalogueChange extends TransactionSynchronizationAdapter {
+
+    @Override
+    public void beforeCommit(final boolean readOnly) {
+      SkillCatalogueVersion.this.skillCatalogueRepository.incrementVersion();
+    }
+
+    @Override
+    public void afterCompletion(final int status) {
+      TransactionSynchronizationManager.unbindResource(SkillCatalogueVersion.this);
+    }
+
+  }
+
+}
@@ -0,0 +1,166 @@
+package uk.gov.nhs.sts.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillCountsDTO;
+import uk.gov.nhs.sts.repository.SkillLevelCount;
+import uk.gov.nhs.sts.repository.SkillRepository;
+
+/**
+ * Number of people holding each skill at each level, kept as counters which are adjusted from the
+ * change events published by {@link PeopleManagementService} once their transactions commit. The
+ * counters are loaded when the application starts and periodically reconciled against the
+ * database in case any change was missed, such as one made by another instance. Counts read while
+ * a change was being made on this instance are thrown away and read again, as they can't be told
+ * apart from drift, using the {@link ChangeTransactionTracker}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SkillMatrix {
+
+  private static final SkillLevel[] LEVELS = SkillLevel.values();
+
+  private static final int RECONCILIATION_ATTEMPTS = 5;
+
+  private static final long RECONCILIATION_RETRY_PAUSE_MILLIS = 100;
+
+  private final SkillRepository skillRepository;
+
+  private final ChangeTransactionTracker changeTransactionTracker;
+
+  private Map<String, long[]> countsBySkill = new TreeMap<>();
+
+  private boolean loaded;
+
+  @EventListener(ContextRefreshedEvent.class)
+  public void load() {
+    this.reconcile();
+  }
+
+  /**
+   * Replaces the counters with counts read from the database, retrying while changes are being
+   * made. The first counts are used even if changes never stop, as somewhat stale counts are better
+   * than none, and the next reconciliation corrects them.
+   */
+  @Scheduled(fixedDelayString = "${sts.skills.matrix-reconciliation-interval:PT15M}",
+      initialDelayString = "${sts.skills.matrix-reconciliation-interval:PT15M}")
+  public void reconcile() {
+    for (int attempt = 1; attempt <= RECONCILIATION_ATTEMPTS; attempt++) {
+      if (tryReconcile(attempt == RECONCILIATION_ATTEMPTS)) {
+        return;
+      }
+      try {
+        Thread.sleep(RECONCILIATION_RETRY_PAUSE_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    log.debug("Skipped reconciling the skill matrix as people or skills kept changing");
+  }
+
+  private boolean tryReconcile(final boolean lastAttempt) {
+    final long snapshot = this.changeTransactionTracker.beginSnapshot();
+    if (snapshot < 0 && (this.loaded || !lastAttempt)) {
+      return false;
+    }
+    final Map<String, long[]> counts = new TreeMap<>();
+    for (SkillLevelCount skillLevelCount : this.skillRepository.countPeopleBySkillAndLevel()) {
+      final long[] skillCounts =
+          counts.computeIfAbsent(skillLevelCount.getSkillName(), name -> new long[LEVELS.length]);
+      if (skillLevelCount.getLevel() != null) {
+        skillCounts[skillLevelCount.getLevel().ordinal()] = skillLevelCount.getCount();
+      }
+    }
+
+    synchronized (this) {
+      if (!this.changeTransactionTracker.isSnapshotConsistent(snapshot)
+          && (this.loaded || !lastAttempt)) {
+        return false;
+      }
+      final Set<String> skillNames = new HashSet<>(counts.keySet());
+      skillNames.addAll(this.countsBySkill.keySet());
+      final long drifted = skillNames.stream().filter(
+          skillName -> !Arrays.equals(counts.get(skillName), this.countsBySkill.get(skillName)))
+          .count();
+      if (drifted > 0 && this.loaded) {
+        log.warn("Reconciled the counts of {} skills in the skill matrix", drifted);
+      }
+      this.countsBySkill = counts;
+      this.loaded = true;
+      return true;
+    }
+  }
+
+  /**
+   * Gets the number of people holding each skill at each level, ordered by skill name. Takes time
+   * proportional to the number of skills.
+   */
+  public synchronized List<SkillCountsDTO> getCounts() {
+    final List<SkillCountsDTO> skillCountsDtos = new ArrayList<>(this.countsBySkill.size());
+    this.countsBySkill.forEach((skillName, skillCounts) -> {
+      final Map<SkillLevel, Long> levels = new EnumMap<>(SkillLevel.class);
+      long total = 0;
+      for (SkillLevel level : LEVELS) {
+        levels.put(level, skillCounts[level.ordinal()]);
+        total += skillCounts[level.ordinal()];
+      }
+      skillCountsDtos.add(
+          SkillCountsDTO.builder().skillName(skillName).levels(levels).total(total).build());
+    });
+    return skillCountsDtos;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public synchronized void onPersonChanged(final PersonChangedEvent event) {
+    adjust(event.getPrevious(), -1);
+    adjust(event.getCurrent(), 1);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+  public synchronized void onSkillChanged(final SkillChangedEvent event) {
+    if (event.getType() == ChangeType.CREATED) {
+      this.countsBySkill.putIfAbsent(event.getCurrentName(), new long[LEVELS.length]);
+      return;
+    }
+    final long[] skillCounts = this.countsBySkill.remove(event.getPreviousName());
+    if (event.getType() == ChangeType.UPDATED && skillCounts != null) {
+      this.countsBySkill.put(event.getCurrentName(), skillCounts);
+    }
+  }
+
+  private void adjust(final PersonDTO personDto, final int delta) {
+    if (personDto == null || personDto.getPersonSkills() == null) {
+      return;
+    }
+    for (PersonSkillDTO personSkillDto : personDto.getPersonSkills()) {
+      if (personSkillDto.getSkillLevel() != null) {
+        final long[] skillCounts = this.countsBySkill
+            .computeIfAbsent(personSkillDto.getSkillName(), name -> new long[LEVELS.length]);
+        skillCounts[personSkillDto.getSkillLevel().ordinal()] += delta;
+      }
+    }
+  }
+
+}
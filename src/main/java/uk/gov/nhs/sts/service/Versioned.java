@@ -0,0 +1,15 @@
+package uk.gov.nhs.sts.service;
+
+import lombok.Value;
+
+/**
+ * A value read from the database along with the version tag it was read at, so that a cached copy
+ * can be checked against the current version and served under the tag it was actually read at.
+ */
+@Value
+public class Versioned<T> {
+
+  private String version;
+  private T value;
+
+}
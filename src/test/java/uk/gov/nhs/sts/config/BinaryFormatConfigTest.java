@@ -0,0 +1,135 @@
+package uk.gov.nhs.sts.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import uk.gov.nhs.sts.controller.BinaryMediaTypes;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+/**
+ * Checks the binary formats and response compression end to end through the embedded server, as
+ * compression is done by the server rather than by Spring MVC. The server can only hold back small
+ * responses whose length it knows before sending them, like the pre-serialised person; responses
+ * streamed out by Jackson are compressed whenever the client accepts it.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class BinaryFormatConfigTest {
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final RestTemplate restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+
+  @After
+  public void tearDown() {
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+  }
+
+  @Test
+  public void shouldEncodePeopleInSmileWhenAskedFor() throws Exception {
+    // given
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(new ArrayList<>()).build());
+
+    // when
+    final ResponseEntity<byte[]> response =
+        get("/api/people", BinaryMediaTypes.APPLICATION_SMILE_VALUE, null);
+
+    // then
+    assertEquals(MediaType.parseMediaType(BinaryMediaTypes.APPLICATION_SMILE_VALUE),
+        response.getHeaders().getContentType());
+    final PersonDTO[] people =
+        new ObjectMapper(new SmileFactory()).readValue(response.getBody(), PersonDTO[].class);
+    assertEquals("Samba", people[0].getName());
+  }
+
+  @Test
+  public void shouldCompressResponsesAboveTheMinimumSize() throws Exception {
+    // given
+    final List<SkillDTO> skills = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      this.service.createSkill(SkillDTO.builder().name("Skill " + i).build());
+    }
+    skills.addAll(this.service.fetchSkills());
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(new ArrayList<>()).build());
+
+    // when
+    final ResponseEntity<byte[]> large =
+        get("/api/skills", MediaType.APPLICATION_JSON_VALUE, "gzip");
+    final ResponseEntity<byte[]> small =
+        get("/api/people/1", MediaType.APPLICATION_JSON_VALUE, "gzip");
+
+    // then
+    assertEquals(Arrays.asList("gzip"), large.getHeaders().get(HttpHeaders.CONTENT_ENCODING));
+    assertArrayEquals(this.objectMapper.writeValueAsBytes(skills), gunzip(large.getBody()));
+    assertNull(small.getHeaders().get(HttpHeaders.CONTENT_ENCODING));
+  }
+
+  private ResponseEntity<byte[]> get(final String path, final String accept,
+      final String acceptEncoding) {
+    final HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.ACCEPT, accept);
+    if (acceptEncoding != null) {
+      headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+    }
+    return this.restTemplate.exchange("http://localhost:" + this.port + path, HttpMethod.GET,
+        new HttpEntity<>(headers), byte[].class);
+  }
+
+  private static byte[] gunzip(final byte[] compressed) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      final byte[] buffer = new byte[4096];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+
+}
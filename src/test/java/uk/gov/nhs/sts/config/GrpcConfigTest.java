@@ -0,0 +1,102 @@
+package uk.gov.nhs.sts.config;
+
+import static org.junit.Assert.assertEquals;
+import static uk.gov.nhs.sts.model.dto.TestPeople.person;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import uk.gov.nhs.sts.grpc.BatchGetPeopleRequest;
+import uk.gov.nhs.sts.grpc.BatchGetPeopleResponse;
+import uk.gov.nhs.sts.grpc.FindPeopleBySkillsRequest;
+import uk.gov.nhs.sts.grpc.ListPeopleRequest;
+import uk.gov.nhs.sts.grpc.PeopleServiceGrpc;
+import uk.gov.nhs.sts.grpc.PersonPage;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"sts.grpc.enabled=true", "sts.grpc.port=0"})
+public class GrpcConfigTest {
+
+  @Autowired
+  private GrpcServer grpcServer;
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  private ManagedChannel channel;
+
+  private PeopleServiceGrpc.PeopleServiceBlockingStub stub;
+
+  @Before
+  public void setUp() {
+    this.service.importPeople(Arrays.asList(person("1", "Java"), person("2", "Go"),
+        person("3", "Java")));
+    this.channel = ManagedChannelBuilder.forAddress("localhost", this.grpcServer.getPort())
+        .usePlaintext().build();
+    this.stub = PeopleServiceGrpc.newBlockingStub(this.channel);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+  }
+
+  @Test
+  public void shouldStreamEveryPersonOverGrpc() {
+    // when
+    final List<String> staffNumbers = new ArrayList<>();
+    this.stub.listPeople(ListPeopleRequest.getDefaultInstance())
+        .forEachRemaining(person -> staffNumbers.add(person.getStaffNumber()));
+
+    // then
+    staffNumbers.sort(String::compareTo);
+    assertEquals(Arrays.asList("1", "2", "3"), staffNumbers);
+  }
+
+  @Test
+  public void shouldFindPeopleBySkillOverGrpc() {
+    // when
+    final PersonPage actual = this.stub
+        .findPeopleBySkills(FindPeopleBySkillsRequest.newBuilder().addSkillNames("Java").build());
+
+    // then
+    assertEquals(2, actual.getTotalElements());
+    assertEquals("1", actual.getPeople(0).getStaffNumber());
+    assertEquals("3", actual.getPeople(1).getStaffNumber());
+  }
+
+  @Test
+  public void shouldBatchGetPeopleOverGrpc() {
+    // when
+    final BatchGetPeopleResponse actual = this.stub.batchGetPeople(BatchGetPeopleRequest
+        .newBuilder().addStaffNumbers("2").addStaffNumbers("4").addStaffNumbers("1").build());
+
+    // then
+    assertEquals(2, actual.getPeopleCount());
+    assertEquals("2", actual.getPeople(0).getStaffNumber());
+    assertEquals("Go", actual.getPeople(0).getPersonSkills(0).getSkillName());
+    assertEquals("1", actual.getPeople(1).getStaffNumber());
+    assertEquals(Arrays.asList("4"), actual.getMissingStaffNumbersList());
+  }
+
+}
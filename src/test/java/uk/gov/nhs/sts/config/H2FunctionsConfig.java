@@ -0,0 +1,51 @@
+package uk.gov.nhs.sts.config;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Defines the Postgres functions the schema relies on in the in-memory H2 databases the tests run
+ * against, before Hibernate creates the schema.
+ */
+@Configuration
+public class H2FunctionsConfig {
+
+  @Bean
+  public static BeanPostProcessor h2FunctionsPostProcessor() {
+    return new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof DataSource) {
+          defineFunctions(new JdbcTemplate((DataSource) bean));
+        }
+        return bean;
+      }
+    };
+  }
+
+  /**
+   * The current time, rather than the time the transaction started, like Postgres'
+   * {@code clock_timestamp()}.
+   */
+  public static Timestamp clockTimestamp() {
+    return Timestamp.from(Instant.now());
+  }
+
+  private static void defineFunctions(final JdbcTemplate jdbcTemplate) {
+    final String database = jdbcTemplate.execute(
+        (ConnectionCallback<String>) connection -> connection.getMetaData()
+            .getDatabaseProductName());
+    if ("H2".equals(database)) {
+      jdbcTemplate.execute("create alias if not exists clock_timestamp for \""
+          + H2FunctionsConfig.class.getName() + ".clockTimestamp\"");
+    }
+  }
+
+}
@@ -0,0 +1,73 @@
+package uk.gov.nhs.sts.config;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureMockMvc
+public class OperationTimingAspectTest {
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  public void shouldTimeServiceAndRepositoryOperations() {
+    // given
+    final double serviceCalls = count(OperationTimingAspect.SERVICE_TIMER,
+        "PeopleManagementService", "fetchPersonByStaffNumber");
+    final double repositoryCalls =
+        count(OperationTimingAspect.REPOSITORY_TIMER, "PersonRepository", "findByStaffNumber");
+
+    // when
+    this.service.fetchPersonByStaffNumber("missing");
+
+    // then
+    assertEquals(serviceCalls + 1, count(OperationTimingAspect.SERVICE_TIMER,
+        "PeopleManagementService", "fetchPersonByStaffNumber"), 0);
+    assertEquals(repositoryCalls + 1,
+        count(OperationTimingAspect.REPOSITORY_TIMER, "PersonRepository", "findByStaffNumber"), 0);
+  }
+
+  @Test
+  public void shouldExposeMetricsInPrometheusFormat() throws Exception {
+    // given
+    this.service.fetchSkills();
+
+    // when / then
+    this.mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+        .andExpect(content().string(containsString("sts_service_seconds_count{class=\"PeopleManagementService\",exception=\"none\",method=\"fetchSkills\",}")))
+        .andExpect(content().string(containsString("hibernate_query_executions_total")))
+        .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total")))
+        .andExpect(content().string(containsString("hikaricp_connections_active")));
+  }
+
+  private double count(final String timerName, final String className, final String method) {
+    final Timer timer = this.meterRegistry.find(timerName).tag("class", className)
+        .tag("method", method).tag("exception", "none").timer();
+    if (timer == null) {
+      return 0;
+    }
+    return timer.count();
+  }
+
+}
@@ -0,0 +1,71 @@
+package uk.gov.nhs.sts.config;
+
+import static org.junit.Assert.assertEquals;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.zaxxer.hikari.HikariDataSource;
+import uk.gov.nhs.sts.config.ReadOnlyRoutingDataSource.Target;
+
+public class ReadOnlyRoutingDataSourceTest {
+
+  @After
+  public void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  public void shouldRouteReadOnlyTransactionsToReplica() {
+    // given
+    final ReadOnlyRoutingDataSource dataSource =
+        routingDataSource(new ReadYourWritesTracker(Duration.ofMinutes(1)));
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    // when/then
+    assertEquals(Target.REPLICA, dataSource.currentTarget());
+  }
+
+  @Test
+  public void shouldRouteReadWriteTransactionsToPrimary() {
+    // given
+    final ReadOnlyRoutingDataSource dataSource =
+        routingDataSource(new ReadYourWritesTracker(Duration.ofMinutes(1)));
+
+    // when/then
+    assertEquals(Target.PRIMARY, dataSource.currentTarget());
+  }
+
+  @Test
+  public void shouldRouteReadOnlyTransactionsToPrimaryWithinReadYourWritesWindow() {
+    // given
+    final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+    final ReadOnlyRoutingDataSource dataSource = routingDataSource(tracker);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    // when
+    tracker.recordWrite();
+
+    // then
+    assertEquals(Target.PRIMARY, dataSource.currentTarget());
+  }
+
+  @Test
+  public void shouldRouteReadOnlyTransactionsToReplicaAfterReadYourWritesWindow() {
+    // given
+    final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ZERO);
+    final ReadOnlyRoutingDataSource dataSource = routingDataSource(tracker);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    // when
+    tracker.recordWrite();
+
+    // then
+    assertEquals(Target.REPLICA, dataSource.currentTarget());
+  }
+
+  private static ReadOnlyRoutingDataSource routingDataSource(final ReadYourWritesTracker tracker) {
+    return new ReadOnlyRoutingDataSource(new HikariDataSource(), new HikariDataSource(), tracker);
+  }
+
+}
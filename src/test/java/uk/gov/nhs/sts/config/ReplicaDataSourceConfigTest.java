@@ -0,0 +1,100 @@
+package uk.gov.nhs.sts.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+/**
+ * Runs the application against two separate in-memory H2 databases standing in for the primary
+ * and the replica. The replica is given the primary's schema but never receives its data, so
+ * anything read from it shows that the read was routed there.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "sts.datasource.replica.enabled=true",
+    "sts.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+    "sts.datasource.replica.username=sa", "sts.datasource.replica.password=",
+    "sts.datasource.replica.read-your-writes-window=PT0S"})
+public class ReplicaDataSourceConfigTest {
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private ReadOnlyRoutingDataSource dataSource;
+
+  @After
+  public void tearDown() {
+    this.personRepository.deleteAll();
+    this.entityManagerFactory.getCache().evictAll();
+  }
+
+  @Test
+  public void shouldWriteToPrimaryAndReadFromReplica() {
+    // when
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1").build());
+
+    // then
+    assertEquals(1, countPeople(this.dataSource.getPrimary()));
+    assertEquals(0, countPeople(this.dataSource.getReplica()));
+    assertTrue(this.service.fetchPeople().isEmpty());
+  }
+
+  @Test
+  public void shouldCheckExistenceBeforeWritesAgainstPrimary() {
+    // when
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1").build());
+
+    // then
+    assertEquals(0, countPeople(this.dataSource.getReplica()));
+    assertTrue(this.service.personExists("1"));
+    assertFalse(this.service.skillExists("Java"));
+  }
+
+  private static int countPeople(final DataSource dataSource) {
+    return new JdbcTemplate(dataSource).queryForObject("select count(*) from person",
+        Integer.class);
+  }
+
+  @TestConfiguration
+  static class ReplicaSchemaConfig {
+
+    /**
+     * Copies the schema Hibernate created in the primary to the replica before anything reads
+     * from it.
+     */
+    @Bean
+    public Object replicaSchema(final EntityManagerFactory entityManagerFactory,
+        final ReadOnlyRoutingDataSource dataSource) {
+      final List<String> statements =
+          new JdbcTemplate(dataSource.getPrimary()).queryForList("script nodata", String.class);
+      final JdbcTemplate replica = new JdbcTemplate(dataSource.getReplica());
+      statements.forEach(replica::execute);
+      return statements;
+    }
+
+  }
+
+}
@@ -0,0 +1,30 @@
+package uk.gov.nhs.sts.config;
+
+import static org.junit.Assert.assertEquals;
+import net.ttddyy.dsproxy.QueryCount;
+
+/**
+ * Assertions on the number of SQL statements an operation runs, counted by
+ * {@link StatementCounter}. Sequence fetches are not included, since how often they happen
+ * depends on how many ids earlier tests used up.
+ */
+public final class StatementAssertions {
+
+  private StatementAssertions() {}
+
+  public static void assertStatements(final int selects, final int inserts, final int updates,
+      final int deletes, final Runnable operation) {
+    StatementCounter.reset();
+    operation.run();
+    final QueryCount actual = StatementCounter.current();
+    assertEquals(describe(selects, inserts, updates, deletes), describe(actual.getSelect(),
+        actual.getInsert(), actual.getUpdate(), actual.getDelete()));
+  }
+
+  private static String describe(final long selects, final long inserts, final long updates,
+      final long deletes) {
+    return String.format("selects=%d, inserts=%d, updates=%d, deletes=%d", selects, inserts,
+        updates, deletes);
+  }
+
+}
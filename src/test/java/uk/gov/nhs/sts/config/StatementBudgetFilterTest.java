@@ -0,0 +1,89 @@
+package uk.gov.nhs.sts.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "sts.statement-budget.limit=1")
+@AutoConfigureMockMvc
+public class StatementBudgetFilterTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @After
+  public void tearDown() {
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+  }
+
+  @Test
+  public void shouldRecordStatementsOfEachRequest() throws Exception {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+
+    // when
+    this.mockMvc.perform(get("/api/skills/Java")).andExpect(status().isOk());
+
+    // then
+    final DistributionSummary statements = this.meterRegistry
+        .find(StatementBudgetFilter.STATEMENTS_SUMMARY).tag("uri", "/api/skills/{name}").summary();
+    assertEquals(1, statements.count());
+    assertTrue(statements.max() >= 1);
+  }
+
+  @Test
+  public void shouldCountRequestsOverBudget() throws Exception {
+    // given
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build()))
+        .build());
+    final double overBudget = overBudget("/api/people/search");
+
+    // when
+    this.mockMvc.perform(get("/api/people/search").param("skill", "Java"))
+        .andExpect(status().isOk());
+
+    // then
+    assertEquals(overBudget + 1, overBudget("/api/people/search"), 0);
+  }
+
+  private double overBudget(final String uri) {
+    return this.meterRegistry.find(StatementBudgetFilter.OVER_BUDGET_COUNTER).tag("uri", uri)
+        .counters().stream().mapToDouble(counter -> counter.count()).sum();
+  }
+
+}
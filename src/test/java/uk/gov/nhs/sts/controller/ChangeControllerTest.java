@@ -0,0 +1,129 @@
+package uk.gov.nhs.sts.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.model.data.EntityType;
+import uk.gov.nhs.sts.model.dto.ChangeDTO;
+import uk.gov.nhs.sts.model.dto.ChangesDTO;
+import uk.gov.nhs.sts.service.ChangeSink;
+import uk.gov.nhs.sts.service.ChangeSubscription;
+import uk.gov.nhs.sts.service.ChangesPurgedException;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(ChangeController.class)
+public class ChangeControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private PeopleManagementService service;
+
+  private static final String BASE_URI = "/api/changes";
+
+  @Test
+  public void getChangesShouldReturnTheChangesAfterTheCursor() throws Exception {
+    // given
+    final ChangeDTO change = ChangeDTO.builder().cursor(8).entityType(EntityType.PERSON)
+        .changeType(ChangeType.UPDATED).key("2").previousKey("1")
+        .changedAt(Instant.parse("2020-04-01T10:15:30Z"))
+        .record("{\"name\":\"Samba\",\"staffNumber\":\"2\",\"personSkills\":[]}").build();
+    given(this.service.fetchChanges(7, 50))
+        .willReturn(ChangesDTO.builder().changes(Arrays.asList(change)).cursor(8).build());
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "?since=7&limit=50")).andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"cursor\":8,\"changes\":[{\"cursor\":8,\"entityType\":\"PERSON\",\"changeType\":\"UPDATED\",\"key\":\"2\",\"previousKey\":\"1\",\"record\":{\"name\":\"Samba\",\"staffNumber\":\"2\",\"personSkills\":[]}}]}"));
+  }
+
+  @Test
+  public void getChangesShouldReturnGoneIfChangesAfterTheCursorHaveBeenPurged() throws Exception {
+    // given
+    given(this.service.fetchChanges(7, 1000)).willThrow(new ChangesPurgedException("purged"));
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "?since=7")).andExpect(status().isGone());
+  }
+
+  @Test
+  public void getChangesShouldReturnBadRequestIfLimitIsInvalid() throws Exception {
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "?limit=0")).andExpect(status().isBadRequest());
+    verify(this.service, never()).fetchChanges(anyLong(), anyInt());
+  }
+
+  @Test
+  public void streamChangesShouldSubscribeWithTheFilters() throws Exception {
+    // given
+    given(this.service.subscribeToChanges(anySet(), anySet(), any())).willReturn(() -> {
+    });
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "/stream?skill=Java&skill=Go&staffNumber=1"))
+        .andExpect(request().asyncStarted());
+    verify(this.service).subscribeToChanges(eq(new HashSet<>(Arrays.asList("Java", "Go"))),
+        eq(Collections.singleton("1")), any());
+  }
+
+  @Test
+  public void streamChangesShouldSubscribeToEverythingWithoutFilters() throws Exception {
+    // given
+    given(this.service.subscribeToChanges(anySet(), anySet(), any())).willReturn(() -> {
+    });
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "/stream")).andExpect(request().asyncStarted());
+    verify(this.service).subscribeToChanges(eq(Collections.emptySet()),
+        eq(Collections.emptySet()), any());
+  }
+
+  @Test
+  public void streamChangesShouldSendTheChangesAsServerSentEvents() throws Exception {
+    // given
+    final ChangeSubscription subscription = mock(ChangeSubscription.class);
+    final ArgumentCaptor<ChangeSink> sink = ArgumentCaptor.forClass(ChangeSink.class);
+    given(this.service.subscribeToChanges(anySet(), anySet(), sink.capture()))
+        .willReturn(subscription);
+    final MvcResult result =
+        this.mockMvc.perform(get(BASE_URI + "/stream")).andExpect(request().asyncStarted())
+            .andReturn();
+
+    // when
+    sink.getValue().send("skill", "{\"key\":\"Java\"}");
+    sink.getValue().close();
+
+    // then
+    this.mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+        .andExpect(content().string("event:skill\ndata:{\"key\":\"Java\"}\n\n"));
+    verify(subscription).cancel();
+  }
+
+}
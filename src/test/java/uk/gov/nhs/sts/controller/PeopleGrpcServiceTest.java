@@ -0,0 +1,292 @@
+package uk.gov.nhs.sts.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static uk.gov.nhs.sts.model.dto.TestPeople.person;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import uk.gov.nhs.sts.grpc.BatchGetPeopleRequest;
+import uk.gov.nhs.sts.grpc.BatchGetPeopleResponse;
+import uk.gov.nhs.sts.grpc.FindPeopleBySkillsRequest;
+import uk.gov.nhs.sts.grpc.GetPersonRequest;
+import uk.gov.nhs.sts.grpc.ListPeopleRequest;
+import uk.gov.nhs.sts.grpc.PeopleServiceGrpc;
+import uk.gov.nhs.sts.grpc.Person;
+import uk.gov.nhs.sts.grpc.PersonPage;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonPageDTO;
+import uk.gov.nhs.sts.model.dto.SkillMatch;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PeopleGrpcServiceTest {
+
+  private static final Duration IDLE_TIMEOUT = Duration.ofMillis(200);
+
+  @Mock
+  private PeopleManagementService service;
+
+  private ExecutorService streamExecutor;
+
+  private Server server;
+
+  private ManagedChannel channel;
+
+  private PeopleServiceGrpc.PeopleServiceBlockingStub stub;
+
+  @Before
+  public void setUp() throws Exception {
+    this.streamExecutor = Executors.newSingleThreadExecutor();
+    final String name = InProcessServerBuilder.generateName();
+    this.server = InProcessServerBuilder.forName(name)
+        .addService(new PeopleGrpcService(this.service, this.streamExecutor, IDLE_TIMEOUT))
+        .build().start();
+    this.channel = InProcessChannelBuilder.forName(name).build();
+    this.stub = PeopleServiceGrpc.newBlockingStub(this.channel);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    this.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    this.streamExecutor.shutdownNow();
+  }
+
+  @Test
+  public void getPersonShouldReturnThePerson() {
+    // given
+    given(this.service.fetchPersonByStaffNumber("1")).willReturn(person("1", "Java"));
+
+    // when
+    final Person actual =
+        this.stub.getPerson(GetPersonRequest.newBuilder().setStaffNumber("1").build());
+
+    // then
+    assertEquals("Person 1", actual.getName());
+    assertEquals("1", actual.getStaffNumber());
+    assertEquals("Java", actual.getPersonSkills(0).getSkillName());
+    assertEquals(uk.gov.nhs.sts.grpc.SkillLevel.WORKING, actual.getPersonSkills(0).getSkillLevel());
+  }
+
+  @Test
+  public void getPersonShouldFailWithNotFoundIfPersonDoesNotExist() {
+    // when/then
+    assertStatus(Status.Code.NOT_FOUND,
+        () -> this.stub.getPerson(GetPersonRequest.newBuilder().setStaffNumber("1").build()));
+  }
+
+  @Test
+  public void getPersonShouldFailWithInternalIfTheServiceFails() {
+    // given
+    given(this.service.fetchPersonByStaffNumber("1")).willThrow(new IllegalStateException());
+
+    // when/then
+    assertStatus(Status.Code.INTERNAL,
+        () -> this.stub.getPerson(GetPersonRequest.newBuilder().setStaffNumber("1").build()));
+  }
+
+  @Test
+  public void listPeopleShouldStreamEveryPerson() {
+    // given
+    streamPeople(3, new AtomicInteger());
+
+    // when
+    final List<String> staffNumbers = new ArrayList<>();
+    this.stub.listPeople(ListPeopleRequest.getDefaultInstance())
+        .forEachRemaining(person -> staffNumbers.add(person.getStaffNumber()));
+
+    // then
+    assertEquals(Arrays.asList("1", "2", "3"), staffNumbers);
+  }
+
+  @Test
+  public void listPeopleShouldOnlyReadPeopleAsFastAsTheClientTakesThem() throws Exception {
+    // given
+    final AtomicInteger streamed = new AtomicInteger();
+    streamPeople(10000, streamed);
+    final Context.CancellableContext context = Context.current().withCancellation();
+
+    // when
+    context.run(() -> {
+      final Iterator<Person> people = this.stub.listPeople(ListPeopleRequest.getDefaultInstance());
+      people.next();
+      people.next();
+    });
+    context.cancel(null);
+
+    // then
+    this.streamExecutor.shutdown();
+    assertTrue(this.streamExecutor.awaitTermination(5, TimeUnit.SECONDS));
+    assertTrue(streamed.get() < 10);
+  }
+
+  @Test
+  public void listPeopleShouldGiveUpOnClientsWhichStopReading() throws Exception {
+    // given
+    final AtomicInteger streamed = new AtomicInteger();
+    streamPeople(10000, streamed);
+    final Iterator<Person> people = this.stub.listPeople(ListPeopleRequest.getDefaultInstance());
+    people.next();
+
+    // when
+    this.streamExecutor.shutdown();
+    assertTrue(this.streamExecutor.awaitTermination(5, TimeUnit.SECONDS));
+
+    // then
+    assertTrue(streamed.get() < 10);
+    assertStatus(Status.Code.DEADLINE_EXCEEDED, () -> people.forEachRemaining(person -> {
+    }));
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldReturnThePage() {
+    // given
+    given(this.service.findPeopleBySkills(new LinkedHashSet<>(Arrays.asList("Java", "Go")),
+        SkillLevel.PRACTITIONER, SkillMatch.ANY, 1, 2))
+            .willReturn(PersonPageDTO.builder().people(Arrays.asList(person("3", "Go"))).page(1)
+                .size(2).totalElements(3).totalPages(2).build());
+
+    // when
+    final PersonPage actual = this.stub.findPeopleBySkills(FindPeopleBySkillsRequest.newBuilder()
+        .addSkillNames("Java").addSkillNames("Go")
+        .setMinLevel(uk.gov.nhs.sts.grpc.SkillLevel.PRACTITIONER)
+        .setMatch(uk.gov.nhs.sts.grpc.SkillMatch.ANY).setPage(1).setSize(2).build());
+
+    // then
+    assertEquals("3", actual.getPeople(0).getStaffNumber());
+    assertEquals(1, actual.getPage());
+    assertEquals(2, actual.getSize());
+    assertEquals(3, actual.getTotalElements());
+    assertEquals(2, actual.getTotalPages());
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldDefaultTheLevelMatchAndSize() {
+    // given
+    given(this.service.findPeopleBySkills(new LinkedHashSet<>(Arrays.asList("Java")),
+        SkillLevel.AWARENESS, SkillMatch.ALL, 0, PeopleGrpcService.DEFAULT_PAGE_SIZE))
+            .willReturn(PersonPageDTO.builder().people(new ArrayList<>())
+                .size(PeopleGrpcService.DEFAULT_PAGE_SIZE).build());
+
+    // when
+    final PersonPage actual = this.stub.findPeopleBySkills(
+        FindPeopleBySkillsRequest.newBuilder().addSkillNames("Java").build());
+
+    // then
+    assertEquals(0, actual.getPeopleCount());
+    assertEquals(PeopleGrpcService.DEFAULT_PAGE_SIZE, actual.getSize());
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldFailWithInvalidArgumentIfSizeIsTooLarge() {
+    // when/then
+    assertStatus(Status.Code.INVALID_ARGUMENT,
+        () -> this.stub.findPeopleBySkills(FindPeopleBySkillsRequest.newBuilder()
+            .addSkillNames("Java").setSize(PeopleGrpcService.MAX_PAGE_SIZE + 1).build()));
+    verify(this.service, never()).findPeopleBySkills(any(), any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldFailWithInvalidArgumentIfLevelIsUnrecognised() {
+    // when/then
+    assertStatus(Status.Code.INVALID_ARGUMENT,
+        () -> this.stub.findPeopleBySkills(FindPeopleBySkillsRequest.newBuilder()
+            .addSkillNames("Java").setMinLevelValue(99).build()));
+    verify(this.service, never()).findPeopleBySkills(any(), any(), any(), anyInt(), anyInt());
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldFailWithInvalidArgumentIfMatchIsUnrecognised() {
+    // when/then
+    assertStatus(Status.Code.INVALID_ARGUMENT,
+        () -> this.stub.findPeopleBySkills(FindPeopleBySkillsRequest.newBuilder()
+            .addSkillNames("Java").setMatchValue(99).build()));
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldFailWithInvalidArgumentWithoutSkills() {
+    // when/then
+    assertStatus(Status.Code.INVALID_ARGUMENT,
+        () -> this.stub.findPeopleBySkills(FindPeopleBySkillsRequest.getDefaultInstance()));
+  }
+
+  @Test
+  public void batchGetPeopleShouldReturnThePeopleFoundAndTheStaffNumbersMissing() {
+    // given
+    given(this.service.fetchPeopleByStaffNumbers(Arrays.asList("3", "2", "1")))
+        .willReturn(Arrays.asList(person("3", "Go"), person("1", "Java")));
+
+    // when
+    final BatchGetPeopleResponse actual = this.stub.batchGetPeople(BatchGetPeopleRequest
+        .newBuilder().addStaffNumbers("3").addStaffNumbers("2").addStaffNumbers("1").build());
+
+    // then
+    assertEquals("3", actual.getPeople(0).getStaffNumber());
+    assertEquals("1", actual.getPeople(1).getStaffNumber());
+    assertEquals(Arrays.asList("2"), actual.getMissingStaffNumbersList());
+  }
+
+  @Test
+  public void batchGetPeopleShouldFailWithInvalidArgumentIfBatchIsTooLarge() {
+    // given
+    final BatchGetPeopleRequest.Builder request = BatchGetPeopleRequest.newBuilder();
+    for (int i = 0; i <= PeopleGrpcService.MAX_BATCH_SIZE; i++) {
+      request.addStaffNumbers(String.valueOf(i));
+    }
+
+    // when/then
+    assertStatus(Status.Code.INVALID_ARGUMENT, () -> this.stub.batchGetPeople(request.build()));
+    verify(this.service, never()).fetchPeopleByStaffNumbers(any());
+  }
+
+  private void streamPeople(final int count, final AtomicInteger streamed) {
+    willAnswer(invocation -> {
+      final Consumer<PersonDTO> consumer = invocation.getArgument(0);
+      for (int i = 1; i <= count; i++) {
+        consumer.accept(person(String.valueOf(i), "Java"));
+        streamed.incrementAndGet();
+      }
+      return null;
+    }).given(this.service).streamPeople(any());
+  }
+
+  private static void assertStatus(final Status.Code expected, final Runnable call) {
+    try {
+      call.run();
+      fail("Expected " + expected);
+    } catch (StatusRuntimeException e) {
+      assertEquals(expected, e.getStatus().getCode());
+    }
+  }
+
+}
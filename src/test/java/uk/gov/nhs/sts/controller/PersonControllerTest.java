@@ -1,28 +1,57 @@
 package uk.gov.nhs.sts.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonBatchDTO;
+import uk.gov.nhs.sts.model.dto.PersonBatchResultDTO;
+import uk.gov.nhs.sts.model.dto.PersonCursorPageDTO;
 import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonPageDTO;
 import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.PersonSort;
+import uk.gov.nhs.sts.model.dto.SkillMatch;
+import uk.gov.nhs.sts.model.dto.SkillQueryDTO;
+import uk.gov.nhs.sts.model.dto.TeamSearchResultDTO;
+import uk.gov.nhs.sts.service.PeopleImportException;
 import uk.gov.nhs.sts.service.PeopleManagementService;
+import uk.gov.nhs.sts.service.PersonJson;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(PersonController.class)
@@ -43,22 +72,65 @@ public class PersonControllerTest {
         PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build();
     final PersonDTO person = PersonDTO.builder().name("Samba").staffNumber("1")
         .personSkills(Arrays.asList(skill)).build();
-    given(this.service.fetchPersonByStaffNumber("1")).willReturn(person);
+    given(this.service.fetchPersonVersion("1")).willReturn("7.3");
+    given(this.service.fetchPersonJson("1", "7.3"))
+        .willReturn(new PersonJson("7.3", new ObjectMapper().writeValueAsBytes(person)));
 
     // when/then
     this.mockMvc.perform(get(BASE_URI + "1")).andDo(MockMvcResultHandlers.print())
-        .andExpect(status().isOk()).andExpect(content().json(
+        .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "W/\"7.3\""))
+        .andExpect(content().json(
             "{\"name\":\"Samba\",\"staffNumber\":\"1\",\"personSkills\":[{\"skillName\":\"Java\",\"skillLevel\":\"EXPERT\"}]}"));
   }
 
+  @Test
+  public void getPersonShouldReturnNotModifiedIfETagMatches() throws Exception {
+    // given
+    given(this.service.fetchPersonVersion("1")).willReturn("7.3");
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "1").header(HttpHeaders.IF_NONE_MATCH, "\"7.3\""))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, "W/\"7.3\""))
+        .andExpect(content().string(""));
+    verify(this.service, never()).fetchPersonJson(eq("1"), anyString());
+  }
+
+  @Test
+  public void getPersonShouldReturnOkIfETagDoesNotMatch() throws Exception {
+    // given
+    given(this.service.fetchPersonVersion("1")).willReturn("7.4");
+    given(this.service.fetchPersonJson("1", "7.4")).willReturn(new PersonJson("7.4",
+        "{\"name\":\"Samba\",\"staffNumber\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "1").header(HttpHeaders.IF_NONE_MATCH, "\"7.3\""))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "W/\"7.4\""));
+  }
+
+  @Test
+  public void getPersonShouldTagTheResponseWithTheVersionServed() throws Exception {
+    // given
+    given(this.service.fetchPersonVersion("1")).willReturn("7.3");
+    given(this.service.fetchPersonJson("1", "7.3")).willReturn(new PersonJson("7.4",
+        "{\"name\":\"Samba\",\"staffNumber\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "1")).andDo(MockMvcResultHandlers.print())
+        .andExpect(status().isOk())
+        .andExpect(header().stringValues(HttpHeaders.ETAG, "W/\"7.4\""));
+  }
+
   @Test
   public void getPersonShouldReturnNotFoundIfPersonDoesNotExist() throws Exception {
     // given
-    given(this.service.fetchPersonByStaffNumber("1")).willReturn(null);
+    given(this.service.fetchPersonVersion("1")).willReturn(null);
 
     // when/then
     this.mockMvc.perform(get(BASE_URI + "1")).andDo(MockMvcResultHandlers.print())
         .andExpect(status().isNotFound());
+    verify(this.service, never()).fetchPersonJson(eq("1"), anyString());
   }
 
   @Test
@@ -77,6 +149,128 @@ public class PersonControllerTest {
 
   }
 
+  @Test
+  public void getPeoplePageShouldReturnOk() throws Exception {
+    // given
+    final PersonDTO person = PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList()).build();
+    given(this.service.fetchPeoplePage(PersonSort.NAME, null, 1)).willReturn(
+        PersonCursorPageDTO.builder().people(Arrays.asList(person)).next("bmV4dA").build());
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI).param("sort", "NAME").param("limit", "1"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"people\":[{\"name\":\"Samba\",\"staffNumber\":\"1\",\"personSkills\":[]}],\"next\":\"bmV4dA\"}"));
+    verify(this.service, never()).fetchPeople();
+  }
+
+  @Test
+  public void getPeoplePageShouldReturnBadRequestIfLimitIsInvalid() throws Exception {
+    // when/then
+    this.mockMvc.perform(get(BASE_URI).param("limit", "0")).andDo(MockMvcResultHandlers.print())
+        .andExpect(status().isBadRequest());
+    verify(this.service, never()).fetchPeoplePage(any(), any(), anyInt());
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldReturnOk() throws Exception {
+    // given
+    final PersonSkillDTO skill =
+        PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build();
+    final PersonDTO person = PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList(skill)).build();
+    given(this.service.findPeopleBySkills(new LinkedHashSet<>(Arrays.asList("Java", "Kubernetes")),
+        SkillLevel.PRACTITIONER, SkillMatch.ANY, 0, 20))
+            .willReturn(PersonPageDTO.builder().people(Arrays.asList(person)).page(0).size(20)
+                .totalElements(1).totalPages(1).build());
+
+    // when/then
+    this.mockMvc
+        .perform(get(BASE_URI + "search").param("skill", "Java", "Kubernetes")
+            .param("minLevel", "PRACTITIONER").param("match", "ANY"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"people\":[{\"name\":\"Samba\",\"staffNumber\":\"1\"}],\"page\":0,\"size\":20,\"totalElements\":1,\"totalPages\":1}"));
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldReturnBadRequestForUnknownLevel() throws Exception {
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "search").param("skill", "Java").param("minLevel", "GURU"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldReturnBadRequestWithoutSkill() throws Exception {
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "search")).andDo(MockMvcResultHandlers.print())
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void findPeopleBySkillsShouldReturnBadRequestForOversizedPage() throws Exception {
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "search").param("skill", "Java").param("size", "5000"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void searchTeamShouldReturnOk() throws Exception {
+    // given
+    final SkillQueryDTO query = SkillQueryDTO.builder()
+        .and(Arrays.asList(SkillQueryDTO.builder().skill("Java").build(),
+            SkillQueryDTO.builder().not(SkillQueryDTO.builder().skill("Postgres")
+                .maxLevel(SkillLevel.AWARENESS).build()).build()))
+        .build();
+    given(this.service.searchTeam(query)).willReturn(
+        TeamSearchResultDTO.builder().count(2).staffNumbers(Arrays.asList("1", "3")).build());
+
+    // when/then
+    this.mockMvc
+        .perform(post(BASE_URI + "team-search").contentType(MediaType.APPLICATION_JSON).content(
+            "{\"and\":[{\"skill\":\"Java\"},{\"not\":{\"skill\":\"Postgres\",\"maxLevel\":\"AWARENESS\"}}]}"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isOk())
+        .andExpect(content().json("{\"count\":2,\"staffNumbers\":[\"1\",\"3\"]}"));
+  }
+
+  @Test
+  public void searchTeamShouldReturnBadRequestIfQueryHasMoreThanOneOperation() throws Exception {
+    // when/then
+    this.mockMvc
+        .perform(post(BASE_URI + "team-search").contentType(MediaType.APPLICATION_JSON)
+            .content("{\"and\":[{\"skill\":\"Java\",\"or\":[{\"skill\":\"Postgres\"}]}]}"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void streamPeopleShouldReturnNewlineDelimitedJson() throws Exception {
+    // given
+    final PersonSkillDTO skill =
+        PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build();
+    final PersonDTO person = PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList(skill)).build();
+    willAnswer(invocation -> {
+      final Consumer<PersonDTO> consumer = invocation.getArgument(0);
+      consumer.accept(person);
+      consumer.accept(person);
+      return null;
+    }).given(this.service).streamPeople(any());
+
+    // when
+    final MvcResult result = this.mockMvc
+        .perform(get(BASE_URI).accept(PersonController.APPLICATION_NDJSON_VALUE))
+        .andExpect(request().asyncStarted()).andReturn();
+
+    // then
+    final String line =
+        "{\"name\":\"Samba\",\"staffNumber\":\"1\",\"personSkills\":[{\"skillName\":\"Java\",\"skillLevel\":\"EXPERT\"}]}\n";
+    this.mockMvc.perform(asyncDispatch(result)).andDo(MockMvcResultHandlers.print())
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(PersonController.APPLICATION_NDJSON_VALUE))
+        .andExpect(content().string(line + line));
+  }
+
   @Test
   public void createPersonShouldReturnBadRequestIfRequestHasMissingMandatoryFields()
       throws Exception {
@@ -95,7 +289,22 @@ public class PersonControllerTest {
     // given
     final PersonDTO person = PersonDTO.builder().name("Samba").staffNumber("1").build();
     final String json = json(person);
-    given(this.service.fetchPersonByStaffNumber("1")).willReturn(person);
+    given(this.service.personExists("1")).willReturn(true);
+
+    // when/then
+    this.mockMvc.perform(post(BASE_URI).contentType(MediaType.APPLICATION_JSON).content(json))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isConflict());
+
+  }
+
+  @Test
+  public void createPersonShouldReturnConflictIfStaffNumberIsTakenConcurrently()
+      throws Exception {
+    // given
+    final PersonDTO person = PersonDTO.builder().name("Samba").staffNumber("1").build();
+    final String json = json(person);
+    willThrow(new DataIntegrityViolationException("uk_person_staff_number")).given(this.service)
+        .createPerson(person);
 
     // when/then
     this.mockMvc.perform(post(BASE_URI).contentType(MediaType.APPLICATION_JSON).content(json))
@@ -119,6 +328,75 @@ public class PersonControllerTest {
 
   }
 
+  @Test
+  public void importPeopleShouldReturnBadRequestIfAPersonHasMissingMandatoryFields()
+      throws Exception {
+    // given
+    final PersonBatchDTO batch = PersonBatchDTO.builder()
+        .people(Arrays.asList(PersonDTO.builder().name("Samba").staffNumber("1").build(),
+            PersonDTO.builder().name("Sam").build()))
+        .build();
+    final String json = json(batch);
+
+    // when/then
+    this.mockMvc
+        .perform(post(BASE_URI + "batch").contentType(MediaType.APPLICATION_JSON).content(json))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void importPeopleShouldReturnOk() throws Exception {
+    // given
+    final PersonSkillDTO skill =
+        PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build();
+    final List<PersonDTO> people =
+        Arrays.asList(PersonDTO.builder().name("Samba").staffNumber("1").build(),
+            PersonDTO.builder().name("Sam").staffNumber("2").personSkills(Arrays.asList(skill))
+                .build());
+    final String json = json(PersonBatchDTO.builder().people(people).build());
+    given(this.service.importPeople(people))
+        .willReturn(PersonBatchResultDTO.builder().created(1).updated(1).build());
+
+    // when/then
+    this.mockMvc
+        .perform(post(BASE_URI + "batch").contentType(MediaType.APPLICATION_JSON).content(json))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isOk())
+        .andExpect(content().json("{\"created\":1,\"updated\":1}"));
+  }
+
+  @Test
+  public void importPeopleShouldReturnBadRequestIfTheBatchIsTooLarge() throws Exception {
+    // given
+    final List<PersonDTO> people = new ArrayList<>();
+    for (int i = 0; i <= PersonBatchDTO.MAX_PEOPLE; i++) {
+      people.add(PersonDTO.builder().name("Samba").staffNumber(String.valueOf(i)).build());
+    }
+    final String json = json(PersonBatchDTO.builder().people(people).build());
+
+    // when/then
+    this.mockMvc
+        .perform(post(BASE_URI + "batch").contentType(MediaType.APPLICATION_JSON).content(json))
+        .andExpect(status().isBadRequest());
+    verify(this.service, never()).importPeople(any());
+  }
+
+  @Test
+  public void importPeopleShouldReportHowFarItGotIfItFails() throws Exception {
+    // given
+    final List<PersonDTO> people =
+        Arrays.asList(PersonDTO.builder().name("Samba").staffNumber("1").build(),
+            PersonDTO.builder().name("Sam").staffNumber("2").build());
+    final String json = json(PersonBatchDTO.builder().people(people).build());
+    given(this.service.importPeople(people))
+        .willThrow(new PeopleImportException(1, 0, 1, new IllegalStateException()));
+
+    // when/then
+    this.mockMvc
+        .perform(post(BASE_URI + "batch").contentType(MediaType.APPLICATION_JSON).content(json))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isInternalServerError())
+        .andExpect(content().json("{\"created\":1,\"updated\":0,\"firstUnprocessed\":1}"));
+  }
+
   @Test
   public void updatePersonShouldReturnBadRequestIfRequestHasMissingMandatoryFields()
       throws Exception {
@@ -140,7 +418,7 @@ public class PersonControllerTest {
     final PersonDTO person = PersonDTO.builder().name("Samba").staffNumber("1")
         .personSkills(Arrays.asList(skill)).build();
     final String json = json(person);
-    given(this.service.fetchPersonByStaffNumber("1")).willReturn(null);
+    given(this.service.personExists("1")).willReturn(false);
 
     // when/then
     this.mockMvc.perform(put(BASE_URI + "1").contentType(MediaType.APPLICATION_JSON).content(json))
@@ -153,7 +431,7 @@ public class PersonControllerTest {
     // given
     final PersonDTO person = PersonDTO.builder().name("Sam").staffNumber("1").build();
     final String json = json(person);
-    given(this.service.fetchPersonByStaffNumber("1")).willReturn(person);
+    given(this.service.personExists("1")).willReturn(true);
 
     // when/then
     this.mockMvc.perform(put(BASE_URI + "1").contentType(MediaType.APPLICATION_JSON).content(json))
@@ -165,7 +443,7 @@ public class PersonControllerTest {
   @Test
   public void deletePersonShouldReturnNotFoundIfPersonDoesNotExist() throws Exception {
     // given
-    given(this.service.fetchPersonByStaffNumber("1")).willReturn(null);
+    given(this.service.personExists("1")).willReturn(false);
 
     // when/then
     this.mockMvc.perform(delete(BASE_URI + "1")).andDo(MockMvcResultHandlers.print())
@@ -176,12 +454,12 @@ public class PersonControllerTest {
   @Test
   public void deletePersonShouldReturnNoContent() throws Exception {
     // given
-    given(this.service.fetchPersonByStaffNumber("1"))
-        .willReturn(PersonDTO.builder().name("Samba").staffNumber("1").build());
+    given(this.service.personExists("1")).willReturn(true);
 
     // when/then
     this.mockMvc.perform(delete(BASE_URI + "1")).andDo(MockMvcResultHandlers.print())
         .andExpect(status().isNoContent());
+    verify(this.service).deletePerson("1");
 
   }
 
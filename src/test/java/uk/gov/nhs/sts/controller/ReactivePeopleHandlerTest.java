@@ -0,0 +1,132 @@
+package uk.gov.nhs.sts.controller;
+
+import static org.junit.Assert.assertEquals;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+import uk.gov.nhs.sts.service.PeopleManagementService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.main.web-application-type=reactive",
+    "sts.reactive.url=r2dbc:h2:mem:///db?options=DB_CLOSE_DELAY=-1",
+    "sts.reactive.username=sa", "sts.reactive.password="})
+@AutoConfigureWebTestClient
+public class ReactivePeopleHandlerTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  private final PersonDTO samba = PersonDTO.builder().name("Samba").staffNumber("1")
+      .personSkills(Arrays.asList(
+          PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build(),
+          PersonSkillDTO.builder().skillName("Go").skillLevel(SkillLevel.AWARENESS).build()))
+      .build();
+
+  private final PersonDTO sam = PersonDTO.builder().name("Sam").staffNumber("2")
+      .personSkills(Collections.emptyList()).build();
+
+  @Before
+  public void setUp() {
+    this.service.createPerson(this.samba);
+    this.service.createPerson(this.sam);
+  }
+
+  @After
+  public void tearDown() {
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+  }
+
+  @Test
+  public void shouldGetPeople() {
+    // when/then
+    this.webTestClient.get().uri("/api/people").accept(MediaType.APPLICATION_JSON).exchange()
+        .expectStatus().isOk().expectBodyList(PersonDTO.class)
+        .isEqualTo(Arrays.asList(this.samba, this.sam));
+  }
+
+  @Test
+  public void shouldStreamPeopleAsNdjson() {
+    // when
+    final String body = this.webTestClient.get().uri("/api/people")
+        .accept(ReactivePeopleHandler.APPLICATION_NDJSON).exchange().expectStatus().isOk()
+        .expectHeader().contentType(ReactivePeopleHandler.APPLICATION_NDJSON)
+        .expectBody(String.class).returnResult().getResponseBody();
+
+    // then
+    assertEquals(Arrays.asList(
+        "{\"name\":\"Samba\",\"staffNumber\":\"1\",\"personSkills\":[{\"skillName\":\"Java\",\"skillLevel\":\"EXPERT\"},{\"skillName\":\"Go\",\"skillLevel\":\"AWARENESS\"}]}",
+        "{\"name\":\"Sam\",\"staffNumber\":\"2\",\"personSkills\":[]}"),
+        Arrays.asList(body.split("\n")));
+  }
+
+  @Test
+  public void shouldStreamPeopleAsNdjsonWithParameters() {
+    // when/then
+    this.webTestClient.get().uri("/api/people")
+        .accept(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8")).exchange()
+        .expectStatus().isOk().expectHeader()
+        .contentType(ReactivePeopleHandler.APPLICATION_NDJSON);
+  }
+
+  @Test
+  public void shouldPickThePreferredPeopleContentType() {
+    // when/then
+    assertEquals(ReactivePeopleHandler.APPLICATION_NDJSON,
+        peopleContentType("application/json;q=0.5, application/x-ndjson"));
+    assertEquals(MediaType.APPLICATION_JSON,
+        peopleContentType("application/x-ndjson;q=0.5, application/json"));
+    assertEquals(MediaType.APPLICATION_JSON, peopleContentType("*/*"));
+    assertEquals(MediaType.APPLICATION_JSON, peopleContentType("application/x-ndjson;q=0, */*"));
+  }
+
+  @Test
+  public void shouldGetPerson() {
+    // when/then
+    this.webTestClient.get().uri("/api/people/1").exchange().expectStatus().isOk()
+        .expectBody(PersonDTO.class).isEqualTo(this.samba);
+  }
+
+  @Test
+  public void shouldNotFindMissingPerson() {
+    // when/then
+    this.webTestClient.get().uri("/api/people/3").exchange().expectStatus().isNotFound();
+  }
+
+  @Test
+  public void shouldGetSkills() {
+    // when/then
+    this.webTestClient.get().uri("/api/skills").exchange().expectStatus().isOk()
+        .expectBodyList(SkillDTO.class).isEqualTo(Arrays.asList(
+            SkillDTO.builder().name("Java").build(), SkillDTO.builder().name("Go").build()));
+  }
+
+  private static MediaType peopleContentType(final String accept) {
+    return ReactivePeopleHandler.peopleContentType(MediaType.parseMediaTypes(accept));
+  }
+
+}
@@ -1,26 +1,40 @@
 package uk.gov.nhs.sts.controller;
 
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.SkillCountsDTO;
+import uk.gov.nhs.sts.model.dto.SkillCursorPageDTO;
 import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillSort;
+import uk.gov.nhs.sts.service.InvalidContinuationTokenException;
 import uk.gov.nhs.sts.service.PeopleManagementService;
+import uk.gov.nhs.sts.service.Versioned;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(SkillController.class)
@@ -38,17 +52,43 @@ public class SkillControllerTest {
   public void getSkillShouldReturnOkIfSkillExists() throws Exception {
     // given
     final SkillDTO skill = SkillDTO.builder().name("Java").build();
-    given(this.service.fetchSkillByName("Java")).willReturn(skill);
+    given(this.service.fetchSkillVersion("Java")).willReturn("1.0");
+    given(this.service.fetchSkillByName("Java", "1.0")).willReturn(new Versioned<>("1.0", skill));
 
     // when/then
     this.mockMvc.perform(get(BASE_URI + "Java")).andDo(MockMvcResultHandlers.print())
-        .andExpect(status().isOk()).andExpect(content().json("{\"name\":\"Java\"}"));
+        .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "W/\"1.0\""))
+        .andExpect(content().json("{\"name\":\"Java\"}"));
+  }
+
+  @Test
+  public void getSkillShouldTagTheResponseWithTheVersionServed() throws Exception {
+    // given
+    given(this.service.fetchSkillVersion("Java")).willReturn("1.0");
+    given(this.service.fetchSkillByName("Java", "1.0"))
+        .willReturn(new Versioned<>("1.1", SkillDTO.builder().name("Java").build()));
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "Java")).andDo(MockMvcResultHandlers.print())
+        .andExpect(status().isOk())
+        .andExpect(header().stringValues(HttpHeaders.ETAG, "W/\"1.1\""));
+  }
+
+  @Test
+  public void getSkillShouldReturnNotModifiedIfETagMatches() throws Exception {
+    // given
+    given(this.service.fetchSkillVersion("Java")).willReturn("1.0");
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "Java").header(HttpHeaders.IF_NONE_MATCH, "\"1.0\""))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isNotModified());
+    verify(this.service, never()).fetchSkillByName(eq("Java"), anyString());
   }
 
   @Test
   public void getSkillShouldReturnNotFoundIfPersonDoesNotExist() throws Exception {
     // given
-    given(this.service.fetchSkillByName("NodeJS")).willReturn(null);
+    given(this.service.fetchSkillVersion("NodeJS")).willReturn(null);
 
     // when/then
     this.mockMvc.perform(get(BASE_URI + "NodeJs")).andDo(MockMvcResultHandlers.print())
@@ -59,12 +99,81 @@ public class SkillControllerTest {
   public void getPeopleShouldReturnOk() throws Exception {
     // given
     final SkillDTO skill = SkillDTO.builder().name("Java").build();
-    given(this.service.fetchSkills()).willReturn(Arrays.asList(skill));
+    given(this.service.fetchSkillsVersion()).willReturn("1.1.0");
+    given(this.service.fetchSkills("1.1.0"))
+        .willReturn(new Versioned<>("1.1.0", Arrays.asList(skill)));
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI)).andDo(MockMvcResultHandlers.print())
+        .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "W/\"1.1.0\""))
+        .andExpect(content().json("[{\"name\":\"Java\"}]"));
+
+  }
+
+  @Test
+  public void getSkillsShouldTagTheResponseWithTheVersionServed() throws Exception {
+    // given
+    given(this.service.fetchSkillsVersion()).willReturn("4");
+    given(this.service.fetchSkills("4")).willReturn(
+        new Versioned<>("5", Arrays.asList(SkillDTO.builder().name("Java").build())));
 
     // when/then
     this.mockMvc.perform(get(BASE_URI)).andDo(MockMvcResultHandlers.print())
-        .andExpect(status().isOk()).andExpect(content().json("[{\"name\":\"Java\"}]"));
+        .andExpect(status().isOk())
+        .andExpect(header().stringValues(HttpHeaders.ETAG, "W/\"5\""));
+  }
 
+  @Test
+  public void getSkillsShouldReturnNotModifiedIfETagMatches() throws Exception {
+    // given
+    given(this.service.fetchSkillsVersion()).willReturn("1.1.0");
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI).header(HttpHeaders.IF_NONE_MATCH, "\"1.1.0\""))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isNotModified());
+    verify(this.service, never()).fetchSkills(anyString());
+  }
+
+  @Test
+  public void getSkillsPageShouldReturnOk() throws Exception {
+    // given
+    given(this.service.fetchSkillsPage(SkillSort.NAME, "a2V5", 1)).willReturn(SkillCursorPageDTO
+        .builder().skills(Arrays.asList(SkillDTO.builder().name("Java").build())).next("bmV4dA")
+        .build());
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "?sort=NAME&after=a2V5&limit=1"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isOk())
+        .andExpect(content().json("{\"skills\":[{\"name\":\"Java\"}],\"next\":\"bmV4dA\"}"));
+    verify(this.service, never()).fetchSkills(anyString());
+  }
+
+  @Test
+  public void getSkillsPageShouldReturnBadRequestIfTokenIsInvalid() throws Exception {
+    // given
+    given(this.service.fetchSkillsPage(SkillSort.ID, "bad", 10))
+        .willThrow(new InvalidContinuationTokenException("Continuation token is not valid"));
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "?after=bad&limit=10"))
+        .andDo(MockMvcResultHandlers.print()).andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void getSkillMatrixShouldReturnOk() throws Exception {
+    // given
+    final Map<SkillLevel, Long> levels = new EnumMap<>(SkillLevel.class);
+    levels.put(SkillLevel.AWARENESS, 1L);
+    levels.put(SkillLevel.WORKING, 0L);
+    levels.put(SkillLevel.PRACTITIONER, 0L);
+    levels.put(SkillLevel.EXPERT, 2L);
+    given(this.service.fetchSkillMatrix()).willReturn(Arrays
+        .asList(SkillCountsDTO.builder().skillName("Java").levels(levels).total(3).build()));
+
+    // when/then
+    this.mockMvc.perform(get(BASE_URI + "matrix")).andDo(MockMvcResultHandlers.print())
+        .andExpect(status().isOk()).andExpect(content().json(
+            "[{\"skillName\":\"Java\",\"levels\":{\"AWARENESS\":1,\"WORKING\":0,\"PRACTITIONER\":0,\"EXPERT\":2},\"total\":3}]"));
   }
 
   @Test
@@ -85,7 +194,7 @@ public class SkillControllerTest {
     // given
     final SkillDTO skill = SkillDTO.builder().name("Java").build();
     final String json = json(skill);
-    given(this.service.fetchSkillByName("Java")).willReturn(skill);
+    given(this.service.skillExists("Java")).willReturn(true);
 
     // when/then
     this.mockMvc.perform(post(BASE_URI).contentType(MediaType.APPLICATION_JSON).content(json))
@@ -125,7 +234,7 @@ public class SkillControllerTest {
     // given
     final SkillDTO skill = SkillDTO.builder().name("Java").build();
     final String json = json(skill);
-    given(this.service.fetchSkillByName("Java")).willReturn(null);
+    given(this.service.skillExists("Java")).willReturn(false);
 
     // when/then
     this.mockMvc
@@ -139,7 +248,7 @@ public class SkillControllerTest {
     // given
     final SkillDTO skill = SkillDTO.builder().name("Java").build();
     final String json = json(skill);
-    given(this.service.fetchSkillByName("Java")).willReturn(skill);
+    given(this.service.skillExists("Java")).willReturn(true);
 
     // when/then
     this.mockMvc
@@ -152,7 +261,7 @@ public class SkillControllerTest {
   @Test
   public void deleteSkillShouldReturnNotFoundIfSkillDoesNotExist() throws Exception {
     // given
-    given(this.service.fetchSkillByName("Cucumber")).willReturn(null);
+    given(this.service.skillExists("Cucumber")).willReturn(false);
 
     // when/then
     this.mockMvc.perform(delete(BASE_URI + "Cucumber")).andDo(MockMvcResultHandlers.print())
@@ -163,12 +272,12 @@ public class SkillControllerTest {
   @Test
   public void deletePersonShouldReturnNoContent() throws Exception {
     // given
-    given(this.service.fetchSkillByName("Selenium"))
-        .willReturn(SkillDTO.builder().name("Selenium").build());
+    given(this.service.skillExists("Selenium")).willReturn(true);
 
     // when/then
     this.mockMvc.perform(delete(BASE_URI + "Selenium")).andDo(MockMvcResultHandlers.print())
         .andExpect(status().isNoContent());
+    verify(this.service).deleteSkill("Selenium");
 
   }
 
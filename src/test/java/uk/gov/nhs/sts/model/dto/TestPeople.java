@@ -0,0 +1,23 @@
+package uk.gov.nhs.sts.model.dto;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+
+/**
+ * People to use in tests, named after their staff number and working in each of their skills.
+ */
+public final class TestPeople {
+
+  private TestPeople() {}
+
+  public static PersonDTO person(final String staffNumber, final String... skillNames) {
+    return PersonDTO.builder().name("Person " + staffNumber).staffNumber(staffNumber)
+        .personSkills(Arrays.stream(skillNames)
+            .map(skillName -> PersonSkillDTO.builder().skillName(skillName)
+                .skillLevel(SkillLevel.WORKING).build())
+            .collect(Collectors.toList()))
+        .build();
+  }
+
+}
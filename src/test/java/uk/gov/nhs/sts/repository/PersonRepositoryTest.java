@@ -1,18 +1,33 @@
 package uk.gov.nhs.sts.repository;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 import uk.gov.nhs.sts.model.data.Person;
 import uk.gov.nhs.sts.model.data.PersonSkill;
+import uk.gov.nhs.sts.model.data.PersonSkillKey;
 import uk.gov.nhs.sts.model.data.Skill;
 import uk.gov.nhs.sts.model.data.SkillLevel;
 
@@ -29,6 +44,18 @@ public class PersonRepositoryTest {
   @Autowired
   private TestEntityManager entityManager;
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  /**
+   * The second-level cache outlives the rolled back test transactions, so it is emptied to stop
+   * skills from one test being found in another.
+   */
+  @Before
+  public void evictSecondLevelCache() {
+    this.entityManagerFactory.getCache().evictAll();
+  }
+
   @Test
   public void shouldSavePerson() {
     // given
@@ -68,6 +95,278 @@ public class PersonRepositoryTest {
     assertEquals(actual, persisted);
   }
 
+  @Test
+  public void shouldFindPersonSkillByCompositeKey() {
+    // given
+    persistPeopleWithSkills(1, 2);
+    final Person person = this.personRepository.findByStaffNumber("1");
+    final PersonSkill expected = person.getPersonSkills().iterator().next();
+    this.entityManager.clear();
+
+    // when
+    final PersonSkill actual = this.entityManager.find(PersonSkill.class,
+        new PersonSkillKey(person.getId(), expected.getSkill().getId()));
+
+    // then
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(person.getId(), actual.getPerson().getId());
+    assertEquals(expected.getSkill().getName(), actual.getSkill().getName());
+  }
+
+  @Test
+  public void shouldFetchPeopleWithSkillsByStaffNumbers() {
+    // given
+    persistPeopleWithSkills(3, 2);
+
+    // when
+    final List<Person> actual = this.personRepository.findByStaffNumberIn(Arrays.asList("1", "3"));
+
+    // then
+    assertEquals(Arrays.asList("1", "3"),
+        actual.stream().map(Person::getStaffNumber).sorted().collect(Collectors.toList()));
+    actual.forEach(person -> assertEquals(2, person.getPersonSkills().size()));
+  }
+
+  @Test
+  public void shouldSaveNewPeopleWithSkillsInOneCall() {
+    // given
+    final Skill skill = this.entityManager.persistAndFlush(Skill.builder().name("Java").build());
+    final List<Person> people = new ArrayList<>();
+    for (int i = 1; i <= 3; i++) {
+      final Person person =
+          Person.builder().name("Person " + i).staffNumber(String.valueOf(i)).build();
+      person.setPersonSkills(new HashSet<>(Arrays.asList(
+          PersonSkill.builder().person(person).skill(skill).level(SkillLevel.EXPERT).build())));
+      people.add(person);
+    }
+
+    // when
+    this.personRepository.saveAll(people);
+    this.entityManager.flush();
+    this.entityManager.clear();
+
+    // then
+    final List<Person> actual = this.personRepository.findAllWithSkills();
+    assertEquals(3, actual.size());
+    actual.forEach(person -> assertEquals("Java",
+        person.getPersonSkills().iterator().next().getSkill().getName()));
+  }
+
+  @Test
+  public void shouldFetchPersonWithSkillsByStaffNumberInOneStatement() {
+    // given
+    persistPeopleWithSkills(3, 2);
+    final Statistics statistics = clearedStatistics();
+
+    // when
+    final Person actual = this.personRepository.findByStaffNumber("1");
+    actual.getPersonSkills().forEach(personSkill -> personSkill.getSkill().getName());
+
+    // then
+    assertEquals(2, actual.getPersonSkills().size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  public void shouldFetchAllPeopleWithSkillsInOneStatement() {
+    // given
+    persistPeopleWithSkills(3, 2);
+    final Statistics statistics = clearedStatistics();
+
+    // when
+    final List<Person> actual = this.personRepository.findAllWithSkills();
+    actual.forEach(person -> person.getPersonSkills()
+        .forEach(personSkill -> personSkill.getSkill().getName()));
+
+    // then
+    assertEquals(3, actual.size());
+    actual.forEach(person -> assertEquals(2, person.getPersonSkills().size()));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  public void shouldStreamAllPeopleWithSkillsInOneStatement() {
+    // given
+    persistPeopleWithSkills(3, 2);
+    final Statistics statistics = clearedStatistics();
+
+    // when
+    final List<Person> actual;
+    try (Stream<Person> people = this.personRepository.streamAll(1)) {
+      actual = people.collect(Collectors.toList());
+    }
+    actual.forEach(person -> person.getPersonSkills()
+        .forEach(personSkill -> personSkill.getSkill().getName()));
+
+    // then
+    assertEquals(3, actual.size());
+    actual.forEach(person -> assertEquals(2, person.getPersonSkills().size()));
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  public void shouldFindIdsOfPeopleWithAllSkillsAtMinimumLevel() {
+    // given
+    final Person first = persistPersonWithSkills("1", SkillLevel.EXPERT, SkillLevel.PRACTITIONER);
+    persistPersonWithSkills("2", SkillLevel.EXPERT, SkillLevel.WORKING);
+    final Person third = persistPersonWithSkills("3", SkillLevel.PRACTITIONER, SkillLevel.EXPERT);
+    persistPersonWithSkills("4", SkillLevel.EXPERT);
+
+    // when
+    final Page<Long> actual =
+        this.personRepository.findIdsWithAllSkills(Arrays.asList("Java", "Kubernetes"),
+            SkillLevel.PRACTITIONER.andAbove(), 2, PageRequest.of(0, 1));
+
+    // then
+    assertEquals(Arrays.asList(first.getId()), actual.getContent());
+    assertEquals(2, actual.getTotalElements());
+    assertEquals(Arrays.asList(third.getId()),
+        this.personRepository.findIdsWithAllSkills(Arrays.asList("Java", "Kubernetes"),
+            SkillLevel.PRACTITIONER.andAbove(), 2, PageRequest.of(1, 1)).getContent());
+  }
+
+  @Test
+  public void shouldFindIdsOfPeopleWithAnySkillAtMinimumLevel() {
+    // given
+    final Person first = persistPersonWithSkills("1", SkillLevel.EXPERT, SkillLevel.PRACTITIONER);
+    final Person second = persistPersonWithSkills("2", SkillLevel.AWARENESS, SkillLevel.EXPERT);
+    persistPersonWithSkills("3", SkillLevel.WORKING, SkillLevel.WORKING);
+
+    // when
+    final Page<Long> actual =
+        this.personRepository.findIdsWithAnySkill(Arrays.asList("Java", "Kubernetes"),
+            SkillLevel.PRACTITIONER.andAbove(), PageRequest.of(0, 10));
+
+    // then
+    assertEquals(Arrays.asList(first.getId(), second.getId()), actual.getContent());
+    assertEquals(2, actual.getTotalElements());
+  }
+
+  @Test
+  public void shouldFetchPeopleWithSkillsByIds() {
+    // given
+    final Person first = persistPersonWithSkills("1", SkillLevel.EXPERT, SkillLevel.WORKING);
+    persistPersonWithSkills("2", SkillLevel.EXPERT);
+    final Person third = persistPersonWithSkills("3", SkillLevel.WORKING);
+
+    // when
+    final List<Person> actual =
+        this.personRepository.findWithSkillsByIdIn(Arrays.asList(third.getId(), first.getId()));
+
+    // then
+    assertEquals(Arrays.asList("1", "3"),
+        actual.stream().map(Person::getStaffNumber).collect(Collectors.toList()));
+    assertEquals(2, actual.get(0).getPersonSkills().size());
+  }
+
+  @Test
+  public void shouldStreamSkillLevelsWithoutLoadingEntities() {
+    // given
+    final Person person = persistPersonWithSkills("1", SkillLevel.EXPERT, SkillLevel.WORKING);
+
+    // when
+    final List<String> actual;
+    try (Stream<PersonSkillLevel> skillLevels = this.personRepository.streamSkillLevels(1)) {
+      actual = skillLevels.map(skillLevel -> skillLevel.getPersonId() + ":"
+          + skillLevel.getSkillName() + ":" + skillLevel.getLevel()).sorted()
+          .collect(Collectors.toList());
+    }
+
+    // then
+    assertEquals(Arrays.asList(person.getId() + ":Java:EXPERT",
+        person.getId() + ":Kubernetes:WORKING"), actual);
+  }
+
+  @Test
+  public void shouldStreamStaffNumbers() {
+    // given
+    final Person person = persistPersonWithSkills("1");
+
+    // when
+    final List<String> actual;
+    try (Stream<PersonStaffNumber> staffNumbers = this.personRepository.streamStaffNumbers(1)) {
+      actual = staffNumbers
+          .map(staffNumber -> staffNumber.getPersonId() + ":" + staffNumber.getStaffNumber())
+          .collect(Collectors.toList());
+    }
+
+    // then
+    assertEquals(Arrays.asList(person.getId() + ":1"), actual);
+  }
+
+  @Test
+  public void shouldFetchVersionByStaffNumberAndIncrementItOnChange() {
+    // given
+    final Person person =
+        this.entityManager.persistAndFlush(Person.builder().name("Samba").staffNumber("1").build());
+
+    // when
+    final PersonVersion before = this.personRepository.findVersionByStaffNumber("1");
+    person.setName("Sam");
+    this.entityManager.flush();
+    final PersonVersion after = this.personRepository.findVersionByStaffNumber("1");
+
+    // then
+    assertEquals(person.getId(), before.getId());
+    assertEquals(Long.valueOf(before.getVersion() + 1), after.getVersion());
+    assertEquals(Long.valueOf(0), after.getSkillCount());
+    assertNull(this.personRepository.findVersionByStaffNumber("2"));
+  }
+
+  @Test
+  public void shouldChangeVersionOfPersonWhenTheirSkillIsRenamed() {
+    // given
+    persistPersonWithSkills("1", SkillLevel.EXPERT, SkillLevel.WORKING);
+    final PersonVersion before = this.personRepository.findVersionByStaffNumber("1");
+
+    // when
+    this.skillRepository.findByName("Java").setName("Java SE");
+    this.entityManager.flush();
+    final PersonVersion after = this.personRepository.findVersionByStaffNumber("1");
+
+    // then
+    assertEquals(before.getVersion(), after.getVersion());
+    assertEquals(Long.valueOf(2), after.getSkillCount());
+    assertEquals(Long.valueOf(before.getSkillVersionSum() + 1), after.getSkillVersionSum());
+  }
+
+  @Test
+  public void shouldCheckPersonExistsByStaffNumber() {
+    // given
+    this.entityManager.persistAndFlush(Person.builder().name("Samba").staffNumber("1").build());
+
+    // when/then
+    assertTrue(this.personRepository.existsByStaffNumber("1"));
+    assertFalse(this.personRepository.existsByStaffNumber("2"));
+  }
+
+  @Test(expected = DataIntegrityViolationException.class)
+  public void shouldNotSaveTwoPeopleWithTheSameStaffNumber() {
+    // given
+    this.personRepository.saveAndFlush(Person.builder().name("Samba").staffNumber("1").build());
+
+    // when/then
+    this.personRepository.saveAndFlush(Person.builder().name("Sam").staffNumber("1").build());
+  }
+
+  @Test
+  public void shouldStreamPeople() {
+    // given
+    this.entityManager.persist(Person.builder().name("Samba").staffNumber("1").build());
+    this.entityManager.persist(Person.builder().name("Sam").staffNumber("2").build());
+    this.entityManager.flush();
+    this.entityManager.clear();
+
+    // when
+    final List<String> actual;
+    try (Stream<Person> people = this.personRepository.streamAll(1)) {
+      actual = people.map(Person::getStaffNumber).sorted().collect(Collectors.toList());
+    }
+
+    // then
+    assertEquals(Arrays.asList("1", "2"), actual);
+  }
+
   @Test
   public void shouldSavePersonWithSkills() {
     // given
@@ -92,4 +391,106 @@ public class PersonRepositoryTest {
     assertEquals("Java", actual.getPersonSkills().iterator().next().getSkill().getName());
   }
 
+  private void persistPeopleWithSkills(final int numberOfPeople, final int numberOfSkills) {
+    final List<Skill> skills = new ArrayList<>();
+    for (int i = 1; i <= numberOfSkills; i++) {
+      skills.add(this.entityManager.persist(Skill.builder().name("Skill " + i).build()));
+    }
+    for (int i = 1; i <= numberOfPeople; i++) {
+      final Person person = this.entityManager
+          .persist(Person.builder().name("Person " + i).staffNumber(String.valueOf(i)).build());
+      person.setPersonSkills(new HashSet<>());
+      for (Skill skill : skills) {
+        person.getPersonSkills().add(this.entityManager.persist(
+            PersonSkill.builder().person(person).skill(skill).level(SkillLevel.WORKING).build()));
+      }
+    }
+    this.entityManager.flush();
+    this.entityManager.clear();
+  }
+
+  @Test
+  public void shouldFindKeysAfterIdInIdOrder() {
+    // given
+    final List<Long> ids = new ArrayList<>();
+    for (String staffNumber : Arrays.asList("3", "1", "2")) {
+      ids.add(this.entityManager
+          .persist(Person.builder().name("Samba").staffNumber(staffNumber).build()).getId());
+    }
+    this.entityManager.flush();
+
+    // when
+    final List<PersonKey> actual =
+        this.personRepository.findKeysAfterId(ids.get(0), PageRequest.of(0, 10));
+
+    // then
+    assertEquals(ids.subList(1, 3),
+        actual.stream().map(PersonKey::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldFindKeysAfterStaffNumberInStaffNumberOrder() {
+    // given
+    for (String staffNumber : Arrays.asList("3", "1", "4", "2")) {
+      this.entityManager.persist(Person.builder().name("Samba").staffNumber(staffNumber).build());
+    }
+    this.entityManager.flush();
+
+    // when
+    final List<PersonKey> actual =
+        this.personRepository.findKeysAfterStaffNumber("1", PageRequest.of(0, 2));
+
+    // then
+    assertEquals(Arrays.asList("2", "3"),
+        actual.stream().map(PersonKey::getStaffNumber).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldFindKeysAfterNameAndIdInNameOrderBreakingTiesOnId() {
+    // given
+    final Person firstSam =
+        this.entityManager.persist(Person.builder().name("Sam").staffNumber("1").build());
+    this.entityManager.persist(Person.builder().name("Alex").staffNumber("2").build());
+    this.entityManager.persist(Person.builder().name("Sam").staffNumber("3").build());
+    this.entityManager.persist(Person.builder().name("Sam").staffNumber("4").build());
+    this.entityManager.persist(Person.builder().name("Toni").staffNumber("5").build());
+    this.entityManager.flush();
+
+    // when
+    final List<PersonKey> actual = this.personRepository.findKeysAfterName("Sam",
+        firstSam.getId(), PageRequest.of(0, 10));
+
+    // then
+    assertEquals(Arrays.asList("3", "4", "5"),
+        actual.stream().map(PersonKey::getStaffNumber).collect(Collectors.toList()));
+  }
+
+  /**
+   * Persists a person holding Java, then Kubernetes, at the given levels.
+   */
+  private Person persistPersonWithSkills(final String staffNumber, final SkillLevel... levels) {
+    final List<String> skillNames = Arrays.asList("Java", "Kubernetes");
+    final Person person = this.entityManager
+        .persist(Person.builder().name("Person " + staffNumber).staffNumber(staffNumber).build());
+    person.setPersonSkills(new HashSet<>());
+    for (int i = 0; i < levels.length; i++) {
+      Skill skill = this.skillRepository.findByName(skillNames.get(i));
+      if (skill == null) {
+        skill = this.entityManager.persist(Skill.builder().name(skillNames.get(i)).build());
+      }
+      person.getPersonSkills().add(this.entityManager.persist(
+          PersonSkill.builder().person(person).skill(skill).level(levels[i]).build()));
+    }
+    this.entityManager.flush();
+    this.entityManager.clear();
+    return person;
+  }
+
+  private Statistics clearedStatistics() {
+    final Statistics statistics =
+        this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    return statistics;
+  }
+
 }
@@ -1,14 +1,26 @@
 package uk.gov.nhs.sts.repository;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
+import uk.gov.nhs.sts.model.data.Person;
+import uk.gov.nhs.sts.model.data.PersonSkill;
 import uk.gov.nhs.sts.model.data.Skill;
+import uk.gov.nhs.sts.model.data.SkillLevel;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
@@ -20,6 +32,18 @@ public class SkillRepositoryTest {
   @Autowired
   private TestEntityManager entityManager;
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  /**
+   * The second-level cache outlives the rolled back test transactions, so it is emptied to stop
+   * skills from one test being found in another.
+   */
+  @Before
+  public void evictSecondLevelCache() {
+    this.entityManagerFactory.getCache().evictAll();
+  }
+
   @Test
   public void shouldSaveSkill() {
     // given
@@ -59,4 +83,92 @@ public class SkillRepositoryTest {
     assertEquals(actual, persisted);
   }
 
+  @Test
+  public void shouldNotFindMissingSkillByName() {
+    // when/then
+    assertNull(this.skillRepository.findByName("Rowing"));
+  }
+
+  @Test
+  public void shouldCheckSkillExistsByName() {
+    // given
+    this.entityManager.persistAndFlush(Skill.builder().name("Running").build());
+
+    // when/then
+    assertTrue(this.skillRepository.existsByName("Running"));
+    assertFalse(this.skillRepository.existsByName("Rowing"));
+  }
+
+  @Test
+  public void shouldFetchSkillsByNames() {
+    // given
+    this.entityManager.persist(Skill.builder().name("Running").build());
+    this.entityManager.persist(Skill.builder().name("Swimming").build());
+    this.entityManager.persistAndFlush(Skill.builder().name("Cycling").build());
+
+    // when
+    final List<Skill> actual =
+        this.skillRepository.findByNameIn(Arrays.asList("Running", "Cycling", "Rowing"));
+
+    // then
+    assertEquals(Arrays.asList("Cycling", "Running"),
+        actual.stream().map(Skill::getName).sorted().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldFindSkillsAfterIdInIdOrder() {
+    // given
+    final Skill running = this.entityManager.persist(Skill.builder().name("Running").build());
+    this.entityManager.persist(Skill.builder().name("Swimming").build());
+    this.entityManager.persist(Skill.builder().name("Cycling").build());
+    this.entityManager.persistAndFlush(Skill.builder().name("Rowing").build());
+
+    // when
+    final List<Skill> actual =
+        this.skillRepository.findAfterId(running.getId(), PageRequest.of(0, 2));
+
+    // then
+    assertEquals(Arrays.asList("Swimming", "Cycling"),
+        actual.stream().map(Skill::getName).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldFindSkillsAfterNameInNameOrder() {
+    // given
+    this.entityManager.persist(Skill.builder().name("Running").build());
+    this.entityManager.persist(Skill.builder().name("Swimming").build());
+    this.entityManager.persist(Skill.builder().name("Cycling").build());
+    this.entityManager.persistAndFlush(Skill.builder().name("Rowing").build());
+
+    // when
+    final List<Skill> actual = this.skillRepository.findAfterName("Rowing", PageRequest.of(0, 10));
+
+    // then
+    assertEquals(Arrays.asList("Running", "Swimming"),
+        actual.stream().map(Skill::getName).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldCountPeopleBySkillAndLevel() {
+    // given
+    final Skill running = this.entityManager.persist(Skill.builder().name("Running").build());
+    this.entityManager.persist(Skill.builder().name("Rowing").build());
+    for (int i = 1; i <= 3; i++) {
+      final Person person = this.entityManager
+          .persist(Person.builder().name("Person " + i).staffNumber(String.valueOf(i)).build());
+      this.entityManager.persist(PersonSkill.builder().person(person).skill(running)
+          .level(i == 1 ? SkillLevel.AWARENESS : SkillLevel.EXPERT).build());
+    }
+    this.entityManager.flush();
+
+    // when
+    final List<SkillLevelCount> actual = this.skillRepository.countPeopleBySkillAndLevel();
+
+    // then
+    assertEquals(Arrays.asList("Rowing:null:0", "Running:AWARENESS:1", "Running:EXPERT:2"),
+        actual.stream()
+            .map(count -> count.getSkillName() + ":" + count.getLevel() + ":" + count.getCount())
+            .sorted().collect(Collectors.toList()));
+  }
+
 }
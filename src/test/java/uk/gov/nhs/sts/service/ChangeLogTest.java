@@ -0,0 +1,259 @@
+package uk.gov.nhs.sts.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static uk.gov.nhs.sts.model.dto.TestPeople.person;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.model.data.ChangeLogEntry;
+import uk.gov.nhs.sts.model.dto.ChangeDTO;
+import uk.gov.nhs.sts.model.dto.ChangesDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.ChangeLogRepository;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ChangeLogTest {
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private ChangeLog changeLog;
+
+  @Autowired
+  private ChangeLogRepository changeLogRepository;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ServiceProperties properties;
+
+  private Duration settleTime;
+
+  @Before
+  public void setUp() {
+    this.settleTime = this.properties.getChanges().getSettleTime();
+    this.properties.getChanges().setSettleTime(Duration.ZERO);
+    this.changeLogRepository.deleteAll();
+  }
+
+  @After
+  public void tearDown() {
+    this.properties.getChanges().setSettleTime(this.settleTime);
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+    this.changeLogRepository.deleteAll();
+  }
+
+  @Test
+  public void shouldLogChangesInTheOrderTheyWereMade() {
+    // given
+    this.service.createPerson(person("1", "Java"));
+    this.service.updatePerson(person("2", "Java"), "1");
+    this.service.updateSkill(SkillDTO.builder().name("Kotlin").build(), "Java");
+    this.service.deletePerson("2");
+
+    // when
+    final ChangesDTO changes = this.changeLog.getChanges(0, 100);
+
+    // then
+    assertEquals(Arrays.asList("SKILL CREATED Java null", "PERSON CREATED 1 null",
+        "PERSON UPDATED 2 1", "SKILL UPDATED Kotlin Java", "PERSON DELETED 2 null"),
+        describe(changes.getChanges()));
+    assertEquals(
+        "{\"name\":\"Person 2\",\"staffNumber\":\"2\",\"personSkills\":[{\"skillName\":\"Java\",\"skillLevel\":\"WORKING\"}]}",
+        changes.getChanges().get(2).getRecord());
+    assertEquals("{\"name\":\"Kotlin\"}", changes.getChanges().get(3).getRecord());
+    assertNull(changes.getChanges().get(4).getRecord());
+    assertEquals(changes.getChanges().get(4).getCursor(), changes.getCursor());
+  }
+
+  @Test
+  public void shouldPageThroughChangesWithTheCursor() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+    this.service.createSkill(SkillDTO.builder().name("Go").build());
+    this.service.createSkill(SkillDTO.builder().name("Rust").build());
+
+    // when
+    final ChangesDTO firstPage = this.changeLog.getChanges(0, 2);
+    final ChangesDTO secondPage = this.changeLog.getChanges(firstPage.getCursor(), 2);
+    final ChangesDTO thirdPage = this.changeLog.getChanges(secondPage.getCursor(), 2);
+
+    // then
+    assertEquals(Arrays.asList("SKILL CREATED Java null", "SKILL CREATED Go null"),
+        describe(firstPage.getChanges()));
+    assertEquals(Arrays.asList("SKILL CREATED Rust null"), describe(secondPage.getChanges()));
+    assertTrue(thirdPage.getChanges().isEmpty());
+    assertEquals(secondPage.getCursor(), thirdPage.getCursor());
+  }
+
+  @Test
+  public void shouldNotLogChangesThatRolledBack() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+
+    // when
+    try {
+      this.service.createSkill(SkillDTO.builder().name("Java").build());
+    } catch (DataIntegrityViolationException e) {
+      // expected
+    }
+
+    // then
+    assertEquals(Arrays.asList("SKILL CREATED Java null"),
+        describe(this.changeLog.getChanges(0, 100).getChanges()));
+  }
+
+  @Test
+  public void shouldPurgeChangesOlderThanTheRetention() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Cobol").build());
+    this.service.deleteSkill("Cobol");
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+    backdate(this.changeLog.getChanges(0, 2).getChanges(), Duration.ofDays(31));
+
+    // when
+    this.changeLog.purge();
+
+    // then
+    assertEquals(Arrays.asList("SKILL CREATED Java null"),
+        describe(this.changeLog.getChanges(0, 100).getChanges()));
+  }
+
+  @Test
+  public void shouldKeepTheLatestChangeWhenPurging() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+    backdate(this.changeLog.getChanges(0, 100).getChanges(), Duration.ofDays(31));
+
+    // when
+    this.changeLog.purge();
+
+    // then
+    assertEquals(Arrays.asList("SKILL CREATED Java null"),
+        describe(this.changeLog.getChanges(0, 100).getChanges()));
+  }
+
+  @Test
+  public void shouldTimeChangesWithTheDatabaseClock() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+
+    // when
+    final List<ChangeLogEntry> entries = this.changeLogRepository.findAll();
+
+    // then
+    assertEquals(1, entries.size());
+    assertNotNull(entries.get(0).getChangedAt());
+  }
+
+  @Test
+  public void shouldTimeChangesAsTheyAreLoggedRatherThanAsTheirTransactionStarted() {
+    // given
+    final Instant before = Instant.now();
+
+    // when
+    this.transactionTemplate.execute(status -> {
+      sleep(Duration.ofMillis(500));
+      this.service.createSkill(SkillDTO.builder().name("Java").build());
+      return null;
+    });
+
+    // then
+    final Instant changedAt = this.changeLogRepository.findAll().get(0).getChangedAt();
+    assertFalse(changedAt + " is before " + before,
+        changedAt.isBefore(before.plusMillis(500)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldRefuseASettleTimeNoLongerThanTheWriteTimeout() {
+    // given
+    this.properties.getChanges()
+        .setSettleTime(Duration.ofSeconds(PeopleManagementService.WRITE_TIMEOUT_SECONDS));
+
+    // when
+    this.changeLog.checkSettleTime();
+  }
+
+  @Test(expected = ChangesPurgedException.class)
+  public void shouldFailIfChangesAfterTheCursorHaveBeenPurged() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Cobol").build());
+    this.service.createSkill(SkillDTO.builder().name("Go").build());
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+    final List<ChangeDTO> changes = this.changeLog.getChanges(0, 100).getChanges();
+    backdate(changes.subList(0, 2), Duration.ofDays(31));
+    this.changeLog.purge();
+
+    // when
+    this.changeLog.getChanges(changes.get(0).getCursor(), 100);
+  }
+
+  @Test
+  public void shouldNotFailIfOnlyChangesUpToTheCursorHaveBeenPurged() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Go").build());
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+    final List<ChangeDTO> changes = this.changeLog.getChanges(0, 100).getChanges();
+    backdate(changes.subList(0, 1), Duration.ofDays(31));
+    this.changeLog.purge();
+
+    // when
+    final ChangesDTO actual = this.changeLog.getChanges(changes.get(0).getCursor(), 100);
+
+    // then
+    assertEquals(Arrays.asList("SKILL CREATED Java null"), describe(actual.getChanges()));
+  }
+
+  private void backdate(final List<ChangeDTO> changes, final Duration age) {
+    changes.forEach(change -> this.jdbcTemplate.update(
+        "update change_log set changed_at = ? where id = ?",
+        Timestamp.from(Instant.now().minus(age)), change.getCursor()));
+  }
+
+  private static List<String> describe(final List<ChangeDTO> changes) {
+    return changes.stream().map(change -> change.getEntityType() + " " + change.getChangeType()
+        + " " + change.getKey() + " " + change.getPreviousKey()).collect(Collectors.toList());
+  }
+
+  private static void sleep(final Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
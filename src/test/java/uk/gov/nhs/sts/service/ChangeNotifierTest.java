@@ -0,0 +1,250 @@
+package uk.gov.nhs.sts.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.gov.nhs.sts.model.dto.TestPeople.person;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+
+public class ChangeNotifierTest {
+
+  private final ServiceProperties properties = new ServiceProperties();
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private ChangeNotifier notifier;
+
+  @Before
+  public void setUp() {
+    this.notifier = new ChangeNotifier(this.properties, new ObjectMapper(), this.meterRegistry);
+  }
+
+  @After
+  public void tearDown() {
+    this.notifier.shutdown();
+  }
+
+  @Test
+  public void shouldSendEveryChangeToUnfilteredSubscribers() throws Exception {
+    // given
+    final RecordingSink sink = new RecordingSink();
+    this.notifier.subscribe(Collections.emptySet(), Collections.emptySet(), sink);
+
+    // when
+    this.notifier.onSkillChanged(skillChanged(ChangeType.UPDATED, "Java", "Kotlin"));
+    this.notifier.onPersonChanged(personChanged(ChangeType.CREATED, null, person("1", "Go")));
+
+    // then
+    sink.awaitEvents(2);
+    assertEquals(Arrays.asList(
+        "skill {\"entityType\":\"SKILL\",\"changeType\":\"UPDATED\",\"key\":\"Kotlin\",\"previousKey\":\"Java\",\"record\":{\"name\":\"Kotlin\"}}",
+        "person {\"entityType\":\"PERSON\",\"changeType\":\"CREATED\",\"key\":\"1\",\"previousKey\":null,\"record\":{\"name\":\"Person 1\",\"staffNumber\":\"1\",\"personSkills\":[{\"skillName\":\"Go\",\"skillLevel\":\"WORKING\"}]}}"),
+        sink.events);
+  }
+
+  @Test
+  public void shouldOnlySendChangesMatchingTheFilter() throws Exception {
+    // given
+    final RecordingSink sink = new RecordingSink();
+    this.notifier.subscribe(set("Go"), set("2"), sink);
+
+    // when
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Java"));
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Go"));
+    this.notifier.onPersonChanged(personChanged(ChangeType.CREATED, null, person("1", "Java")));
+    this.notifier.onPersonChanged(
+        personChanged(ChangeType.UPDATED, person("1", "Java"), person("1", "Go")));
+    this.notifier.onPersonChanged(personChanged(ChangeType.CREATED, null, person("2", "Java")));
+    this.notifier.onPersonChanged(personChanged(ChangeType.DELETED, person("3", "Go"), null));
+
+    // then
+    sink.awaitEvents(4);
+    assertEquals(Arrays.asList("skill CREATED Go", "person UPDATED 1", "person CREATED 2",
+        "person DELETED 3"), sink.summaries());
+  }
+
+  @Test
+  public void shouldDisconnectSubscribersWhoFallBehind() throws Exception {
+    // given
+    this.properties.getChanges().setSubscriberBufferSize(2);
+    final BlockingSink slow = new BlockingSink();
+    final RecordingSink fast = new RecordingSink();
+    this.notifier.subscribe(Collections.emptySet(), Collections.emptySet(), slow);
+    this.notifier.subscribe(Collections.emptySet(), Collections.emptySet(), fast);
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Java"));
+    assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+    fast.awaitEvents(1);
+
+    // when
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Go"));
+    fast.awaitEvents(2);
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Rust"));
+    fast.awaitEvents(3);
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Kotlin"));
+
+    // then
+    fast.awaitEvents(4);
+    assertEquals(1, this.notifier.getSubscriberCount());
+    assertEquals(1, this.meterRegistry.counter("sts.changes.subscribers.dropped").count(), 0);
+    slow.release.countDown();
+    assertTrue(slow.closed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldDisconnectSubscribersStuckSendingWithoutHoldingUpTheOthers()
+      throws Exception {
+    // given
+    this.notifier.shutdown();
+    this.properties.getChanges().setSenderThreads(1);
+    this.properties.getChanges().setSendTimeout(Duration.ofMillis(50));
+    this.notifier = new ChangeNotifier(this.properties, new ObjectMapper(), this.meterRegistry);
+    final BlockingSink stuck = new BlockingSink();
+    this.notifier.subscribe(Collections.emptySet(), Collections.emptySet(), stuck);
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Java"));
+    assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+    final RecordingSink fast = new RecordingSink();
+    this.notifier.subscribe(Collections.emptySet(), Collections.emptySet(), fast);
+    Thread.sleep(100);
+
+    // when
+    this.notifier.checkSubscribers();
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Go"));
+
+    // then
+    fast.awaitEvents(1);
+    assertEquals(1, this.notifier.getSubscriberCount());
+    assertEquals(1, this.meterRegistry.counter("sts.changes.subscribers.dropped").count(), 0);
+    assertFalse(stuck.closed.await(100, TimeUnit.MILLISECONDS));
+    stuck.release.countDown();
+    assertTrue(stuck.closed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldCloseSubscriptionsWhichHaveTimedOut() throws Exception {
+    // given
+    this.properties.getChanges().setSubscriptionTimeout(Duration.ZERO);
+    final RecordingSink sink = new RecordingSink();
+    this.notifier.subscribe(Collections.emptySet(), Collections.emptySet(), sink);
+    Thread.sleep(10);
+
+    // when
+    this.notifier.checkSubscribers();
+
+    // then
+    assertEquals(0, this.notifier.getSubscriberCount());
+    assertTrue(sink.closed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldStopSendingOnceCancelled() throws Exception {
+    // given
+    final RecordingSink sink = new RecordingSink();
+    final ChangeSubscription subscription =
+        this.notifier.subscribe(Collections.emptySet(), Collections.emptySet(), sink);
+
+    // when
+    subscription.cancel();
+    this.notifier.onSkillChanged(skillChanged(ChangeType.CREATED, null, "Java"));
+
+    // then
+    assertEquals(0, this.notifier.getSubscriberCount());
+    assertTrue(sink.closed.await(5, TimeUnit.SECONDS));
+    assertTrue(sink.events.isEmpty());
+  }
+
+  private static SkillChangedEvent skillChanged(final ChangeType type, final String previousName,
+      final String currentName) {
+    return SkillChangedEvent.builder().type(type).previousName(previousName)
+        .currentName(currentName).build();
+  }
+
+  private static PersonChangedEvent personChanged(final ChangeType type, final PersonDTO previous,
+      final PersonDTO current) {
+    return PersonChangedEvent.builder().type(type).previous(previous).current(current).build();
+  }
+
+  private static Set<String> set(final String... values) {
+    return new HashSet<>(Arrays.asList(values));
+  }
+
+  private static class RecordingSink implements ChangeSink {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    @Override
+    public void send(final String name, final String json) {
+      this.events.add(name + " " + json);
+    }
+
+    @Override
+    public void close() {
+      this.closed.countDown();
+    }
+
+    void awaitEvents(final int count) throws InterruptedException {
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (this.events.size() < count && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(count, this.events.size());
+    }
+
+    List<String> summaries() {
+      return this.events.stream()
+          .map(event -> event.substring(0, event.indexOf(' ')) + " "
+              + field(event, "changeType") + " " + field(event, "key"))
+          .collect(Collectors.toList());
+    }
+
+    private static String field(final String event, final String name) {
+      final int start = event.indexOf("\"" + name + "\":\"") + name.length() + 4;
+      return event.substring(start, event.indexOf('"', start));
+    }
+
+  }
+
+  private static class BlockingSink implements ChangeSink {
+
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    @Override
+    public void send(final String name, final String json) {
+      this.sending.countDown();
+      try {
+        this.release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void close() {
+      this.closed.countDown();
+    }
+
+  }
+
+}
@@ -0,0 +1,233 @@
+package uk.gov.nhs.sts.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit4.SpringRunner;
+import uk.gov.nhs.sts.config.CacheConfig;
+import uk.gov.nhs.sts.model.data.Skill;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PeopleManagementServiceCachingTest {
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private CacheInvalidator cacheInvalidator;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @Before
+  public void setUp() {
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build()))
+        .build());
+    this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    this.statistics.clear();
+  }
+
+  @After
+  public void tearDown() {
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+    this.cacheManager.getCacheNames()
+        .forEach(cacheName -> this.cacheManager.getCache(cacheName).clear());
+  }
+
+  @Test
+  public void shouldServeRepeatedReadsFromCache() {
+    // given
+    final String skillVersion = this.service.fetchSkillVersion("Java");
+    final String skillsVersion = this.service.fetchSkillsVersion();
+
+    // when
+    this.service.fetchPersonByStaffNumber("1");
+    this.service.fetchSkillByName("Java", skillVersion);
+    this.service.fetchSkills(skillsVersion);
+    final long statements = this.statistics.getPrepareStatementCount();
+    final PersonDTO person = this.service.fetchPersonByStaffNumber("1");
+    final Versioned<SkillDTO> skill = this.service.fetchSkillByName("Java", skillVersion);
+    this.service.fetchSkills(skillsVersion);
+
+    // then
+    assertEquals(statements, this.statistics.getPrepareStatementCount());
+    assertEquals("Samba", person.getName());
+    assertEquals("Java", skill.getValue().getName());
+    assertEquals(skillVersion, skill.getVersion());
+  }
+
+  @Test
+  public void shouldServeSkillEntitiesFromSecondLevelCache() {
+    // when
+    this.skillRepository.findByName("Java");
+    this.skillRepository.findAll();
+    this.statistics.clear();
+    final Skill skill = this.skillRepository.findByName("Java");
+    final List<Skill> skills = this.skillRepository.findAll();
+
+    // then
+    assertEquals(0, this.statistics.getPrepareStatementCount());
+    assertEquals(1, this.statistics.getNaturalIdCacheHitCount());
+    assertEquals(1, this.statistics.getQueryCacheHitCount());
+    assertEquals("Java", skill.getName());
+    assertEquals(1, skills.size());
+  }
+
+  @Test
+  public void shouldNotCacheMissingPeople() {
+    // when
+    assertNull(this.service.fetchPersonByStaffNumber("2"));
+    this.service.createPerson(PersonDTO.builder().name("Sam").staffNumber("2").build());
+
+    // then
+    assertEquals("Sam", this.service.fetchPersonByStaffNumber("2").getName());
+  }
+
+  @Test
+  public void shouldEvictPersonWhenUpdatedOrDeleted() {
+    // given
+    this.service.fetchPersonByStaffNumber("1");
+
+    // when
+    this.service.updatePerson(PersonDTO.builder().name("Sam").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.WORKING).build()))
+        .build(), "1");
+    final PersonDTO updated = this.service.fetchPersonByStaffNumber("1");
+    this.service.deletePerson("1");
+
+    // then
+    assertEquals("Sam", updated.getName());
+    assertEquals(SkillLevel.WORKING, updated.getPersonSkills().get(0).getSkillLevel());
+    assertNull(this.service.fetchPersonByStaffNumber("1"));
+  }
+
+  @Test
+  public void shouldRebuildCachedPersonJsonWhenPersonUpdated() {
+    // given
+    this.service.fetchPersonJson("1", this.service.fetchPersonVersion("1"));
+
+    // when
+    this.service.updatePerson(PersonDTO.builder().name("Sam").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.WORKING).build()))
+        .build(), "1");
+
+    // then
+    final PersonJson cached =
+        this.cacheManager.getCache(CacheConfig.PERSON_JSON_CACHE).get("1", PersonJson.class);
+    assertEquals(this.service.fetchPersonVersion("1"), cached.getVersion());
+    assertEquals(
+        "{\"name\":\"Sam\",\"staffNumber\":\"1\",\"personSkills\":[{\"skillName\":\"Java\",\"skillLevel\":\"WORKING\"}]}",
+        new String(cached.getJson(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldNotCacheAPersonLoadedBeforeAnEviction() {
+    // given
+    final long token = this.cacheInvalidator.beginLoad("1");
+    final PersonDTO loaded = this.service.fetchPersonByStaffNumber("1");
+    this.cacheManager.getCache(CacheConfig.PEOPLE_CACHE).clear();
+
+    // when
+    this.service.updatePerson(PersonDTO.builder().name("Sam").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build()))
+        .build(), "1");
+    this.cacheInvalidator.putUnlessEvicted(this.cacheManager.getCache(CacheConfig.PEOPLE_CACHE),
+        "1", loaded, token);
+
+    // then
+    assertEquals("Sam", this.service.fetchPersonByStaffNumber("1").getName());
+  }
+
+  @Test
+  public void shouldReloadSkillsCachedBeforeTheCurrentVersion() {
+    // given
+    final String before = this.service.fetchSkillsVersion();
+    final List<SkillDTO> loaded = this.service.fetchSkills();
+
+    // when
+    this.service.createSkill(SkillDTO.builder().name("Go").build());
+    this.cacheManager.getCache(CacheConfig.SKILLS_CACHE).put("all",
+        new Versioned<>(before, loaded));
+    final String after = this.service.fetchSkillsVersion();
+    final Versioned<List<SkillDTO>> skills = this.service.fetchSkills(after);
+
+    // then
+    assertEquals(after, skills.getVersion());
+    assertEquals(Arrays.asList("Go", "Java"), skills.getValue().stream().map(SkillDTO::getName)
+        .sorted().collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldEvictSkillsAndPeopleWhenSkillRenamed() {
+    // given
+    this.service.fetchPersonByStaffNumber("1");
+    this.service.fetchSkillByName("Java", this.service.fetchSkillVersion("Java"));
+    this.service.fetchSkills(this.service.fetchSkillsVersion());
+
+    // when
+    this.service.updateSkill(SkillDTO.builder().name("Java SE").build(), "Java");
+
+    // then
+    assertNull(this.service.fetchSkillByName("Java", this.service.fetchSkillVersion("Java")));
+    assertEquals(Arrays.asList("Java SE"),
+        this.service.fetchSkills(this.service.fetchSkillsVersion()).getValue().stream()
+            .map(SkillDTO::getName).collect(Collectors.toList()));
+    assertEquals("Java SE",
+        this.service.fetchPersonByStaffNumber("1").getPersonSkills().get(0).getSkillName());
+  }
+
+  @Test
+  public void shouldEvictSkillsWhenSkillCreatedByPersonImport() {
+    // given
+    this.service.fetchSkills(this.service.fetchSkillsVersion());
+
+    // when
+    this.service.importPeople(Arrays.asList(PersonDTO.builder().name("Sam").staffNumber("2")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Go").skillLevel(SkillLevel.EXPERT).build()))
+        .build()));
+
+    // then
+    assertEquals(Arrays.asList("Go", "Java"),
+        this.service.fetchSkills(this.service.fetchSkillsVersion()).getValue().stream()
+            .map(SkillDTO::getName).sorted().collect(Collectors.toList()));
+  }
+
+}
@@ -0,0 +1,147 @@
+package uk.gov.nhs.sts.service;
+
+import static org.junit.Assert.assertEquals;
+import static uk.gov.nhs.sts.config.StatementAssertions.assertStatements;
+import static uk.gov.nhs.sts.model.dto.TestPeople.person;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.persistence.EntityManagerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit4.SpringRunner;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonCursorPageDTO;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.PersonSort;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+
+/**
+ * Pins the number of SQL statements each operation runs against the database, so that a change
+ * which starts loading people or skills one at a time fails here rather than in production. Caches
+ * are cleared before each operation so that every count is for a cold read. Each write includes
+ * one batched insert into the change log, and one update of the skill catalogue version if it
+ * creates any skills.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PeopleManagementServiceStatementCountTest {
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Before
+  public void setUp() {
+    this.service.importPeople(Arrays.asList(person("1", "Java", "Postgres"),
+        person("2", "Java", "Kubernetes"), person("3", "Postgres")));
+    clearCaches();
+  }
+
+  @After
+  public void tearDown() {
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+    clearCaches();
+  }
+
+  @Test
+  public void shouldFetchPeopleWithOneSelectHoweverManyThereAre() {
+    // given
+    final List<PersonDTO> morePeople = new ArrayList<>();
+    for (int i = 4; i < 20; i++) {
+      morePeople.add(person(String.valueOf(i), "Java", "Go", "Kubernetes"));
+    }
+
+    // when/then
+    assertStatements(1, 0, 0, 0, this.service::fetchPeople);
+    this.service.importPeople(morePeople);
+    clearCaches();
+    assertStatements(1, 0, 0, 0, this.service::fetchPeople);
+  }
+
+  @Test
+  public void shouldFetchEveryPageOfPeopleWithTwoSelects() {
+    // given
+    this.service.importPeople(Arrays.asList(person("4", "Go"), person("5", "Go")));
+    clearCaches();
+    final List<String> staffNumbers = new ArrayList<>();
+    final AtomicReference<String> next = new AtomicReference<>();
+
+    // when/then
+    do {
+      assertStatements(2, 0, 0, 0, () -> {
+        final PersonCursorPageDTO page =
+            this.service.fetchPeoplePage(PersonSort.STAFF_NUMBER, next.get(), 2);
+        page.getPeople().forEach(person -> staffNumbers.add(person.getStaffNumber()));
+        next.set(page.getNext());
+      });
+    } while (next.get() != null);
+    assertEquals(Arrays.asList("1", "2", "3", "4", "5"), staffNumbers);
+  }
+
+  @Test
+  public void shouldFetchPersonWithOneSelect() {
+    // when/then
+    assertStatements(1, 0, 0, 0, () -> this.service.fetchPersonByStaffNumber("1"));
+  }
+
+  @Test
+  public void shouldFetchPeopleByStaffNumbersWithOneSelect() {
+    // when/then
+    assertStatements(1, 0, 0, 0,
+        () -> this.service.fetchPeopleByStaffNumbers(Arrays.asList("1", "2", "3", "4")));
+  }
+
+  @Test
+  public void shouldCreatePersonAndNewSkillsWithBatchedInserts() {
+    // when/then
+    assertStatements(4, 4, 1, 0,
+        () -> this.service.createPerson(person("4", "Java", "Go", "Rust")));
+  }
+
+  @Test
+  public void shouldUpdatePersonWithBatchedStatements() {
+    // when/then
+    assertStatements(3, 3, 4, 1,
+        () -> this.service.updatePerson(PersonDTO.builder().name("Sam").staffNumber("1")
+            .personSkills(Arrays.asList(
+                PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.AWARENESS)
+                    .build(),
+                PersonSkillDTO.builder().skillName("Go").skillLevel(SkillLevel.EXPERT).build()))
+            .build(), "1"));
+  }
+
+  @Test
+  public void shouldImportPeopleWithBatchedStatements() {
+    // when/then
+    assertStatements(2, 4, 2, 1, () -> this.service.importPeople(Arrays
+        .asList(person("1", "Java"), person("4", "Java", "Go"), person("5", "Go", "Rust"))));
+  }
+
+  private void clearCaches() {
+    this.cacheManager.getCacheNames()
+        .forEach(cacheName -> this.cacheManager.getCache(cacheName).clear());
+    this.entityManagerFactory.getCache().evictAll();
+  }
+
+}
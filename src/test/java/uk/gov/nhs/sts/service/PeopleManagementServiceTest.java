@@ -2,28 +2,74 @@ package uk.gov.nhs.sts.service;
 
 import static org.junit.Assert.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.gov.nhs.sts.config.CacheConfig;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
 import uk.gov.nhs.sts.model.data.Person;
 import uk.gov.nhs.sts.model.data.PersonSkill;
 import uk.gov.nhs.sts.model.data.Skill;
 import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonBatchResultDTO;
 import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonPageDTO;
 import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillCountsDTO;
+import uk.gov.nhs.sts.model.dto.SkillCursorPageDTO;
 import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillMatch;
+import uk.gov.nhs.sts.model.dto.SkillQueryDTO;
+import uk.gov.nhs.sts.model.dto.SkillSort;
+import uk.gov.nhs.sts.model.dto.TeamSearchResultDTO;
 import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.PersonVersion;
 import uk.gov.nhs.sts.repository.SkillRepository;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -35,9 +81,114 @@ public class PeopleManagementServiceTest {
   @Mock
   private SkillRepository skillRepository;
 
+  @Mock
+  private EntityManager entityManager;
+
+  @Spy
+  private ServiceProperties properties = new ServiceProperties();
+
+  @Spy
+  private CacheManager cacheManager = new ConcurrentMapCacheManager();
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @Mock
+  private TransactionTemplate transactionTemplate;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private SkillBitmapIndex skillBitmapIndex;
+
+  @Mock
+  private SkillMatrix skillMatrix;
+
+  @Mock
+  private SkillCatalogueVersion skillCatalogueVersion;
+
+  @Mock
+  private CacheInvalidator cacheInvalidator;
+
   @InjectMocks
   private PeopleManagementService service;
 
+  @Test
+  public void fetchPersonJsonShouldReturnCachedJsonOfSameVersion() {
+    // given
+    final PersonJson cached = new PersonJson("7.3.0.0", new byte[] {'{', '}'});
+    personJsonCache().put("1", cached);
+
+    // when
+    final PersonJson actual = this.service.fetchPersonJson("1", "7.3.0.0");
+
+    // then
+    assertEquals(cached, actual);
+    verify(this.personRepository, never()).findByStaffNumber(anyString());
+  }
+
+  @Test
+  public void fetchPersonJsonShouldSerialiseAndCachePersonIfVersionChanged() {
+    // given
+    personJsonCache().put("1", new PersonJson("7.2.0.0", new byte[] {'{', '}'}));
+    given(this.personRepository.findVersionByStaffNumber("1"))
+        .willReturn(personVersion(7L, 3L, 0L, 0L));
+    given(this.personRepository.findByStaffNumber("1")).willReturn(
+        Person.builder().staffNumber("1").name("Samba").personSkills(new HashSet<>()).build());
+
+    // when
+    final PersonJson actual = this.service.fetchPersonJson("1", "7.3.0.0");
+
+    // then
+    assertEquals("7.3.0.0", actual.getVersion());
+    assertEquals("{\"name\":\"Samba\",\"staffNumber\":\"1\",\"personSkills\":[]}",
+        new String(actual.getJson(), StandardCharsets.UTF_8));
+    assertEquals(actual, personJsonCache().get("1", PersonJson.class));
+  }
+
+  @Test
+  public void fetchPersonJsonShouldReturnNullIfNoPersonExists() {
+    // when
+    final PersonJson actual = this.service.fetchPersonJson("1", "7.3.0.0");
+
+    // then
+    assertNull(actual);
+    assertNull(personJsonCache().get("1"));
+  }
+
+  @Test
+  public void shouldRebuildCachedPersonJsonWhenPersonChanges() {
+    // given
+    personJsonCache().put("1", new PersonJson("7.3.0.0", new byte[] {'{', '}'}));
+    given(this.transactionTemplate.getTransactionManager())
+        .willReturn(mock(PlatformTransactionManager.class));
+    given(this.personRepository.findVersionByStaffNumber("2"))
+        .willReturn(personVersion(7L, 4L, 0L, 0L));
+    given(this.personRepository.findByStaffNumber("2")).willReturn(
+        Person.builder().staffNumber("2").name("Samba").personSkills(new HashSet<>()).build());
+
+    // when
+    this.service.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.UPDATED)
+        .personId(7L).previous(PersonDTO.builder().staffNumber("1").build())
+        .current(PersonDTO.builder().staffNumber("2").build()).build());
+
+    // then
+    assertNull(personJsonCache().get("1"));
+    assertEquals("7.4.0.0", personJsonCache().get("2", PersonJson.class).getVersion());
+  }
+
+  @Test
+  public void shouldNotBuildPersonJsonWhenUncachedPersonChanges() {
+    // when
+    this.service.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.CREATED)
+        .personId(7L).current(PersonDTO.builder().staffNumber("1").build()).build());
+
+    // then
+    assertNull(personJsonCache().get("1"));
+    verify(this.personRepository, never()).findByStaffNumber(anyString());
+  }
+
   @Test
   public void fetchPersonByStaffNumberShouldReturnNullIfNoPersonExits() {
     // given
@@ -97,6 +248,59 @@ public class PeopleManagementServiceTest {
     assertEquals(expected.getName(), actual.getName());
   }
 
+  @Test
+  public void fetchSkillsShouldReturnCachedSkillsOfSameVersion() {
+    // given
+    final Versioned<List<SkillDTO>> cached =
+        new Versioned<>("3", Arrays.asList(SkillDTO.builder().name("Java").build()));
+    skillsCache().put("all", cached);
+
+    // when
+    final Versioned<List<SkillDTO>> actual = this.service.fetchSkills("3");
+
+    // then
+    assertEquals(cached, actual);
+    verify(this.skillRepository, never()).findAll();
+  }
+
+  @Test
+  public void fetchSkillsShouldReloadAndCacheSkillsIfVersionChanged() {
+    // given
+    skillsCache().put("all",
+        new Versioned<>("2", Arrays.asList(SkillDTO.builder().name("Java").build())));
+    given(this.skillCatalogueVersion.getVersion()).willReturn(3L);
+    given(this.skillRepository.findAll())
+        .willReturn(Arrays.asList(Skill.builder().name("Java SE").build()));
+
+    // when
+    final Versioned<List<SkillDTO>> actual = this.service.fetchSkills("3");
+
+    // then
+    assertEquals("3", actual.getVersion());
+    assertEquals(Arrays.asList(SkillDTO.builder().name("Java SE").build()), actual.getValue());
+    assertEquals(actual, skillsCache().get("all", Versioned.class));
+  }
+
+  @Test
+  public void personExistsShouldCheckStaffNumber() {
+    // given
+    given(this.personRepository.existsByStaffNumber("1")).willReturn(true);
+
+    // when/then
+    assertTrue(this.service.personExists("1"));
+    assertFalse(this.service.personExists("2"));
+  }
+
+  @Test
+  public void skillExistsShouldCheckSkillName() {
+    // given
+    given(this.skillRepository.existsByName("Physics")).willReturn(true);
+
+    // when/then
+    assertTrue(this.service.skillExists("Physics"));
+    assertFalse(this.service.skillExists("Chemistry"));
+  }
+
   @Test
   public void shouldFetchPeople() {
     // given
@@ -104,7 +308,7 @@ public class PeopleManagementServiceTest {
         .skill(Skill.builder().name("Physics").build()).build();
     final Person person = Person.builder().staffNumber("1").name("Samba")
         .personSkills(new HashSet<>(Arrays.asList(personSkill))).build();
-    given(this.personRepository.findAll()).willReturn(Arrays.asList(person));
+    given(this.personRepository.findAllWithSkills()).willReturn(Arrays.asList(person));
 
     // when
     final List<PersonDTO> actual = this.service.fetchPeople();
@@ -115,6 +319,56 @@ public class PeopleManagementServiceTest {
     assertEquals(person.getStaffNumber(), actual.get(0).getStaffNumber());
   }
 
+  @Test
+  public void shouldStreamPeople() {
+    // given
+    final PersonSkill personSkill = PersonSkill.builder().level(SkillLevel.PRACTITIONER)
+        .skill(Skill.builder().name("Physics").build()).build();
+    final Person person = Person.builder().staffNumber("1").name("Samba")
+        .personSkills(new HashSet<>(Arrays.asList(personSkill))).build();
+    given(this.personRepository.streamAll(anyInt())).willReturn(Stream.of(person));
+    final List<PersonDTO> actual = new ArrayList<>();
+
+    // when
+    this.service.streamPeople(actual::add);
+
+    // then
+    assertEquals(1, actual.size());
+    assertEquals(person.getStaffNumber(), actual.get(0).getStaffNumber());
+    assertEquals("Physics", actual.get(0).getPersonSkills().get(0).getSkillName());
+    verify(this.personRepository, times(1))
+        .streamAll(this.properties.getPeople().getStreamFetchSize());
+    verify(this.entityManager, times(1)).detach(person);
+  }
+
+  @Test
+  public void shouldFetchPeopleByStaffNumbersInTheOrderAsked() {
+    // given
+    final Person first = Person.builder().staffNumber("1").name("Samba").build();
+    final Person third = Person.builder().staffNumber("3").name("Mitra").build();
+    given(this.personRepository
+        .findByStaffNumberIn(new LinkedHashSet<>(Arrays.asList("3", "2", "1"))))
+            .willReturn(Arrays.asList(first, third));
+
+    // when
+    final List<PersonDTO> actual =
+        this.service.fetchPeopleByStaffNumbers(Arrays.asList("3", "2", "1", "3"));
+
+    // then
+    assertEquals(Arrays.asList("3", "1"),
+        actual.stream().map(PersonDTO::getStaffNumber).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldNotQueryWhenFetchingNoPeopleByStaffNumber() {
+    // when
+    final List<PersonDTO> actual = this.service.fetchPeopleByStaffNumbers(Collections.emptyList());
+
+    // then
+    assertTrue(actual.isEmpty());
+    verify(this.personRepository, never()).findByStaffNumberIn(any());
+  }
+
   @Test
   public void shouldFetchSkills() {
     // given
@@ -131,6 +385,40 @@ public class PeopleManagementServiceTest {
     assertEquals(skills.get(0).getName(), actual.get(0).getName());
   }
 
+  @Test
+  public void shouldFetchPageOfSkillsContinuingAfterTheLastSkillOfThePreviousPage() {
+    // given
+    given(this.skillRepository.findAfterName("", PageRequest.of(0, 3))).willReturn(Arrays.asList(
+        skill(3L, "Go"), skill(1L, "Java"), skill(7L, "Kotlin")));
+    given(this.skillRepository.findAfterName("Java", PageRequest.of(0, 3)))
+        .willReturn(Arrays.asList(skill(7L, "Kotlin")));
+
+    // when
+    final SkillCursorPageDTO firstPage = this.service.fetchSkillsPage(SkillSort.NAME, null, 2);
+    final SkillCursorPageDTO lastPage =
+        this.service.fetchSkillsPage(SkillSort.NAME, firstPage.getNext(), 2);
+
+    // then
+    assertEquals(Arrays.asList("Go", "Java"), names(firstPage.getSkills()));
+    assertNotNull(firstPage.getNext());
+    assertEquals(Arrays.asList("Kotlin"), names(lastPage.getSkills()));
+    assertNull(lastPage.getNext());
+  }
+
+  @Test
+  public void shouldRejectContinuationTokenOfListingInAnotherOrder() {
+    // given
+    given(this.skillRepository.findAfterId(0, PageRequest.of(0, 2)))
+        .willReturn(Arrays.asList(skill(1L, "Java"), skill(3L, "Go")));
+    final String next = this.service.fetchSkillsPage(SkillSort.ID, null, 1).getNext();
+
+    // when/then
+    assertThrows(InvalidContinuationTokenException.class,
+        () -> this.service.fetchSkillsPage(SkillSort.NAME, next, 1));
+    assertThrows(InvalidContinuationTokenException.class,
+        () -> this.service.fetchSkillsPage(SkillSort.ID, "not a token", 1));
+  }
+
   @Test
   public void shouldCreatePersonWithSkillWhenSkillAlreadyExists() {
     // given
@@ -140,7 +428,8 @@ public class PeopleManagementServiceTest {
         .personSkills(Arrays.asList(personSkillDto)).build();
 
     final Skill skill = Skill.builder().name("Coding").build();
-    given(this.skillRepository.findByName("Coding")).willReturn(skill);
+    given(this.skillRepository.findByNameIn(Collections.singleton("Coding")))
+        .willReturn(Arrays.asList(skill));
     final ArgumentCaptor<Person> personArgument = ArgumentCaptor.forClass(Person.class);
 
     final PersonSkill personSkill =
@@ -153,11 +442,13 @@ public class PeopleManagementServiceTest {
 
     // then
     verify(this.personRepository, times(2)).saveAndFlush(personArgument.capture());
+    verify(this.skillRepository, never()).saveAll(anyIterable());
     final Person actual = personArgument.getAllValues().get(1);
     assertEquals(expected.getName(), actual.getName());
     assertEquals(expected.getStaffNumber(), actual.getStaffNumber());
     assertEquals(expected.getPersonSkills().iterator().next().getLevel(),
         actual.getPersonSkills().iterator().next().getLevel());
+    assertEquals(skill, actual.getPersonSkills().iterator().next().getSkill());
   }
 
   @Test
@@ -168,9 +459,13 @@ public class PeopleManagementServiceTest {
     final PersonDTO personDto = PersonDTO.builder().name("Samba").staffNumber("1")
         .personSkills(Arrays.asList(personSkillDto)).build();
 
-    given(this.skillRepository.findByName("Coding")).willReturn(null);
+    given(this.skillRepository.findByNameIn(Collections.singleton("Coding")))
+        .willReturn(Collections.emptyList());
+    given(this.skillRepository.saveAll(anyIterable()))
+        .willAnswer(invocation -> invocation.getArgument(0));
     final ArgumentCaptor<Person> personArgument = ArgumentCaptor.forClass(Person.class);
-    final ArgumentCaptor<Skill> skillArgument = ArgumentCaptor.forClass(Skill.class);
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<Skill>> skillArgument = ArgumentCaptor.forClass(List.class);
 
     final Skill skill = Skill.builder().name("Coding").build();
     final PersonSkill personSkill =
@@ -183,14 +478,16 @@ public class PeopleManagementServiceTest {
 
     // then
     verify(this.personRepository, times(2)).saveAndFlush(personArgument.capture());
-    verify(this.skillRepository, times(1)).saveAndFlush(skillArgument.capture());
+    verify(this.skillRepository, times(1)).saveAll(skillArgument.capture());
     final Person actual = personArgument.getAllValues().get(1);
-    final Skill actualSkill = skillArgument.getValue();
+    final List<Skill> actualSkills = skillArgument.getValue();
     assertEquals(expected.getName(), actual.getName());
     assertEquals(expected.getStaffNumber(), actual.getStaffNumber());
     assertEquals(expected.getPersonSkills().iterator().next().getLevel(),
         actual.getPersonSkills().iterator().next().getLevel());
-    assertEquals(skill.getName(), actualSkill.getName());
+    assertEquals(1, actualSkills.size());
+    assertEquals(skill.getName(), actualSkills.get(0).getName());
+    assertEquals(actualSkills.get(0), actual.getPersonSkills().iterator().next().getSkill());
   }
 
   @Test
@@ -202,7 +499,8 @@ public class PeopleManagementServiceTest {
         .personSkills(Arrays.asList(personSkillDto)).build();
 
     final Skill skill = Skill.builder().name("Coding").build();
-    given(this.skillRepository.findByName("Coding")).willReturn(skill);
+    given(this.skillRepository.findByNameIn(Collections.singleton("Coding")))
+        .willReturn(Arrays.asList(skill));
     final ArgumentCaptor<Person> personArgument = ArgumentCaptor.forClass(Person.class);
 
     final PersonSkill personSkill =
@@ -221,6 +519,160 @@ public class PeopleManagementServiceTest {
     assertEquals(expected.getStaffNumber(), actual.getStaffNumber());
   }
 
+  @Test
+  public void shouldUpdateOnlyChangedSkillsOfPerson() {
+    // given
+    final PersonDTO personDto = PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Coding").skillLevel(SkillLevel.EXPERT).build(),
+            PersonSkillDTO.builder().skillName("Physics").skillLevel(SkillLevel.WORKING).build(),
+            PersonSkillDTO.builder().skillName("Maths").skillLevel(SkillLevel.AWARENESS).build()))
+        .build();
+
+    final Skill coding = Skill.builder().name("Coding").build();
+    final Skill physics = Skill.builder().name("Physics").build();
+    final Skill maths = Skill.builder().name("Maths").build();
+    final Skill music = Skill.builder().name("Music").build();
+    final PersonSkill existingCoding =
+        PersonSkill.builder().level(SkillLevel.PRACTITIONER).skill(coding).build();
+    final PersonSkill existingPhysics =
+        PersonSkill.builder().level(SkillLevel.WORKING).skill(physics).build();
+    final PersonSkill existingMusic =
+        PersonSkill.builder().level(SkillLevel.EXPERT).skill(music).build();
+    final Person person = Person.builder().name("Samba").staffNumber("1")
+        .personSkills(
+            new HashSet<>(Arrays.asList(existingCoding, existingPhysics, existingMusic)))
+        .build();
+    given(this.personRepository.findByStaffNumber("1")).willReturn(person);
+    given(this.skillRepository.findByNameIn(any()))
+        .willReturn(Arrays.asList(coding, physics, maths));
+
+    // when
+    this.service.updatePerson(personDto, "1");
+
+    // then
+    assertEquals(3, person.getPersonSkills().size());
+    assertTrue(person.getPersonSkills().contains(existingCoding));
+    assertTrue(person.getPersonSkills().contains(existingPhysics));
+    assertFalse(person.getPersonSkills().contains(existingMusic));
+    assertEquals(SkillLevel.EXPERT, existingCoding.getLevel());
+    assertEquals(SkillLevel.WORKING, existingPhysics.getLevel());
+    final PersonSkill addedMaths = person.getPersonSkills().stream()
+        .filter(personSkill -> personSkill.getSkill() == maths).findFirst().get();
+    assertEquals(SkillLevel.AWARENESS, addedMaths.getLevel());
+    assertEquals(person, addedMaths.getPerson());
+    verify(this.entityManager).lock(person, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+  }
+
+  @Test
+  public void shouldNotIncrementVersionOfPersonIfSkillsAreUnchanged() {
+    // given
+    final Skill coding = Skill.builder().name("Coding").build();
+    final Person person = Person.builder().name("Samba").staffNumber("1")
+        .personSkills(new HashSet<>(Arrays.asList(
+            PersonSkill.builder().level(SkillLevel.EXPERT).skill(coding).build())))
+        .build();
+    given(this.personRepository.findByStaffNumber("1")).willReturn(person);
+    given(this.skillRepository.findByNameIn(any())).willReturn(Arrays.asList(coding));
+    final PersonDTO personDto = PersonDTO.builder().name("Sam").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Coding").skillLevel(SkillLevel.EXPERT).build()))
+        .build();
+
+    // when
+    this.service.updatePerson(personDto, "1");
+
+    // then
+    verify(this.entityManager, never()).lock(any(), any());
+  }
+
+  @Test
+  public void shouldFetchPersonVersionWithoutLoadingPerson() {
+    // given
+    given(this.personRepository.findVersionByStaffNumber("1"))
+        .willReturn(personVersion(7L, 3L, 2L, 1L));
+
+    // when/then
+    assertEquals("7.3.2.1", this.service.fetchPersonVersion("1"));
+    assertNull(this.service.fetchPersonVersion("2"));
+    verify(this.personRepository, never()).findByStaffNumber(anyString());
+  }
+
+  @Test
+  public void shouldImportPeopleInChunks() {
+    // given
+    this.properties.getPeople().setImportChunkSize(2);
+    final PersonSkillDTO personSkillDto =
+        PersonSkillDTO.builder().skillName("Coding").skillLevel(SkillLevel.EXPERT).build();
+    final List<PersonDTO> personDtos = Arrays.asList(
+        PersonDTO.builder().name("Samba").staffNumber("1").build(),
+        PersonDTO.builder().name("Sam").staffNumber("2").personSkills(Arrays.asList(personSkillDto))
+            .build(),
+        PersonDTO.builder().name("Mitra").staffNumber("3").build(),
+        PersonDTO.builder().name("Samba Mitra").staffNumber("1").build());
+
+    final Person existing = Person.builder().name("S").staffNumber("1").build();
+    final Skill skill = Skill.builder().name("Coding").build();
+    final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    given(this.transactionTemplate.getTransactionManager()).willReturn(transactionManager);
+    given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+    given(this.personRepository.findByStaffNumberIn(Arrays.asList("1", "2")))
+        .willReturn(Arrays.asList(existing));
+    given(this.skillRepository.findByNameIn(Collections.singleton("Coding")))
+        .willReturn(Arrays.asList(skill));
+    @SuppressWarnings("unchecked")
+    final ArgumentCaptor<List<Person>> peopleArgument = ArgumentCaptor.forClass(List.class);
+
+    // when
+    final PersonBatchResultDTO actual = this.service.importPeople(personDtos);
+
+    // then
+    assertEquals(2, actual.getCreated());
+    assertEquals(1, actual.getUpdated());
+    assertEquals("Samba Mitra", existing.getName());
+    verify(transactionManager, times(2)).getTransaction(argThat(definition -> definition
+        .getTimeout() == PeopleManagementService.WRITE_TIMEOUT_SECONDS));
+    verify(transactionManager, times(2)).commit(any());
+    verify(this.personRepository, times(2)).saveAll(peopleArgument.capture());
+    final List<Person> firstChunk = peopleArgument.getAllValues().get(0);
+    assertEquals(1, firstChunk.size());
+    assertEquals("2", firstChunk.get(0).getStaffNumber());
+    assertEquals(skill, firstChunk.get(0).getPersonSkills().iterator().next().getSkill());
+    assertEquals("3", peopleArgument.getAllValues().get(1).get(0).getStaffNumber());
+  }
+
+  @Test
+  public void shouldReportHowFarAFailedImportGot() {
+    // given
+    this.properties.getPeople().setImportChunkSize(2);
+    final List<PersonDTO> personDtos = Arrays.asList(
+        PersonDTO.builder().name("Samba").staffNumber("1").build(),
+        PersonDTO.builder().name("Sam").staffNumber("2").build(),
+        PersonDTO.builder().name("Samba Mitra").staffNumber("1").build(),
+        PersonDTO.builder().name("Mitra").staffNumber("3").build(),
+        PersonDTO.builder().name("Sammy").staffNumber("4").build());
+
+    final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    given(this.transactionTemplate.getTransactionManager()).willReturn(transactionManager);
+    given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+    given(this.personRepository.findByStaffNumberIn(Arrays.asList("1", "2")))
+        .willReturn(Arrays.asList(Person.builder().name("S").staffNumber("1").build()));
+    final QueryTimeoutException failure = new QueryTimeoutException("Timed out");
+    given(this.personRepository.findByStaffNumberIn(Arrays.asList("3", "4"))).willThrow(failure);
+
+    // when
+    final PeopleImportException actual =
+        assertThrows(PeopleImportException.class, () -> this.service.importPeople(personDtos));
+
+    // then
+    assertEquals(1, actual.getCreated());
+    assertEquals(1, actual.getUpdated());
+    assertEquals(3, actual.getFirstUnprocessed());
+    assertEquals(failure, actual.getCause());
+    verify(transactionManager).commit(any());
+    verify(transactionManager).rollback(any());
+  }
+
   @Test
   public void shouldCreateSkill() {
     // given
@@ -251,31 +703,210 @@ public class PeopleManagementServiceTest {
     verify(this.skillRepository, times(1)).save(expected);
   }
 
+  @Test
+  public void shouldFindPeopleWithAllSkills() {
+    // given
+    final Set<String> skillNames = new LinkedHashSet<>(Arrays.asList("Java", "Kubernetes"));
+    final Person person = Person.builder().id(7L).name("Samba").staffNumber("1")
+        .personSkills(new HashSet<>(Arrays.asList(PersonSkill.builder()
+            .skill(Skill.builder().name("Java").build()).level(SkillLevel.EXPERT).build())))
+        .build();
+    given(this.personRepository.findIdsWithAllSkills(skillNames,
+        EnumSet.of(SkillLevel.PRACTITIONER, SkillLevel.EXPERT), 2, PageRequest.of(1, 1)))
+            .willReturn(new PageImpl<>(Arrays.asList(7L), PageRequest.of(1, 1), 3));
+    given(this.personRepository.findWithSkillsByIdIn(Arrays.asList(7L)))
+        .willReturn(Arrays.asList(person));
+
+    // when
+    final PersonPageDTO actual =
+        this.service.findPeopleBySkills(skillNames, SkillLevel.PRACTITIONER, SkillMatch.ALL, 1, 1);
+
+    // then
+    assertEquals(1, actual.getPeople().size());
+    assertEquals("1", actual.getPeople().get(0).getStaffNumber());
+    assertEquals(1, actual.getPage());
+    assertEquals(3, actual.getTotalElements());
+    assertEquals(3, actual.getTotalPages());
+  }
+
+  @Test
+  public void shouldNotLoadPeopleWhenNoneHaveAnySkill() {
+    // given
+    final Set<String> skillNames = Collections.singleton("Java");
+    given(this.personRepository.findIdsWithAnySkill(eq(skillNames), any(), any()))
+        .willReturn(new PageImpl<>(new ArrayList<>(), PageRequest.of(0, 20), 0));
+
+    // when
+    final PersonPageDTO actual =
+        this.service.findPeopleBySkills(skillNames, SkillLevel.AWARENESS, SkillMatch.ANY, 0, 20);
+
+    // then
+    assertTrue(actual.getPeople().isEmpty());
+    assertEquals(0, actual.getTotalElements());
+    verify(this.personRepository, never()).findWithSkillsByIdIn(any());
+  }
+
   @Test
   public void shouldDeletePerson() {
     // given
-    final PersonDTO personDto = PersonDTO.builder().name("Samba").staffNumber("1").build();
     final Person person = Person.builder().name("Samba").staffNumber("1").build();
-    given(this.personRepository.findByStaffNumber(personDto.getStaffNumber())).willReturn(person);
+    given(this.personRepository.findByStaffNumber("1")).willReturn(person);
 
     // when
-    this.service.deletePerson(personDto);
+    this.service.deletePerson("1");
 
     // then
     verify(this.personRepository, times(1)).delete(person);
   }
 
+  @Test
+  public void shouldPublishPersonChangedEventWithPreviousAndCurrentStateOnUpdate() {
+    // given
+    final Skill skill = Skill.builder().name("Coding").build();
+    final Person person = Person.builder().id(7L).name("Samba").staffNumber("1")
+        .personSkills(new HashSet<>(Arrays.asList(
+            PersonSkill.builder().level(SkillLevel.WORKING).skill(skill).build())))
+        .build();
+    given(this.personRepository.findByStaffNumber("1")).willReturn(person);
+    given(this.skillRepository.findByNameIn(Collections.singleton("Coding")))
+        .willReturn(Arrays.asList(skill));
+    final PersonDTO personDto = PersonDTO.builder().name("Samba").staffNumber("2")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Coding").skillLevel(SkillLevel.EXPERT).build()))
+        .build();
+    final ArgumentCaptor<PersonChangedEvent> eventArgument =
+        ArgumentCaptor.forClass(PersonChangedEvent.class);
+
+    // when
+    this.service.updatePerson(personDto, "1");
+
+    // then
+    verify(this.eventPublisher).publishEvent(eventArgument.capture());
+    final PersonChangedEvent actual = eventArgument.getValue();
+    assertEquals(ChangeType.UPDATED, actual.getType());
+    assertEquals(Long.valueOf(7L), actual.getPersonId());
+    assertEquals("1", actual.getPrevious().getStaffNumber());
+    assertEquals(SkillLevel.WORKING, actual.getPrevious().getPersonSkills().get(0).getSkillLevel());
+    assertEquals(personDto, actual.getCurrent());
+  }
+
+  @Test
+  public void shouldPublishPersonChangedEventOnDelete() {
+    // given
+    final Person person = Person.builder().id(7L).name("Samba").staffNumber("1").build();
+    given(this.personRepository.findByStaffNumber("1")).willReturn(person);
+    final ArgumentCaptor<PersonChangedEvent> eventArgument =
+        ArgumentCaptor.forClass(PersonChangedEvent.class);
+
+    // when
+    this.service.deletePerson("1");
+
+    // then
+    verify(this.eventPublisher).publishEvent(eventArgument.capture());
+    assertEquals(ChangeType.DELETED, eventArgument.getValue().getType());
+    assertEquals("1", eventArgument.getValue().getStaffNumber());
+    assertNull(eventArgument.getValue().getCurrent());
+  }
+
+  @Test
+  public void shouldPublishSkillChangedEventOnRename() {
+    // given
+    final Skill skill = Skill.builder().id(3L).name("Photography").build();
+    given(this.skillRepository.findByName("Photography")).willReturn(skill);
+    final ArgumentCaptor<SkillChangedEvent> eventArgument =
+        ArgumentCaptor.forClass(SkillChangedEvent.class);
+
+    // when
+    this.service.updateSkill(SkillDTO.builder().name("Photographer").build(), "Photography");
+
+    // then
+    verify(this.eventPublisher).publishEvent(eventArgument.capture());
+    assertEquals(SkillChangedEvent.builder().type(ChangeType.UPDATED).skillId(3L)
+        .previousName("Photography").currentName("Photographer").build(), eventArgument.getValue());
+  }
+
+  @Test
+  public void shouldFetchSkillMatrixFromCounters() {
+    // given
+    final List<SkillCountsDTO> expected =
+        Arrays.asList(SkillCountsDTO.builder().skillName("Java").total(1).build());
+    given(this.skillMatrix.getCounts()).willReturn(expected);
+
+    // when
+    final List<SkillCountsDTO> actual = this.service.fetchSkillMatrix();
+
+    // then
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void shouldSearchTeamUsingSkillIndex() {
+    // given
+    final SkillQueryDTO query = SkillQueryDTO.builder().skill("Java").build();
+    final TeamSearchResultDTO expected =
+        TeamSearchResultDTO.builder().count(1).staffNumbers(Arrays.asList("1")).build();
+    given(this.skillBitmapIndex.search(query)).willReturn(expected);
+
+    // when
+    final TeamSearchResultDTO actual = this.service.searchTeam(query);
+
+    // then
+    assertEquals(expected, actual);
+  }
+
   @Test
   public void shouldDeleteSkill() {
     // given
-    final SkillDTO skillDto = SkillDTO.builder().name("Maths").build();
     final Skill skill = Skill.builder().name("Maths").build();
-    given(this.skillRepository.findByName(skillDto.getName())).willReturn(skill);
+    given(this.skillRepository.findByName("Maths")).willReturn(skill);
 
     // when
-    this.service.deleteSkill(skillDto);
+    this.service.deleteSkill("Maths");
 
     // then
     verify(this.skillRepository, times(1)).delete(skill);
   }
+
+  private Cache personJsonCache() {
+    return this.cacheManager.getCache(CacheConfig.PERSON_JSON_CACHE);
+  }
+
+  private Cache skillsCache() {
+    return this.cacheManager.getCache(CacheConfig.SKILLS_CACHE);
+  }
+
+  private static PersonVersion personVersion(final Long id, final Long version,
+      final Long skillCount, final Long skillVersionSum) {
+    return new PersonVersion() {
+
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getVersion() {
+        return version;
+      }
+
+      @Override
+      public Long getSkillCount() {
+        return skillCount;
+      }
+
+      @Override
+      public Long getSkillVersionSum() {
+        return skillVersionSum;
+      }
+    };
+  }
+
+  private static Skill skill(final Long id, final String name) {
+    return Skill.builder().id(id).name(name).build();
+  }
+
+  private static List<String> names(final List<SkillDTO> skills) {
+    return skills.stream().map(SkillDTO::getName).collect(Collectors.toList());
+  }
+
 }
@@ -0,0 +1,240 @@
+package uk.gov.nhs.sts.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.nhs.sts.config.ServiceProperties;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillQueryDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.PersonSkillLevel;
+import uk.gov.nhs.sts.repository.PersonStaffNumber;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SkillBitmapIndexTest {
+
+  private static final int FETCH_SIZE = 100;
+
+  @Mock
+  private PersonRepository personRepository;
+
+  @Spy
+  private ChangeTransactionTracker changeTransactionTracker = new ChangeTransactionTracker();
+
+  @Spy
+  private ServiceProperties properties = new ServiceProperties();
+
+  @InjectMocks
+  private SkillBitmapIndex index;
+
+  @Before
+  public void buildIndex() {
+    this.properties.getPeople().setStreamFetchSize(FETCH_SIZE);
+    given(this.personRepository.streamStaffNumbers(FETCH_SIZE)).willReturn(
+        Stream.of(staffNumber(1L, "1"), staffNumber(2L, "2"), staffNumber(3L, "3"),
+            staffNumber(4L, "4")));
+    given(this.personRepository.streamSkillLevels(FETCH_SIZE)).willReturn(Stream.of(
+        skillLevel(1L, "Java", SkillLevel.EXPERT), skillLevel(1L, "Postgres", SkillLevel.WORKING),
+        skillLevel(2L, "Java", SkillLevel.AWARENESS), skillLevel(2L, "Postgres", SkillLevel.EXPERT),
+        skillLevel(3L, "Java", SkillLevel.PRACTITIONER)));
+    this.index.rebuild();
+  }
+
+  @Test
+  public void shouldFindPeopleWithSkillAtMinimumLevel() {
+    // when
+    final List<String> actual = search(
+        SkillQueryDTO.builder().skill("Java").minLevel(SkillLevel.PRACTITIONER).build());
+
+    // then
+    assertEquals(Arrays.asList("1", "3"), actual);
+  }
+
+  @Test
+  public void shouldFindPeopleWithAllSkills() {
+    // when
+    final List<String> actual = search(SkillQueryDTO.builder()
+        .and(Arrays.asList(skill("Java"), skill("Postgres"))).build());
+
+    // then
+    assertEquals(Arrays.asList("1", "2"), actual);
+  }
+
+  @Test
+  public void shouldFindPeopleWithAnySkill() {
+    // when
+    final List<String> actual = search(SkillQueryDTO.builder()
+        .or(Arrays.asList(skill("Postgres"), skill("Kubernetes"))).build());
+
+    // then
+    assertEquals(Arrays.asList("1", "2"), actual);
+  }
+
+  @Test
+  public void shouldExcludePeopleMatchingNot() {
+    // when
+    final List<String> actual = search(SkillQueryDTO.builder()
+        .and(Arrays.asList(skill("Java"), skill("Postgres"),
+            SkillQueryDTO.builder().not(SkillQueryDTO.builder().skill("Java")
+                .maxLevel(SkillLevel.AWARENESS).build()).build()))
+        .build());
+
+    // then
+    assertEquals(Arrays.asList("1"), actual);
+  }
+
+  @Test
+  public void shouldFindPeopleWithoutSkill() {
+    // when
+    final List<String> actual = search(SkillQueryDTO.builder().not(skill("Java")).build());
+
+    // then
+    assertEquals(Arrays.asList("4"), actual);
+  }
+
+  @Test
+  public void shouldApplyPersonChanges() {
+    // given
+    final PersonDTO previous = PersonDTO.builder().staffNumber("3")
+        .personSkills(Arrays.asList(personSkill("Java", SkillLevel.PRACTITIONER))).build();
+    final PersonDTO current = PersonDTO.builder().staffNumber("3")
+        .personSkills(Arrays.asList(personSkill("Postgres", SkillLevel.EXPERT))).build();
+
+    // when
+    this.index.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.UPDATED).personId(3L)
+        .previous(previous).current(current).build());
+    this.index.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.CREATED).personId(5L)
+        .current(PersonDTO.builder().staffNumber("5")
+            .personSkills(Arrays.asList(personSkill("Java", SkillLevel.EXPERT))).build())
+        .build());
+    this.index.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.DELETED).personId(4L)
+        .previous(PersonDTO.builder().staffNumber("4").build()).build());
+
+    // then
+    assertEquals(Arrays.asList("1", "2", "5"), search(skill("Java")));
+    assertEquals(Arrays.asList("1", "2", "3"), search(skill("Postgres")));
+    assertEquals(Collections.emptyList(),
+        search(SkillQueryDTO.builder().not(SkillQueryDTO.builder()
+            .or(Arrays.asList(skill("Java"), skill("Postgres"))).build()).build()));
+  }
+
+  @Test
+  public void shouldApplySkillChanges() {
+    // when
+    this.index.onSkillChanged(SkillChangedEvent.builder().type(ChangeType.UPDATED).skillId(1L)
+        .previousName("Postgres").currentName("PostgreSQL").build());
+    this.index.onSkillChanged(SkillChangedEvent.builder().type(ChangeType.DELETED).skillId(2L)
+        .previousName("Java").build());
+
+    // then
+    assertEquals(Collections.emptyList(), search(skill("Postgres")));
+    assertEquals(Arrays.asList("1", "2"), search(skill("PostgreSQL")));
+    assertEquals(Collections.emptyList(), search(skill("Java")));
+  }
+
+  @Test
+  public void shouldPickUpChangesMadeElsewhereWhenRebuilt() {
+    // given
+    given(this.personRepository.streamStaffNumbers(FETCH_SIZE))
+        .willReturn(Stream.of(staffNumber(1L, "1"), staffNumber(5L, "5")));
+    given(this.personRepository.streamSkillLevels(FETCH_SIZE)).willReturn(Stream.of(
+        skillLevel(1L, "Go", SkillLevel.EXPERT), skillLevel(5L, "Java", SkillLevel.WORKING)));
+
+    // when
+    this.index.rebuild();
+
+    // then
+    assertEquals(Arrays.asList("5"), search(skill("Java")));
+    assertEquals(Arrays.asList("1"), search(skill("Go")));
+    assertEquals(Collections.emptyList(), search(skill("Postgres")));
+  }
+
+  @Test
+  public void shouldNotRebuildWhileATransactionIsChangingPeople() {
+    // given
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      this.changeTransactionTracker.onPersonChanging(PersonChangedEvent.builder()
+          .type(ChangeType.DELETED).personId(4L).build());
+
+      // when
+      this.index.rebuild();
+
+      // then
+      verify(this.personRepository, times(1)).streamStaffNumbers(FETCH_SIZE);
+      assertEquals(Arrays.asList("1", "2", "3"), search(skill("Java")));
+    } finally {
+      TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+          synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private List<String> search(final SkillQueryDTO query) {
+    return this.index.search(query).getStaffNumbers();
+  }
+
+  private static SkillQueryDTO skill(final String skillName) {
+    return SkillQueryDTO.builder().skill(skillName).build();
+  }
+
+  private static PersonSkillDTO personSkill(final String skillName, final SkillLevel level) {
+    return PersonSkillDTO.builder().skillName(skillName).skillLevel(level).build();
+  }
+
+  private static PersonStaffNumber staffNumber(final Long personId, final String staffNumber) {
+    return new PersonStaffNumber() {
+
+      @Override
+      public Long getPersonId() {
+        return personId;
+      }
+
+      @Override
+      public String getStaffNumber() {
+        return staffNumber;
+      }
+    };
+  }
+
+  private static PersonSkillLevel skillLevel(final Long personId, final String skillName,
+      final SkillLevel level) {
+    return new PersonSkillLevel() {
+
+      @Override
+      public Long getPersonId() {
+        return personId;
+      }
+
+      @Override
+      public String getSkillName() {
+        return skillName;
+      }
+
+      @Override
+      public SkillLevel getLevel() {
+        return level;
+      }
+    };
+  }
+
+}
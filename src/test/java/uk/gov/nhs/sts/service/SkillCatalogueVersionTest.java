@@ -0,0 +1,91 @@
+package uk.gov.nhs.sts.service;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.model.dto.SkillDTO;
+import uk.gov.nhs.sts.repository.PersonRepository;
+import uk.gov.nhs.sts.repository.SkillRepository;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class SkillCatalogueVersionTest {
+
+  @Autowired
+  private PeopleManagementService service;
+
+  @Autowired
+  private PersonRepository personRepository;
+
+  @Autowired
+  private SkillRepository skillRepository;
+
+  @After
+  public void tearDown() {
+    this.personRepository.deleteAll();
+    this.skillRepository.deleteAll();
+  }
+
+  @Test
+  public void shouldChangeTheSkillsVersionOnEveryCreateUpdateAndDelete() {
+    // given
+    final List<String> versions = new ArrayList<>();
+    versions.add(this.service.fetchSkillsVersion());
+
+    // when
+    this.service.createSkill(SkillDTO.builder().name("Running").build());
+    versions.add(this.service.fetchSkillsVersion());
+    this.service.updateSkill(SkillDTO.builder().name("Jogging").build(), "Running");
+    versions.add(this.service.fetchSkillsVersion());
+    this.service.deleteSkill("Jogging");
+    versions.add(this.service.fetchSkillsVersion());
+    this.service.createSkill(SkillDTO.builder().name("Jogging").build());
+    versions.add(this.service.fetchSkillsVersion());
+
+    // then
+    assertEquals(versions.size(), versions.stream().distinct().count());
+  }
+
+  @Test
+  public void shouldChangeTheSkillsVersionOncePerTransaction() {
+    // given
+    final long before = Long.parseLong(this.service.fetchSkillsVersion());
+
+    // when
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build(),
+            PersonSkillDTO.builder().skillName("Go").skillLevel(SkillLevel.WORKING).build()))
+        .build());
+
+    // then
+    assertEquals(before + 1, Long.parseLong(this.service.fetchSkillsVersion()));
+  }
+
+  @Test
+  public void shouldNotChangeTheSkillsVersionWhenNoSkillChanges() {
+    // given
+    this.service.createSkill(SkillDTO.builder().name("Java").build());
+    final String before = this.service.fetchSkillsVersion();
+
+    // when
+    this.service.createPerson(PersonDTO.builder().name("Samba").staffNumber("1")
+        .personSkills(Arrays.asList(
+            PersonSkillDTO.builder().skillName("Java").skillLevel(SkillLevel.EXPERT).build()))
+        .build());
+
+    // then
+    assertEquals(before, this.service.fetchSkillsVersion());
+  }
+
+}
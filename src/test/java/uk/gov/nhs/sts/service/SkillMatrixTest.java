@@ -0,0 +1,215 @@
+package uk.gov.nhs.sts.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.nhs.sts.event.ChangeType;
+import uk.gov.nhs.sts.event.PersonChangedEvent;
+import uk.gov.nhs.sts.event.SkillChangedEvent;
+import uk.gov.nhs.sts.model.data.SkillLevel;
+import uk.gov.nhs.sts.model.dto.PersonDTO;
+import uk.gov.nhs.sts.model.dto.PersonSkillDTO;
+import uk.gov.nhs.sts.repository.SkillLevelCount;
+import uk.gov.nhs.sts.repository.SkillRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SkillMatrixTest {
+
+  @Mock
+  private SkillRepository skillRepository;
+
+  @Spy
+  private ChangeTransactionTracker changeTransactionTracker = new ChangeTransactionTracker();
+
+  @InjectMocks
+  private SkillMatrix skillMatrix;
+
+  @Before
+  public void loadMatrix() {
+    given(this.skillRepository.countPeopleBySkillAndLevel())
+        .willReturn(Arrays.asList(count("Java", SkillLevel.EXPERT, 2),
+            count("Java", SkillLevel.WORKING, 1), count("Postgres", null, 0)));
+    this.skillMatrix.load();
+  }
+
+  @Test
+  public void shouldLoadCountsFromDatabase() {
+    // when
+    final List<String> actual = counts();
+
+    // then
+    assertEquals(Arrays.asList("Java:{AWARENESS=0, WORKING=1, PRACTITIONER=0, EXPERT=2}:3",
+        "Postgres:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=0}:0"), actual);
+  }
+
+  @Test
+  public void shouldAdjustCountsWhenPeopleChange() {
+    // when
+    this.skillMatrix.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.UPDATED)
+        .personId(1L).previous(person(personSkill("Java", SkillLevel.WORKING)))
+        .current(person(personSkill("Java", SkillLevel.EXPERT),
+            personSkill("Postgres", SkillLevel.AWARENESS)))
+        .build());
+    this.skillMatrix.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.DELETED)
+        .personId(2L).previous(person(personSkill("Java", SkillLevel.EXPERT))).build());
+    this.skillMatrix.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.CREATED)
+        .personId(3L).current(person(personSkill("Kubernetes", SkillLevel.PRACTITIONER)))
+        .build());
+
+    // then
+    assertEquals(Arrays.asList("Java:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=2}:2",
+        "Kubernetes:{AWARENESS=0, WORKING=0, PRACTITIONER=1, EXPERT=0}:1",
+        "Postgres:{AWARENESS=1, WORKING=0, PRACTITIONER=0, EXPERT=0}:1"), counts());
+  }
+
+  @Test
+  public void shouldAdjustCountsWhenSkillsChange() {
+    // when
+    this.skillMatrix.onSkillChanged(SkillChangedEvent.builder().type(ChangeType.CREATED)
+        .skillId(3L).currentName("Go").build());
+    this.skillMatrix.onSkillChanged(SkillChangedEvent.builder().type(ChangeType.UPDATED)
+        .skillId(1L).previousName("Java").currentName("Java SE").build());
+    this.skillMatrix.onSkillChanged(SkillChangedEvent.builder().type(ChangeType.DELETED)
+        .skillId(2L).previousName("Postgres").build());
+
+    // then
+    assertEquals(Arrays.asList("Go:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=0}:0",
+        "Java SE:{AWARENESS=0, WORKING=1, PRACTITIONER=0, EXPERT=2}:3"), counts());
+  }
+
+  @Test
+  public void shouldReplaceCountsWhenReconciled() {
+    // given
+    this.skillMatrix.onPersonChanged(PersonChangedEvent.builder().type(ChangeType.CREATED)
+        .personId(3L).current(person(personSkill("Java", SkillLevel.EXPERT))).build());
+    given(this.skillRepository.countPeopleBySkillAndLevel())
+        .willReturn(Arrays.asList(count("Java", SkillLevel.EXPERT, 1)));
+
+    // when
+    this.skillMatrix.reconcile();
+
+    // then
+    assertEquals(Arrays.asList("Java:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=1}:1"),
+        counts());
+  }
+
+  @Test
+  public void shouldRemoveSkillsWhichAreNoLongerInTheDatabaseWhenReconciled() {
+    // given
+    given(this.skillRepository.countPeopleBySkillAndLevel())
+        .willReturn(Arrays.asList(count("Java", SkillLevel.EXPERT, 2),
+            count("Java", SkillLevel.WORKING, 1)));
+
+    // when
+    this.skillMatrix.reconcile();
+
+    // then
+    assertEquals(Arrays.asList("Java:{AWARENESS=0, WORKING=1, PRACTITIONER=0, EXPERT=2}:3"),
+        counts());
+  }
+
+  @Test
+  public void shouldNotReconcileWhileATransactionIsChangingPeople() {
+    // given
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      this.changeTransactionTracker.onPersonChanging(PersonChangedEvent.builder().type(ChangeType.CREATED)
+          .personId(3L).current(person(personSkill("Java", SkillLevel.EXPERT))).build());
+      given(this.skillRepository.countPeopleBySkillAndLevel())
+          .willReturn(Arrays.asList(count("Java", SkillLevel.EXPERT, 3)));
+
+      // when
+      this.skillMatrix.reconcile();
+
+      // then
+      assertEquals(Arrays.asList("Java:{AWARENESS=0, WORKING=1, PRACTITIONER=0, EXPERT=2}:3",
+          "Postgres:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=0}:0"), counts());
+      verify(this.skillRepository, times(1)).countPeopleBySkillAndLevel();
+
+      completeTransaction();
+      this.skillMatrix.reconcile();
+      assertEquals(Arrays.asList("Java:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=3}:3"),
+          counts());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  public void shouldDiscardCountsReadWhileATransactionChangedPeople() {
+    // given
+    given(this.skillRepository.countPeopleBySkillAndLevel()).willAnswer(invocation -> {
+      TransactionSynchronizationManager.initSynchronization();
+      try {
+        this.changeTransactionTracker.onSkillChanging(SkillChangedEvent.builder().type(ChangeType.CREATED)
+            .skillId(3L).currentName("Go").build());
+        completeTransaction();
+      } finally {
+        TransactionSynchronizationManager.clearSynchronization();
+      }
+      return Arrays.asList(count("Java", SkillLevel.EXPERT, 1));
+    }).willReturn(Arrays.asList(count("Java", SkillLevel.EXPERT, 1), count("Go", null, 0)));
+
+    // when
+    this.skillMatrix.reconcile();
+
+    // then
+    assertEquals(Arrays.asList("Go:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=0}:0",
+        "Java:{AWARENESS=0, WORKING=0, PRACTITIONER=0, EXPERT=1}:1"), counts());
+    verify(this.skillRepository, times(3)).countPeopleBySkillAndLevel();
+  }
+
+  private static void completeTransaction() {
+    TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization
+        .afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+  }
+
+  private List<String> counts() {
+    return this.skillMatrix.getCounts().stream().map(skillCounts -> skillCounts.getSkillName()
+        + ":" + skillCounts.getLevels() + ":" + skillCounts.getTotal())
+        .collect(Collectors.toList());
+  }
+
+  private static PersonDTO person(final PersonSkillDTO... personSkills) {
+    return PersonDTO.builder().staffNumber("1").personSkills(Arrays.asList(personSkills)).build();
+  }
+
+  private static PersonSkillDTO personSkill(final String skillName, final SkillLevel level) {
+    return PersonSkillDTO.builder().skillName(skillName).skillLevel(level).build();
+  }
+
+  private static SkillLevelCount count(final String skillName, final SkillLevel level,
+      final long count) {
+    return new SkillLevelCount() {
+
+      @Override
+      public String getSkillName() {
+        return skillName;
+      }
+
+      @Override
+      public SkillLevel getLevel() {
+        return level;
+      }
+
+      @Override
+      public long getCount() {
+        return count;
+      }
+    };
+  }
+
+}